@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.benchmarks;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.jcup.basheditor.script.BashScriptModelBuilder;
+
+/**
+ * Measures model building with every combination of validations. Validation
+ * names are separated by "+":
+ * <ul>
+ * <li>do - do ... done validation</li>
+ * <li>block - curly brace block validation</li>
+ * <li>if - if ... fi and case ... esac validation</li>
+ * <li>function - function validation</li>
+ * </ul>
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BashScriptModelBuilderBenchmark {
+
+    @Param({ BenchmarkScripts.BIG_SCRIPT, BenchmarkScripts.CORPUS })
+    public String script;
+
+    @Param({ "1", "10" })
+    public int scale;
+
+    /* @formatter:off*/
+    @Param({ 
+        "none", 
+        "do", "block", "if", "function", 
+        "do+block", "do+if", "do+function", "block+if", "block+function", "if+function", 
+        "do+block+if", "do+block+function", "do+if+function", "block+if+function", 
+        "do+block+if+function" })
+    /* @formatter:on*/
+    public String validations;
+
+    @Param({ "false", "true" })
+    public boolean ignoreVariables;
+
+    private List<String> scripts;
+    private BashScriptModelBuilder builder;
+
+    @Setup
+    public void setup() throws Exception {
+        scripts = BenchmarkScripts.load(script, scale);
+
+        List<String> enabled = Arrays.asList(validations.split("\\+"));
+        builder = new BashScriptModelBuilder();
+        builder.setIgnoreDoValidation(!enabled.contains("do"));
+        builder.setIgnoreBlockValidation(!enabled.contains("block"));
+        builder.setIgnoreIfValidation(!enabled.contains("if"));
+        builder.setIgnoreFunctionValidation(!enabled.contains("function"));
+        builder.setIgnoreVariables(ignoreVariables);
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) throws Exception {
+        for (String bashScript : scripts) {
+            blackhole.consume(builder.build(bashScript));
+        }
+    }
+
+}
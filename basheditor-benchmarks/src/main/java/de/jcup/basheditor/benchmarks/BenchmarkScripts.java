@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loads scripts used by benchmarks from the test script folder
+ * (basheditor-other/testscripts). The folder can be defined by system property
+ * "basheditor.testscripts".
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class BenchmarkScripts {
+
+    /**
+     * Name for all scripts of the test script folder
+     */
+    public static final String CORPUS = "corpus";
+
+    /**
+     * Name of biggest script inside test script folder
+     */
+    public static final String BIG_SCRIPT = "bugfix_41_4_bigscript.sh";
+
+    private static final String SYSTEM_PROPERTY_TESTSCRIPTS = "basheditor.testscripts";
+
+    private BenchmarkScripts() {
+    }
+
+    /**
+     * Loads scripts
+     * 
+     * @param name  name of script inside test script folder or {@link #CORPUS}
+     *              for all scripts
+     * @param scale every script is repeated <code>scale</code> times, so
+     *              synthetic bigger scripts are created
+     * @return list of scripts, never empty
+     * @throws IOException
+     */
+    public static List<String> load(String name, int scale) throws IOException {
+        File folder = resolveTestScriptFolder();
+        List<File> files = new ArrayList<>();
+        if (CORPUS.equals(name)) {
+            collectFiles(folder, files);
+            Collections.sort(files);
+        } else {
+            files.add(new File(folder, name));
+        }
+        List<String> scripts = new ArrayList<>();
+        for (File file : files) {
+            String script = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+            scripts.add(scale(script, scale));
+        }
+        if (scripts.isEmpty()) {
+            throw new IllegalStateException("No scripts found for " + name + " inside " + folder);
+        }
+        return scripts;
+    }
+
+    /**
+     * Creates a bigger script by repeating given one
+     * 
+     * @param script
+     * @param scale
+     * @return scaled script
+     */
+    public static String scale(String script, int scale) {
+        if (scale <= 1) {
+            return script;
+        }
+        StringBuilder sb = new StringBuilder(script.length() * scale + scale);
+        for (int i = 0; i < scale; i++) {
+            sb.append(script);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void collectFiles(File folder, List<File> files) {
+        File[] children = folder.listFiles();
+        if (children == null) {
+            return;
+        }
+        for (File file : children) {
+            if (file.isDirectory()) {
+                collectFiles(file, files);
+            } else if (file.isFile() && !file.getName().endsWith(".md")) {
+                files.add(file);
+            }
+        }
+    }
+
+    private static File resolveTestScriptFolder() {
+        String path = System.getProperty(SYSTEM_PROPERTY_TESTSCRIPTS);
+        File folder;
+        if (path != null) {
+            folder = new File(path);
+        } else {
+            folder = new File("../basheditor-other/testscripts");
+        }
+        if (!folder.isDirectory()) {
+            throw new IllegalStateException("Test script folder not found:" + folder.getAbsolutePath() + ", define it by system property " + SYSTEM_PROPERTY_TESTSCRIPTS);
+        }
+        return folder;
+    }
+}
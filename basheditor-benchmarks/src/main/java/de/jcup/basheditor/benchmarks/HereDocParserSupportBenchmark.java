@@ -0,0 +1,129 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.jcup.basheditor.script.parser.CodePosSupport;
+import de.jcup.basheditor.script.parser.HereDocParserSupport;
+
+/**
+ * Measures here-doc detection outside the token parser - like done by
+ * document partitioning: Every '&lt;' inside the script is inspected by
+ * {@link HereDocParserSupport}, found here-docs are skipped.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HereDocParserSupportBenchmark {
+
+    private static final String HEREDOC_SCRIPT = "heredocs";
+
+    private static final String HEREDOC_SNIPPET = "cat <<EOF\nline 1 $VAR\nline 2 with 'quotes' and \"strings\"\nEOF\necho \"no heredoc: $a < $b\"\ncat <<-'END_OF_TEXT'\n\tsome text\n\tEND_OF_TEXT\n";
+
+    @Param({ BenchmarkScripts.BIG_SCRIPT, BenchmarkScripts.CORPUS, HEREDOC_SCRIPT })
+    public String script;
+
+    @Param({ "1", "10" })
+    public int scale;
+
+    private List<String> scripts;
+    private HereDocParserSupport support;
+
+    @Setup
+    public void setup() throws Exception {
+        if (HEREDOC_SCRIPT.equals(script)) {
+            /* synthetic script containing only here-docs */
+            scripts = Collections.singletonList(BenchmarkScripts.scale(HEREDOC_SNIPPET, 100 * scale));
+        } else {
+            scripts = BenchmarkScripts.load(script, scale);
+        }
+        support = new HereDocParserSupport();
+    }
+
+    @Benchmark
+    public int detectHereDocs() {
+        int found = 0;
+        for (String bashScript : scripts) {
+            StringCodePosSupport codePosSupport = new StringCodePosSupport(bashScript);
+            int length = bashScript.length();
+            for (int pos = 0; pos < length; pos++) {
+                if (bashScript.charAt(pos) != '<') {
+                    continue;
+                }
+                codePosSupport.startAt(pos);
+                if (support.isHereDocStateHandled(codePosSupport)) {
+                    found++;
+                    pos = Math.max(pos, codePosSupport.pos);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static class StringCodePosSupport implements CodePosSupport {
+        private String text;
+        private int initialStartPos;
+        private int pos;
+
+        private StringCodePosSupport(String text) {
+            this.text = text;
+        }
+
+        private void startAt(int pos) {
+            this.initialStartPos = pos;
+            this.pos = pos;
+        }
+
+        @Override
+        public void moveToPos(int newPos) {
+            this.pos = newPos;
+        }
+
+        @Override
+        public int getInitialStartPos() {
+            return initialStartPos;
+        }
+
+        @Override
+        public Character getCharacterAtPosOrNull(int pos) {
+            if (pos < 0 || pos >= text.length()) {
+                return null;
+            }
+            return text.charAt(pos);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.benchmarks;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.jcup.basheditor.SimpleWordListBuilder;
+
+/**
+ * Measures word list building as done for simple word code completion
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleWordListBuilderBenchmark {
+
+    @Param({ BenchmarkScripts.BIG_SCRIPT, BenchmarkScripts.CORPUS })
+    public String script;
+
+    @Param({ "1", "10", "50" })
+    public int scale;
+
+    private List<String> scripts;
+    private SimpleWordListBuilder builder;
+
+    @Setup
+    public void setup() throws Exception {
+        scripts = BenchmarkScripts.load(script, scale);
+        builder = new SimpleWordListBuilder();
+    }
+
+    @Benchmark
+    public void build(Blackhole blackhole) {
+        for (String bashScript : scripts) {
+            blackhole.consume(builder.build(bashScript));
+        }
+    }
+
+    @Benchmark
+    public void addWordsToSet(Blackhole blackhole) {
+        for (String bashScript : scripts) {
+            Set<String> words = new HashSet<>();
+            builder.addWords(bashScript, 0, bashScript.length(), words);
+            blackhole.consume(words);
+        }
+    }
+
+}
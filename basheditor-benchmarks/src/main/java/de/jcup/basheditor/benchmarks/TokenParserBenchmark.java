@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ScriptChange;
+import de.jcup.basheditor.script.parser.TokenParser;
+
+/**
+ * Measures full and incremental tokenizing
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenParserBenchmark {
+
+    private static final String INSERTED_TEXT = "x";
+
+    @Param({ BenchmarkScripts.BIG_SCRIPT, BenchmarkScripts.CORPUS })
+    public String script;
+
+    @Param({ "1", "10", "50" })
+    public int scale;
+
+    @Param({ "true", "false" })
+    public boolean lazyTokenText;
+
+    private List<String> scripts;
+    private List<String> changedScripts;
+    private List<ScriptChange> changes;
+    private List<List<ParseToken>> tokensBeforeChange;
+    private TokenParser parser;
+
+    @Setup
+    public void setup() throws Exception {
+        scripts = BenchmarkScripts.load(script, scale);
+        parser = new TokenParser();
+        parser.setLazyTokenText(lazyTokenText);
+
+        /* one character inserted in middle of each script */
+        changedScripts = new ArrayList<>();
+        changes = new ArrayList<>();
+        tokensBeforeChange = new ArrayList<>();
+        for (String original : scripts) {
+            int offset = original.length() / 2;
+            changedScripts.add(original.substring(0, offset) + INSERTED_TEXT + original.substring(offset));
+            changes.add(new ScriptChange(offset, 0, INSERTED_TEXT));
+            tokensBeforeChange.add(parser.parse(original));
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) throws Exception {
+        for (String bashScript : scripts) {
+            blackhole.consume(parser.parse(bashScript));
+        }
+    }
+
+    /**
+     * Measures only the parse cost - tokens behind the change are shifted
+     * lazily, so they are not touched here. See
+     * {@link #parseIncrementalAfterOneCharInsertedAndGetAllTexts(Blackhole)}
+     * for a consumer reading all tokens.
+     */
+    @Benchmark
+    public void parseIncrementalAfterOneCharInserted(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < changedScripts.size(); i++) {
+            blackhole.consume(parser.parse(changedScripts.get(i), tokensBeforeChange.get(i), changes.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void parseIncrementalAfterOneCharInsertedAndGetAllTexts(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < changedScripts.size(); i++) {
+            for (ParseToken token : parser.parse(changedScripts.get(i), tokensBeforeChange.get(i), changes.get(i))) {
+                blackhole.consume(token.getStart());
+                blackhole.consume(token.getText());
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseAndGetAllTexts(Blackhole blackhole) throws Exception {
+        for (String bashScript : scripts) {
+            for (ParseToken token : parser.parse(bashScript)) {
+                blackhole.consume(token.getText());
+            }
+        }
+    }
+}
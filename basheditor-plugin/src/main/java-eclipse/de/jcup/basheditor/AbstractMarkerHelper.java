@@ -16,6 +16,8 @@
 package de.jcup.basheditor;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.resources.IMarker;
@@ -67,17 +69,8 @@ abstract class AbstractMarkerHelper {
 			lineNumber = 1;
 		IMarker marker = findMarker(resource, message, lineNumber, markerType);
 		if (marker == null) {
-			HashMap<String, Object> map = new HashMap<>();
-			map.put(IMarker.SEVERITY, new Integer(severity));
-			map.put(IMarker.LOCATION, resource.getFullPath().toOSString());
-			map.put(IMarker.MESSAGE, message);
-			MarkerUtilities.setLineNumber(map, lineNumber);
-			MarkerUtilities.setMessage(map, message);
-			if (charStart != -1) {
-				MarkerUtilities.setCharStart(map, charStart);
-				MarkerUtilities.setCharEnd(map, charEnd);
-			}
-			internalCreateMarker(resource, map, markerType);
+			MarkerData data = new MarkerData(severity, message, lineNumber, charStart, charEnd);
+			internalCreateMarker(resource, createAttributes(resource, data), markerType);
 		}
 	}
 
@@ -119,6 +112,79 @@ abstract class AbstractMarkerHelper {
 		/* do nothing per default */
 	}
 
+	protected void handleMarkerRemoved(IMarker marker) {
+		/* do nothing per default */
+	}
+
+	/**
+	 * Updates markers of this helper's type at given resource, so afterwards
+	 * exactly the wanted markers exist. Existing markers are only read once and
+	 * compared with wanted ones - only changed markers are removed or created.
+	 * All changes are done in one workspace operation, so only one resource delta
+	 * is sent.
+	 * 
+	 * @param resource
+	 * @param wanted   data for all wanted markers
+	 * @throws CoreException
+	 */
+	public void updateScriptMarkers(IResource resource, List<MarkerData> wanted) throws CoreException {
+		if (resource == null) {
+			return;
+		}
+		IWorkspaceRunnable r = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				if (!resource.exists()) {
+					return;
+				}
+				IMarker[] markers = resource.findMarkers(markerType, true, IResource.DEPTH_ZERO);
+				Map<IMarker, MarkerData> existing = new LinkedHashMap<>();
+				for (IMarker marker : markers) {
+					if (marker == null) {
+						continue;
+					}
+					existing.put(marker, createMarkerData(marker));
+				}
+				MarkerDiff<IMarker> diff = new MarkerDiff<>(existing, wanted);
+				for (IMarker marker : diff.getToRemove()) {
+					marker.delete();
+					handleMarkerRemoved(marker);
+				}
+				for (MarkerData data : diff.getToCreate()) {
+					IMarker marker = resource.createMarker(markerType);
+					marker.setAttributes(createAttributes(resource, data));
+					handleMarkerAdded(marker);
+				}
+			}
+		};
+		resource.getWorkspace().run(r, null, IWorkspace.AVOID_UPDATE, null);
+	}
+
+	private MarkerData createMarkerData(IMarker marker) {
+		/* @formatter:off*/
+		return new MarkerData(
+				marker.getAttribute(IMarker.SEVERITY, -1), 
+				marker.getAttribute(IMarker.MESSAGE, null), 
+				marker.getAttribute(IMarker.LINE_NUMBER, -1),
+				marker.getAttribute(IMarker.CHAR_START, -1), 
+				marker.getAttribute(IMarker.CHAR_END, -1));
+		/* @formatter:on*/
+	}
+
+	private Map<String, Object> createAttributes(IResource resource, MarkerData data) {
+		HashMap<String, Object> map = new HashMap<>();
+		map.put(IMarker.SEVERITY, new Integer(data.getSeverity()));
+		map.put(IMarker.LOCATION, resource.getFullPath().toOSString());
+		map.put(IMarker.MESSAGE, data.getMessage());
+		MarkerUtilities.setLineNumber(map, data.getLineNumber());
+		MarkerUtilities.setMessage(map, data.getMessage());
+		if (data.getCharStart() != -1) {
+			MarkerUtilities.setCharStart(map, data.getCharStart());
+			MarkerUtilities.setCharEnd(map, data.getCharEnd());
+		}
+		return map;
+	}
+
 	/**
 	 * Removes all markers from this file having defined marker type
 	 * 
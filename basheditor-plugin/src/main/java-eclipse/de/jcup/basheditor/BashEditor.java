@@ -24,7 +24,9 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filesystem.EFS;
@@ -44,9 +46,13 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.TextSelection;
+import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.jface.text.source.ISourceViewer;
 import org.eclipse.jface.text.source.ISourceViewerExtension2;
 import org.eclipse.jface.text.source.SourceViewerConfiguration;
@@ -72,6 +78,7 @@ import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.eclipse.ui.texteditor.SourceViewerDecorationSupport;
 import org.eclipse.ui.views.contentoutline.IContentOutlinePage;
 
+import de.jcup.basheditor.BashScriptModelBuildJob.BuildRequest;
 import de.jcup.basheditor.document.BashFileDocumentProvider;
 import de.jcup.basheditor.document.BashTextFileDocumentProvider;
 import de.jcup.basheditor.outline.BashEditorContentOutlinePage;
@@ -87,9 +94,14 @@ import de.jcup.basheditor.process.SimpleProcessExecutor;
 import de.jcup.basheditor.process.TimeStampChangedEnforcer;
 import de.jcup.basheditor.script.BashError;
 import de.jcup.basheditor.script.BashFunction;
+import de.jcup.basheditor.script.BashScriptBuildStage;
+import de.jcup.basheditor.script.BashScriptBuildStatistics;
+import de.jcup.basheditor.script.BashScriptBuildStatistics.StageMeasurement;
 import de.jcup.basheditor.script.BashScriptModel;
 import de.jcup.basheditor.script.BashScriptModelBuilder;
+import de.jcup.basheditor.script.BashScriptModelCache;
 import de.jcup.basheditor.script.BashScriptModelException;
+import de.jcup.basheditor.script.parser.IncrementalTokenParser;
 import de.jcup.basheditor.script.parser.validator.BashEditorValidationErrorLevel;
 import de.jcup.eclipse.commons.PluginContextProvider;
 import de.jcup.eclipse.commons.replacetabbyspaces.ReplaceTabBySpacesProvider;
@@ -116,12 +128,24 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
     private boolean quickOutlineOpened;
     private int lastCaretPosition;
     private static final BashScriptModel FALLBACK_MODEL = new BashScriptModel();
+    /* delay after last document change until model is rebuilt while typing */
+    private static final int REBUILD_WHILE_TYPING_DELAY_MILLIS = 500;
     private ExternalToolCommandArrayBuilder commandArrayBuilder = new ExternalToolCommandArrayBuilder();
     private TimeStampChangedEnforcer timestampChangeEnforder = new TimeStampChangedEnforcer();
+    private IncrementalTokenParser tokenParser = new IncrementalTokenParser();
+    private BashEditorDocumentListener documentListener = new BashEditorDocumentListener();
+    private PendingRepartitioningSupport pendingRepartitioningSupport = new PendingRepartitioningSupport();
+    private IDocument listenedDocument;
+    private BashScriptModelBuildJob modelBuildJob;
+    private boolean executeExternalActionsAfterModelBuild;
+    private BashScriptModelCache modelCache = new BashScriptModelCache();
+    private TemporaryErrorAnnotationSupport temporaryErrorAnnotationSupport = new TemporaryErrorAnnotationSupport();
+    private Runnable rebuildWhileTypingRunnable = this::rebuildWhileTyping;
 
     public BashEditor() {
         setSourceViewerConfiguration(new BashSourceViewerConfiguration(this));
         this.modelBuilder = new BashScriptModelBuilder();
+        this.modelBuildJob = new BashScriptModelBuildJob(this, tokenParser);
     }
 
     public void resourceChanged(IResourceChangeEvent event) {
@@ -146,7 +170,7 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
             quickOutlineOpened = true;
         }
         Shell shell = getEditorSite().getShell();
-        BashScriptModel model = buildModelWithoutValidation();
+        BashScriptModel model = getModel();
         BashQuickOutlineDialog dialog = new BashQuickOutlineDialog(this, shell, "Quick outline");
         dialog.setInput(model);
 
@@ -156,6 +180,51 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
         }
     }
 
+    /**
+     * Resolves model for current document. When the document was not changed
+     * since last model build, the cached model will be returned, otherwise a
+     * new model without validation is built and cached.
+     * 
+     * @return model, never <code>null</code>
+     */
+    public BashScriptModel getModel() {
+        long modificationStamp = getDocumentModificationStamp();
+        BashScriptModel model = modelCache.get(modificationStamp);
+        if (model != null) {
+            return model;
+        }
+        model = buildModelWithoutValidation();
+        if (model != FALLBACK_MODEL) {
+            modelCache.put(modificationStamp, model);
+        }
+        return model;
+    }
+
+    /**
+     * Resolves latest built model. While typing this model can be built for an
+     * older document version, but no new model build is necessary - e.g. for code
+     * completion. When no model was built yet, an empty model is returned - the
+     * model build job publishes the model when done, so the UI thread is never
+     * blocked by a build.
+     * 
+     * @return model, never <code>null</code>
+     */
+    public BashScriptModel getLatestModel() {
+        BashScriptModel model = modelCache.getLatest();
+        if (model != null) {
+            return model;
+        }
+        return FALLBACK_MODEL;
+    }
+
+    private long getDocumentModificationStamp() {
+        IDocument document = getDocument();
+        if (!(document instanceof IDocumentExtension4)) {
+            return BashScriptModelCache.UNKNOWN_MODIFICATION_STAMP;
+        }
+        return ((IDocumentExtension4) document).getModificationStamp();
+    }
+
     private BashScriptModel buildModelWithoutValidation() {
         String text = getDocumentText();
 
@@ -210,7 +279,18 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
         return IMarker.SEVERITY_INFO;
     }
 
-    private void addErrorMarkers(BashScriptModel model, int severity) {
+    /**
+     * Updates shown errors. When markers shall be created, afterwards only
+     * markers for errors of given model exist - unchanged markers are kept, all
+     * changes are done in one workspace operation. Otherwise errors are only
+     * shown as temporary annotations inside the editor, so the workspace is not
+     * touched - markers stay as created for the saved content.
+     * 
+     * @param model
+     * @param severity
+     * @param createMarkers
+     */
+    private void updateErrors(BashScriptModel model, int severity, boolean createMarkers) {
         if (model == null) {
             return;
         }
@@ -219,6 +299,7 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
             return;
         }
         Collection<BashError> errors = model.getErrors();
+        List<MarkerData> markers = new ArrayList<>(errors.size());
         for (BashError error : errors) {
             int startPos = error.getStart();
             int line;
@@ -228,9 +309,26 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
                 EclipseUtil.logError("Cannot get line offset for " + startPos, e);
                 line = 0;
             }
-            BashEditorUtil.addScriptError(this, line, error, severity);
+            if (line <= 0) {
+                /* same as former marker creation: unknown and first line are line 1 */
+                line = 1;
+            }
+            markers.add(new MarkerData(severity, error.getMessage(), line, error.getStart(), error.getEnd()));
         }
+        if (createMarkers) {
+            temporaryErrorAnnotationSupport.clear();
+            BashEditorUtil.updateScriptErrors(this, markers);
+            return;
+        }
+        temporaryErrorAnnotationSupport.update(getAnnotationModel(), markers);
+    }
 
+    private IAnnotationModel getAnnotationModel() {
+        IDocumentProvider provider = getDocumentProvider();
+        if (provider == null) {
+            return null;
+        }
+        return provider.getAnnotationModel(getEditorInput());
     }
 
     public void setErrorMessage(String message) {
@@ -254,6 +352,7 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
         activateBashEditorContext();
 
         installAdditionalSourceViewerSupport();
+        pendingRepartitioningSupport.install(getSourceViewer());
 
         StyledText styledText = getSourceViewer().getTextWidget();
         styledText.addKeyListener(new BashBracketInsertionCompleter(this));
@@ -328,6 +427,10 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
 
     @Override
     public void dispose() {
+        SourceViewerConfiguration configuration = getSourceViewerConfiguration();
+        if (configuration instanceof BashSourceViewerConfiguration) {
+            ((BashSourceViewerConfiguration) configuration).dispose();
+        }
         super.dispose();
 
         if (additionalSourceViewerSupport != null) {
@@ -339,6 +442,10 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
         }
 
         ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        unregisterDocumentListener();
+        pendingRepartitioningSupport.uninstall();
+        modelBuildJob.dispose();
+        temporaryErrorAnnotationSupport.clear();
     }
 
     public String getBackGroundColorAsWeb() {
@@ -396,6 +503,9 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
         if (ColorManager.class.equals(adapter)) {
             return (T) getColorManager();
         }
+        if (BashScriptModel.class.equals(adapter)) {
+            return (T) getLatestModel();
+        }
         if (IFile.class.equals(adapter)) {
             IEditorInput input = getEditorInput();
             if (input instanceof IFileEditorInput) {
@@ -442,25 +552,78 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
 
     @Override
     protected void doSetInput(IEditorInput input) throws CoreException {
+        unregisterDocumentListener();
+        modelCache.clear();
+        temporaryErrorAnnotationSupport.clear();
         setDocumentProvider(createDocumentProvider(input));
         super.doSetInput(input);
+        registerDocumentListener();
 
         rebuildOutline();
     }
 
+    /**
+     * Registers document listener to inform token parser about changes, so
+     * tokens can be parsed incremental
+     */
+    private void registerDocumentListener() {
+        tokenParser.reset();
+        listenedDocument = getDocument();
+        if (listenedDocument != null) {
+            listenedDocument.addDocumentListener(documentListener);
+        }
+    }
+
+    private void unregisterDocumentListener() {
+        if (listenedDocument != null) {
+            listenedDocument.removeDocumentListener(documentListener);
+            listenedDocument = null;
+        }
+    }
+
     @Override
     protected void editorSaved() {
         super.editorSaved();
         rebuildOutline();
+
+        if (isStatisticsEnabled()) {
+            BashEditorUtil.logInfo(BashScriptBuildStatistics.getShared().createReport());
+        }
+    }
+
+    /**
+     * @return <code>true</code> when system property "basheditor.debug.enabled"
+     *         is set to true - in this case debug tokens are added to models
+     */
+    private boolean isDebugModeEnabled() {
+        return Boolean.parseBoolean(System.getProperty("basheditor.debug.enabled"));
     }
 
     /**
-     * Does rebuild the outline - this is done asynchronous
+     * @return <code>true</code> when system property
+     *         "basheditor.statistics.enabled" is set to true - in this case build
+     *         statistics are collected and logged on every save
+     */
+    private boolean isStatisticsEnabled() {
+        return Boolean.parseBoolean(System.getProperty("basheditor.statistics.enabled"));
+    }
+
+    /**
+     * Does rebuild the outline - this is done asynchronous. The script model is
+     * built by a background job, outline and markers are updated afterwards
+     * inside UI thread
      */
     public void rebuildOutline() {
         lastModelBuildHadErrors = false;
 
+        boolean debugMode = isDebugModeEnabled();
+        boolean statisticsEnabled = isStatisticsEnabled();
+        BashScriptBuildStatistics statistics = statisticsEnabled ? BashScriptBuildStatistics.getShared() : null;
+
         String text = getDocumentText();
+        StageMeasurement measurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.REQUEST, text.length());
+        long modificationStamp = getDocumentModificationStamp();
+        tokenParser.prepare(text);
 
         IPreferenceStore store = BashEditorUtil.getPreferences().getPreferenceStore();
 
@@ -468,50 +631,59 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
         boolean validateDo = store.getBoolean(VALIDATE_DO_STATEMENTS.getId());
         boolean validateIf = store.getBoolean(VALIDATE_IF_STATEMENTS.getId());
         boolean validateFunctions = store.getBoolean(VALIDATE_FUNCTION_STATEMENTS.getId());
+        boolean ignoreVariables = !BashEditorPreferences.getInstance().isOutlineShowVariablesEnabled();
         String errorLevelId = store.getString(VALIDATE_ERROR_LEVEL.getId());
         BashEditorValidationErrorLevel errorLevel = BashEditorValidationErrorLevel.fromId(errorLevelId);
 
-        boolean debugMode = Boolean.parseBoolean(System.getProperty("basheditor.debug.enabled"));
-
-        modelBuilder.setIgnoreBlockValidation(!validateBlocks);
-        modelBuilder.setIgnoreDoValidation(!validateDo);
-        modelBuilder.setIgnoreIfValidation(!validateIf);
-        modelBuilder.setIgnoreFunctionValidation(!validateFunctions);
-
-        modelBuilder.setDebug(debugMode);
-
-        EclipseUtil.safeAsyncExec(new Runnable() {
-
-            @Override
-            public void run() {
-                BashEditorUtil.removeScriptErrors(BashEditor.this);
-
-                BashScriptModel model;
-                try {
-                    modelBuilder.setIgnoreVariables(!BashEditorPreferences.getInstance().isOutlineShowVariablesEnabled());
+        int severity;
+        if (BashEditorValidationErrorLevel.INFO.equals(errorLevel)) {
+            severity = IMarker.SEVERITY_INFO;
+        } else if (BashEditorValidationErrorLevel.WARNING.equals(errorLevel)) {
+            severity = IMarker.SEVERITY_WARNING;
+        } else {
+            severity = IMarker.SEVERITY_ERROR;
+        }
 
-                    model = modelBuilder.build(text);
-                } catch (BashScriptModelException e) {
-                    BashEditorUtil.logError("Was not able to build validation model", e);
-                    model = FALLBACK_MODEL;
-                }
+        /* markers are only created for saved content - unsaved changes are shown inside editor */
+        boolean createMarkers = !isDirty();
 
-                getOutlinePage().rebuild(model);
+        modelBuildJob.build(new BuildRequest(text, modificationStamp, validateBlocks, validateDo, validateIf, validateFunctions, ignoreVariables, debugMode, statisticsEnabled, severity,
+                createMarkers));
+        measurement.done();
+    }
 
-                if (model.hasErrors()) {
-                    lastModelBuildHadErrors = true;
-                    int severity;
-                    if (BashEditorValidationErrorLevel.INFO.equals(errorLevel)) {
-                        severity = IMarker.SEVERITY_INFO;
-                    } else if (BashEditorValidationErrorLevel.WARNING.equals(errorLevel)) {
-                        severity = IMarker.SEVERITY_WARNING;
-                    } else {
-                        severity = IMarker.SEVERITY_ERROR;
-                    }
-                    addErrorMarkers(model, severity);
-                }
-            }
-        });
+    /**
+     * Called inside UI thread by model build job when model for latest build
+     * request is available
+     * 
+     * @param model   built model or <code>null</code> when build failed
+     * @param request the request used to build the model
+     */
+    void handleModelBuilt(BashScriptModel model, BuildRequest request) {
+        if (model == null) {
+            model = FALLBACK_MODEL;
+        } else {
+            modelCache.put(request.modificationStamp, model);
+        }
+        BashScriptBuildStatistics statistics = request.statisticsEnabled ? BashScriptBuildStatistics.getShared() : null;
+        int scriptLength = request.text.length();
+
+        StageMeasurement measurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.OUTLINE, scriptLength);
+        getOutlinePage().rebuild(model);
+        measurement.done();
+
+        measurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.MARKERS, scriptLength);
+        lastModelBuildHadErrors = model.hasErrors();
+        updateErrors(model, request.severity, request.createMarkers);
+        measurement.done();
+        if (statistics != null) {
+            /* complete time from request until model is shown - allocations are done in different threads, so unknown */
+            statistics.add(BashScriptBuildStage.REBUILD_OUTLINE, scriptLength, System.nanoTime() - request.createdNanos, BashScriptBuildStatistics.UNKNOWN_BYTES);
+        }
+        if (executeExternalActionsAfterModelBuild) {
+            executeExternalActionsAfterModelBuild = false;
+            executeExternalActionsIfNoErrors();
+        }
     }
 
     /**
@@ -763,14 +935,8 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
         if (functionName == null) {
             return null;
         }
-        BashScriptModel model = buildModelWithoutValidation();
-        Collection<BashFunction> functions = model.getFunctions();
-        for (BashFunction function : functions) {
-            if (functionName.equals(function.getName())) {
-                return function;
-            }
-        }
-        return null;
+        BashScriptModel model = getModel();
+        return model.getFunction(functionName);
     }
 
     public BashEditorPreferences getPreferences() {
@@ -797,6 +963,50 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
 
     }
 
+    private class BashEditorDocumentListener implements IDocumentListener {
+
+        @Override
+        public void documentAboutToBeChanged(DocumentEvent event) {
+        }
+
+        @Override
+        public void documentChanged(DocumentEvent event) {
+            tokenParser.scriptChanged(event.getOffset(), event.getLength(), event.getText());
+            pendingRepartitioningSupport.documentChanged();
+            scheduleRebuildWhileTyping();
+        }
+
+    }
+
+    /**
+     * Schedules a rebuild of outline and errors when validation while typing is
+     * enabled. Every further change restarts the delay, so the model is only
+     * built when typing pauses.
+     */
+    private void scheduleRebuildWhileTyping() {
+        if (!BashEditorUtil.getPreferences().getPreferenceStore().getBoolean(VALIDATE_WHILE_TYPING.getId())) {
+            return;
+        }
+        ISourceViewer sourceViewer = getSourceViewer();
+        if (sourceViewer == null) {
+            return;
+        }
+        StyledText textWidget = sourceViewer.getTextWidget();
+        if (textWidget == null || textWidget.isDisposed()) {
+            return;
+        }
+        /* same runnable is rescheduled */
+        textWidget.getDisplay().timerExec(REBUILD_WHILE_TYPING_DELAY_MILLIS, rebuildWhileTypingRunnable);
+    }
+
+    private void rebuildWhileTyping() {
+        if (getSourceViewer() == null) {
+            /* disposed meanwhile */
+            return;
+        }
+        rebuildOutline();
+    }
+
     public void validate() {
         rebuildOutline();
     }
@@ -813,16 +1023,17 @@ public class BashEditor extends TextEditor implements StatusMessageSupport, IRes
             return;
         }
         /*
-         * execute this after outline build is done async - so also async call necessary
-         * to get correct error state
+         * execute this after outline build is done by model build job - otherwise we
+         * would not have the correct error state
          */
-        EclipseUtil.safeAsyncExec(() -> executeExternalActionsIfNoErrors());
+        executeExternalActionsAfterModelBuild = true;
 
     }
 
     private void executeExternalActionsIfNoErrors() {
         /*
-         * we must fetch the result by waiting outline build done (which was done async)
+         * we must fetch the result by waiting outline build done (which was done by model
+         * build job)
          */
         if (lastModelBuildHadErrors) {
             // when there are internal failures we do NOT call the external tool, because
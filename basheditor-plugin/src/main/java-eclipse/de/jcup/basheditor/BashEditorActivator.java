@@ -15,10 +15,15 @@
  */
 package de.jcup.basheditor;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
+import de.jcup.basheditor.document.keywords.DocumentKeyWords;
 import de.jcup.eclipse.commons.PluginContextProvider;
+import de.jcup.eclipse.commons.keyword.DocumentKeyWord;
 import de.jcup.eclipse.commons.keyword.TooltipTextSupport;
 import de.jcup.eclipse.commons.resource.EclipseResourceInputStreamProvider;
 
@@ -33,7 +38,7 @@ public class BashEditorActivator extends AbstractUIPlugin implements PluginConte
 	// The shared instance
 	private static BashEditorActivator plugin;
 	private ColorManager colorManager;
-
+	private SortedWordIndex keyWordIndex;
 
 	/**
 	 * The constructor
@@ -47,6 +52,25 @@ public class BashEditorActivator extends AbstractUIPlugin implements PluginConte
 		return colorManager;
 	}
 
+	/**
+	 * @return immutable index of all bash keywords - created once and shared by
+	 *         all editors
+	 */
+	public synchronized SortedWordIndex getKeyWordIndex() {
+		if (keyWordIndex == null) {
+			keyWordIndex = createKeyWordIndex();
+		}
+		return keyWordIndex;
+	}
+
+	static SortedWordIndex createKeyWordIndex() {
+		List<String> words = new ArrayList<>();
+		for (DocumentKeyWord keyword : DocumentKeyWords.getAll()) {
+			words.add(keyword.getText());
+		}
+		return new SortedWordIndex(words);
+	}
+
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		plugin = this;
@@ -19,11 +19,17 @@ import static de.jcup.basheditor.preferences.BashEditorPreferenceConstants.P_COD
 import static de.jcup.basheditor.preferences.BashEditorPreferenceConstants.P_CODE_ASSIST_ADD_SIMPLEWORDS;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.core.runtime.IAdaptable;
+
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.contentassist.BoldStylerProvider;
 import org.eclipse.jface.text.contentassist.ContentAssistEvent;
@@ -37,22 +43,36 @@ import org.eclipse.jface.viewers.StyledString;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Point;
 
-import de.jcup.basheditor.document.keywords.BashGnuCommandKeyWords;
-import de.jcup.basheditor.document.keywords.BashIncludeKeyWords;
-import de.jcup.basheditor.document.keywords.BashLanguageKeyWords;
-import de.jcup.basheditor.document.keywords.BashSpecialVariableKeyWords;
-import de.jcup.basheditor.document.keywords.BashSystemKeyWords;
 import de.jcup.basheditor.preferences.BashEditorPreferences;
-import de.jcup.eclipse.commons.keyword.DocumentKeyWord;
+import de.jcup.basheditor.script.BashScriptModel;
 
 public class BashEditorSimpleWordContentAssistProcessor implements IContentAssistProcessor, ICompletionListener {
 
 	private static final SimpleWordListBuilder WORD_LIST_BUILDER = new SimpleWordListBuilder();
-	private static final NoWordListBuilder NO_WORD_BUILDER = new NoWordListBuilder();
 
 	private String errorMessage;
 
 	private SimpleWordCodeCompletion simpleWordCompletion = new SimpleWordCodeCompletion();
+	private ScriptModelCodeCompletion scriptModelCompletion = new ScriptModelCodeCompletion();
+	private IAdaptable adaptable;
+
+	/* words of document - kept up to date on every document change, keywords are merged at query time */
+	private SimpleWordIndex wordIndex = new SimpleWordIndex();
+	private SimpleWordLineIndexer lineIndexer = new SimpleWordLineIndexer(wordIndex, WORD_LIST_BUILDER);
+	private WordIndexDocumentListener documentListener = new WordIndexDocumentListener();
+	private IDocument indexedDocument;
+	private boolean simpleWordsEnabled = true;
+	private boolean keyWordsEnabled = true;
+
+	/**
+	 * Creates processor
+	 * 
+	 * @param adaptable when adaptable provides a {@link BashScriptModel},
+	 *                  functions and variables of the model are proposed first
+	 */
+	public BashEditorSimpleWordContentAssistProcessor(IAdaptable adaptable) {
+		this.adaptable = adaptable;
+	}
 
 	@Override
 	public ICompletionProposal[] computeCompletionProposals(ITextViewer viewer, int offset) {
@@ -60,17 +80,138 @@ public class BashEditorSimpleWordContentAssistProcessor implements IContentAssis
 		if (document == null) {
 			return null;
 		}
-		String source = document.get();
+		if (simpleWordsEnabled) {
+			ensureDocumentIndexed(document);
+		}
+		/* text before offset never spans lines, so current line is enough */
+		String lineBefore;
+		try {
+			int lineOffset = document.getLineInformationOfOffset(offset).getOffset();
+			lineBefore = document.get(lineOffset, offset - lineOffset);
+		} catch (BadLocationException e) {
+			return null;
+		}
+		String textBefore = simpleWordCompletion.getTextbefore(lineBefore, lineBefore.length());
+
+		/* functions and variables of model first - ranked by scope and distance */
+		List<ICompletionProposal> result = new ArrayList<>();
+		Set<String> proposed = new HashSet<>();
+		for (ScriptModelProposal modelProposal : scriptModelCompletion.calculate(getScriptModel(), textBefore, offset)) {
+			if (proposed.add(modelProposal.getReplacement())) {
+				proposed.add(modelProposal.getName());
+				result.add(new SimpleWordProposal(offset, modelProposal.getReplacement(), textBefore, getImage(modelProposal)));
+			}
+		}
+		Set<String> words = simpleWordCompletion.calculate(wordIndex, getKeyWordIndex(), lineBefore, lineBefore.length());
+		for (String word : words) {
+			if (proposed.add(word)) {
+				result.add(new SimpleWordProposal(offset, word, textBefore, null));
+			}
+		}
+		return result.toArray(new ICompletionProposal[result.size()]);
+	}
+
+	private BashScriptModel getScriptModel() {
+		if (adaptable == null) {
+			return null;
+		}
+		try {
+			return adaptable.getAdapter(BashScriptModel.class);
+		} catch (RuntimeException e) {
+			BashEditorUtil.logError("Was not able to resolve script model for code completion", e);
+			return null;
+		}
+	}
+
+	private Image getImage(ScriptModelProposal proposal) {
+		switch (proposal.getKind()) {
+		case LOCAL_VARIABLE:
+			return getOutlineImage("localvariable.png");
+		case GLOBAL_VARIABLE:
+			return getOutlineImage("field_public_obj.png");
+		case FUNCTION:
+			return getOutlineImage("methpub_obj.png");
+		default:
+			return null;
+		}
+	}
 
-		Set<String> words = simpleWordCompletion.calculate(source, offset);
+	private Image getOutlineImage(String name) {
+		return EclipseUtil.getImage("/icons/outline/" + name, BashEditorActivator.PLUGIN_ID);
+	}
 
-		ICompletionProposal[] result = new ICompletionProposal[words.size()];
-		int i = 0;
-		for (String word : words) {
-			result[i++] = new SimpleWordProposal(document, offset, word);
+	/**
+	 * Removes document listener and all indexed words
+	 */
+	public void dispose() {
+		stopDocumentIndexing();
+	}
+
+	private void ensureDocumentIndexed(IDocument document) {
+		if (document == indexedDocument && !documentListener.outOfSync) {
+			return;
+		}
+		stopDocumentIndexing();
+		indexedDocument = document;
+		documentListener.outOfSync = false;
+		document.addDocumentListener(documentListener);
+		try {
+			lineIndexer.reset(new DocumentCharSequence(document));
+		} catch (RuntimeException e) {
+			BashEditorUtil.logError("Was not able to index words of document", e);
+			documentListener.outOfSync = true;
+		}
+	}
+
+	private void stopDocumentIndexing() {
+		if (indexedDocument != null) {
+			indexedDocument.removeDocumentListener(documentListener);
+			indexedDocument = null;
+		}
+		lineIndexer.clear();
+	}
+
+	/**
+	 * Updates the words of changed lines inside word index
+	 */
+	private class WordIndexDocumentListener implements IDocumentListener {
+		private int firstLine;
+		private int removedLineCount;
+		private boolean outOfSync;
+
+		@Override
+		public void documentAboutToBeChanged(DocumentEvent event) {
+			if (outOfSync) {
+				return;
+			}
+			IDocument document = event.getDocument();
+			try {
+				firstLine = document.getLineOfOffset(event.getOffset());
+				removedLineCount = document.getLineOfOffset(event.getOffset() + event.getLength()) - firstLine + 1;
+			} catch (BadLocationException e) {
+				outOfSync = true;
+			}
 		}
 
-		return result;
+		@Override
+		public void documentChanged(DocumentEvent event) {
+			if (outOfSync) {
+				/* will be completely indexed again on next completion */
+				return;
+			}
+			IDocument document = event.getDocument();
+			String text = event.getText();
+			int textLength = text == null ? 0 : text.length();
+			try {
+				int lastLine = document.getLineOfOffset(event.getOffset() + textLength);
+				int start = document.getLineOffset(firstLine);
+				IRegion lastLineRegion = document.getLineInformation(lastLine);
+				int end = lastLineRegion.getOffset() + lastLineRegion.getLength();
+				lineIndexer.replaceLines(firstLine, removedLineCount, new DocumentCharSequence(document), start, end);
+			} catch (BadLocationException | RuntimeException e) {
+				outOfSync = true;
+			}
+		}
 	}
 
 	@Override
@@ -85,13 +226,13 @@ public class BashEditorSimpleWordContentAssistProcessor implements IContentAssis
 		private int nextSelection;
 		private StyledString styledString;
 		private String textBefore;
+		private Image image;
 
-		SimpleWordProposal(IDocument document, int offset, String word) {
+		SimpleWordProposal(int offset, String word, String textBefore, Image image) {
 			this.offset = offset;
 			this.word = word;
-
-			String source = document.get();
-			textBefore = simpleWordCompletion.getTextbefore(source, offset);
+			this.textBefore = textBefore;
+			this.image = image;
 		}
 
 		@Override
@@ -129,7 +270,7 @@ public class BashEditorSimpleWordContentAssistProcessor implements IContentAssis
 
 		@Override
 		public Image getImage() {
-			return null;
+			return image;
 		}
 
 		@Override
@@ -193,66 +334,35 @@ public class BashEditorSimpleWordContentAssistProcessor implements IContentAssis
 
 	@Override
 	public void assistSessionStarted(ContentAssistEvent event) {
-		simpleWordCompletion.reset();
-
 		BashEditorPreferences preferences = BashEditorPreferences.getInstance();
 		boolean addKeyWords = preferences.getBooleanPreference(P_CODE_ASSIST_ADD_KEYWORDS);
 		boolean addSimpleWords = preferences.getBooleanPreference(P_CODE_ASSIST_ADD_SIMPLEWORDS);
 
-		if (addSimpleWords) {
-			simpleWordCompletion.setWordListBuilder(WORD_LIST_BUILDER);
-		} else {
-			simpleWordCompletion.setWordListBuilder(NO_WORD_BUILDER);
-		}
-		if (addKeyWords) {
-			addAllBashKeyWords();
+		simpleWordsEnabled = addSimpleWords;
+		if (!addSimpleWords) {
+			stopDocumentIndexing();
 		}
+		keyWordsEnabled = addKeyWords;
 	}
 
-	protected void addAllBashKeyWords() {
-		for (DocumentKeyWord keyword : BashGnuCommandKeyWords.values()) {
-			addKeyWord(keyword);
-		}
-		for (DocumentKeyWord keyword : BashIncludeKeyWords.values()) {
-			addKeyWord(keyword);
-		}
-		for (DocumentKeyWord keyword : BashLanguageKeyWords.values()) {
-			addKeyWord(keyword);
-		}
-		for (DocumentKeyWord keyword : BashSpecialVariableKeyWords.values()) {
-			addKeyWord(keyword);
+	private SortedWordIndex getKeyWordIndex() {
+		if (!keyWordsEnabled) {
+			return null;
 		}
-		for (DocumentKeyWord keyword : BashSystemKeyWords.values()) {
-			addKeyWord(keyword);
+		BashEditorActivator activator = BashEditorActivator.getDefault();
+		if (activator == null) {
+			return null;
 		}
-	}
-
-	protected void addKeyWord(DocumentKeyWord keyword) {
-		simpleWordCompletion.add(keyword.getText());
+		return activator.getKeyWordIndex();
 	}
 
 	@Override
 	public void assistSessionEnded(ContentAssistEvent event) {
-		simpleWordCompletion.reset();// clean up...
+		/* word index is kept - document changes are tracked */
 	}
 
 	@Override
 	public void selectionChanged(ICompletionProposal proposal, boolean smartToggle) {
 
 	}
-
-	private static class NoWordListBuilder implements WordListBuilder {
-
-		private NoWordListBuilder() {
-
-		}
-
-		private List<String> list = new ArrayList<>(0);
-
-		@Override
-		public List<String> build(String source) {
-			return list;
-		}
-
-	}
 }
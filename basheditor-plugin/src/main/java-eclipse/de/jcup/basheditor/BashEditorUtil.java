@@ -16,6 +16,7 @@
 package de.jcup.basheditor;
 
 import java.io.File;
+import java.util.List;
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filesystem.EFS;
@@ -32,7 +33,6 @@ import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
 
 import de.jcup.basheditor.preferences.BashEditorPreferences;
-import de.jcup.basheditor.script.BashError;
 
 public class BashEditorUtil {
 	private static final IProgressMonitor NULL_MONITOR = new NullProgressMonitor();
@@ -97,14 +97,17 @@ public class BashEditorUtil {
 		scriptProblemMarkerHelper.removeMarkers(editorResource);
 	}
 
-	public static void addScriptError(IEditorPart editor, int line, BashError error, int severity) {
+	/**
+	 * Updates script error markers of given editor - afterwards only markers for
+	 * given data exist. All changes are done in one workspace operation.
+	 * 
+	 * @param editor
+	 * @param markers data of all wanted script error markers
+	 */
+	public static void updateScriptErrors(IEditorPart editor, List<MarkerData> markers) {
 		if (editor == null) {
 			return;
 		}
-		if (error == null) {
-			return;
-		}
-
 		IEditorInput input = editor.getEditorInput();
 		if (input == null) {
 			return;
@@ -114,12 +117,10 @@ public class BashEditorUtil {
 			return;
 		}
 		try {
-			scriptProblemMarkerHelper.createScriptMarker(severity, editorResource, error.getMessage(), line, error.getStart(),
-					+ error.getEnd());
+			scriptProblemMarkerHelper.updateScriptMarkers(editorResource, markers);
 		} catch (CoreException e) {
-			logError("Was not able to add error markers", e);
+			logError("Was not able to update error markers", e);
 		}
-
 	}
 
 	private static ILog getLog() {
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import de.jcup.basheditor.script.BashScriptBuildStatistics;
+import de.jcup.basheditor.script.BashScriptModel;
+import de.jcup.basheditor.script.BashScriptModelBuilder;
+import de.jcup.basheditor.script.BashScriptModelException;
+import de.jcup.basheditor.script.parser.TokenParser;
+
+/**
+ * Job building script models for the bash editor outside the UI thread. Only
+ * the latest requested build is of interest: a running build for an older
+ * request is canceled and its result is never given to the editor. Finished
+ * models are handed over to the editor inside the UI thread.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+class BashScriptModelBuildJob extends Job {
+
+    private BashEditor editor;
+    private BashScriptModelBuilder modelBuilder;
+    private BuildRequest latestRequest;
+
+    BashScriptModelBuildJob(BashEditor editor, TokenParser tokenParser) {
+        super("Build bash script model");
+        this.editor = editor;
+        this.modelBuilder = new BashScriptModelBuilder();
+        this.modelBuilder.setTokenParser(tokenParser);
+
+        setSystem(true);
+        setPriority(Job.SHORT);
+    }
+
+    /**
+     * Requests a build. Former requests not already handed over to the editor
+     * are obsolete afterwards.
+     *
+     * @param request
+     */
+    void build(BuildRequest request) {
+        synchronized (this) {
+            latestRequest = request;
+        }
+        /* cancel running build - schedule will restart after cancel is done */
+        cancel();
+        schedule();
+    }
+
+    /**
+     * Cancels running build, no model will be given to editor afterwards
+     */
+    void dispose() {
+        synchronized (this) {
+            latestRequest = null;
+        }
+        cancel();
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        BuildRequest request;
+        synchronized (this) {
+            request = latestRequest;
+        }
+        if (request == null) {
+            return Status.OK_STATUS;
+        }
+        if (monitor.isCanceled()) {
+            return Status.CANCEL_STATUS;
+        }
+        BashScriptModel model = buildModel(request, monitor);
+
+        if (monitor.isCanceled() || !isLatest(request)) {
+            return Status.CANCEL_STATUS;
+        }
+        EclipseUtil.safeAsyncExec(() -> {
+            if (!isLatest(request)) {
+                /* newer model will come */
+                return;
+            }
+            editor.handleModelBuilt(model, request);
+        });
+        return Status.OK_STATUS;
+    }
+
+    private BashScriptModel buildModel(BuildRequest request, IProgressMonitor monitor) {
+        modelBuilder.setIgnoreBlockValidation(!request.validateBlocks);
+        modelBuilder.setIgnoreDoValidation(!request.validateDo);
+        modelBuilder.setIgnoreIfValidation(!request.validateIf);
+        modelBuilder.setIgnoreFunctionValidation(!request.validateFunctions);
+        modelBuilder.setIgnoreVariables(request.ignoreVariables);
+        modelBuilder.setDebug(request.debugMode);
+        modelBuilder.setStatistics(request.statisticsEnabled ? BashScriptBuildStatistics.getShared() : null);
+
+        try {
+            return modelBuilder.build(request.text, monitor::isCanceled);
+        } catch (BashScriptModelException e) {
+            BashEditorUtil.logError("Was not able to build validation model", e);
+            return null;
+        }
+    }
+
+    private synchronized boolean isLatest(BuildRequest request) {
+        return latestRequest == request;
+    }
+
+    /**
+     * Immutable build request - contains text and all settings, so nothing
+     * must be read from UI during the build.
+     */
+    static class BuildRequest {
+        final String text;
+        final long modificationStamp;
+        final boolean validateBlocks;
+        final boolean validateDo;
+        final boolean validateIf;
+        final boolean validateFunctions;
+        final boolean ignoreVariables;
+        final boolean debugMode;
+        final boolean statisticsEnabled;
+        final int severity;
+        final boolean createMarkers;
+        final long createdNanos;
+
+        BuildRequest(String text, long modificationStamp, boolean validateBlocks, boolean validateDo, boolean validateIf, boolean validateFunctions, boolean ignoreVariables,
+                boolean debugMode, boolean statisticsEnabled, int severity, boolean createMarkers) {
+            this.text = text;
+            this.modificationStamp = modificationStamp;
+            this.validateBlocks = validateBlocks;
+            this.validateDo = validateDo;
+            this.validateIf = validateIf;
+            this.validateFunctions = validateFunctions;
+            this.ignoreVariables = ignoreVariables;
+            this.debugMode = debugMode;
+            this.statisticsEnabled = statisticsEnabled;
+            this.severity = severity;
+            this.createMarkers = createMarkers;
+            this.createdNanos = System.nanoTime();
+        }
+    }
+}
@@ -55,7 +55,6 @@ import org.eclipse.jface.text.contentassist.IContentAssistant;
 import org.eclipse.jface.text.hyperlink.IHyperlinkDetector;
 import org.eclipse.jface.text.hyperlink.URLHyperlinkDetector;
 import org.eclipse.jface.text.presentation.IPresentationReconciler;
-import org.eclipse.jface.text.presentation.PresentationReconciler;
 import org.eclipse.jface.text.quickassist.IQuickAssistAssistant;
 import org.eclipse.jface.text.reconciler.IReconciler;
 import org.eclipse.jface.text.rules.DefaultDamagerRepairer;
@@ -75,7 +74,9 @@ import org.eclipse.ui.texteditor.MarkerAnnotation;
 import de.jcup.basheditor.document.BashDocumentIdentifier;
 import de.jcup.basheditor.document.BashDocumentIdentifiers;
 import de.jcup.basheditor.presentation.BashDefaultTextScanner;
+import de.jcup.basheditor.presentation.BashPresentationReconciler;
 import de.jcup.basheditor.presentation.PresentationSupport;
+import de.jcup.basheditor.script.BashScriptModel;
 /**
  * 
  * @author Albert Tregnaghi
@@ -96,7 +97,8 @@ public class BashSourceViewerConfiguration extends TextSourceViewerConfiguration
 	 * Creates configuration by given adaptable
 	 * 
 	 * @param adaptable
-	 *            must provide {@link ColorManager} and {@link IFile}
+	 *            must provide {@link ColorManager} and {@link IFile}, should
+	 *            provide {@link BashScriptModel} for code completion
 	 */
 	public BashSourceViewerConfiguration(IAdaptable adaptable) {
 		IPreferenceStore generalTextStore = EditorsUI.getPreferenceStore();
@@ -107,7 +109,7 @@ public class BashSourceViewerConfiguration extends TextSourceViewerConfiguration
 		this.annotationHoover = new BashEditorAnnotationHoover();
 		
 		this.contentAssistant = new ContentAssistant();
-		contentAssistProcessor = new BashEditorSimpleWordContentAssistProcessor();
+		contentAssistProcessor = new BashEditorSimpleWordContentAssistProcessor(adaptable);
 		contentAssistant.enableColoredLabels(true);
 		
 		contentAssistant.setContentAssistProcessor(contentAssistProcessor, IDocument.DEFAULT_CONTENT_TYPE);
@@ -123,6 +125,13 @@ public class BashSourceViewerConfiguration extends TextSourceViewerConfiguration
 				colorManager.getColor(getPreferences().getColor(COLOR_NORMAL_TEXT)));
 		this.adaptable=adaptable;
 	}
+	/**
+	 * Releases resources - e.g. document listeners of content assist
+	 */
+	public void dispose() {
+		contentAssistProcessor.dispose();
+	}
+
 	public IContentAssistant getContentAssistant(ISourceViewer sourceViewer) {
 		return contentAssistant;
 	}
@@ -176,7 +185,8 @@ public class BashSourceViewerConfiguration extends TextSourceViewerConfiguration
 	
 	@Override
 	public IPresentationReconciler getPresentationReconciler(ISourceViewer sourceViewer) {
-		PresentationReconciler reconciler = new PresentationReconciler();
+		BashPresentationReconciler reconciler = new BashPresentationReconciler();
+		reconciler.setProgressiveDocumentSize(getPreferences().getProgressiveHighlightingSize());
 
 		addDefaultPresentation(reconciler);
 		
@@ -203,7 +213,7 @@ public class BashSourceViewerConfiguration extends TextSourceViewerConfiguration
 		return reconciler;
 	}
 
-	private void addDefaultPresentation(PresentationReconciler reconciler) {
+	private void addDefaultPresentation(BashPresentationReconciler reconciler) {
 		DefaultDamagerRepairer dr = new DefaultDamagerRepairer(getGradleDefaultTextScanner());
 		reconciler.setDamager(dr, IDocument.DEFAULT_CONTENT_TYPE);
 		reconciler.setRepairer(dr, IDocument.DEFAULT_CONTENT_TYPE);
@@ -214,7 +224,7 @@ public class BashSourceViewerConfiguration extends TextSourceViewerConfiguration
 		return token;
 	}
 
-	private void addPresentation(PresentationReconciler reconciler, String id, RGB rgb, int style) {
+	private void addPresentation(BashPresentationReconciler reconciler, String id, RGB rgb, int style) {
 		TextAttribute textAttribute = new TextAttribute(colorManager.getColor(rgb),
 				defaultTextAttribute.getBackground(), style);
 		PresentationSupport presentation = new PresentationSupport(textAttribute);
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+
+/**
+ * Read only char sequence view of a document - characters are read directly
+ * from the document, so no string copy of the complete document is necessary.
+ * The document must not be changed while the sequence is used.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+class DocumentCharSequence implements CharSequence {
+
+    private IDocument document;
+
+    DocumentCharSequence(IDocument document) {
+        this.document = document;
+    }
+
+    @Override
+    public int length() {
+        return document.getLength();
+    }
+
+    @Override
+    public char charAt(int index) {
+        try {
+            return document.getChar(index);
+        } catch (BadLocationException e) {
+            throw new IndexOutOfBoundsException("Index:" + index + ", length:" + document.getLength());
+        }
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        try {
+            return document.get(start, end - start);
+        } catch (BadLocationException e) {
+            throw new IndexOutOfBoundsException("Start:" + start + ", end:" + end + ", length:" + document.getLength());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return document.get();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentPartitioner;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewerExtension2;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.swt.custom.StyledText;
+
+import de.jcup.basheditor.document.BashPartitioner;
+
+/**
+ * Continues pending repartitioning of a {@link BashPartitioner} inside the UI
+ * thread. Only one chunk is rescanned per UI event, so typing is not blocked
+ * after a change affecting the rest of a huge document. The text presentation
+ * of every changed region is invalidated, so the viewer repaints it with the
+ * new partitions.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+class PendingRepartitioningSupport {
+
+    private ISourceViewer sourceViewer;
+    private boolean scheduled;
+
+    void install(ISourceViewer sourceViewer) {
+        this.sourceViewer = sourceViewer;
+        scheduleWhenPending();
+    }
+
+    void uninstall() {
+        sourceViewer = null;
+    }
+
+    /**
+     * Must be called after document was changed - the partitioner has already
+     * been updated at this time
+     */
+    void documentChanged() {
+        scheduleWhenPending();
+    }
+
+    private void scheduleWhenPending() {
+        if (scheduled) {
+            return;
+        }
+        BashPartitioner partitioner = getPartitioner();
+        if (partitioner == null || !partitioner.hasPendingRepartitioning()) {
+            return;
+        }
+        StyledText textWidget = sourceViewer.getTextWidget();
+        if (textWidget == null || textWidget.isDisposed()) {
+            return;
+        }
+        scheduled = true;
+        textWidget.getDisplay().asyncExec(new Runnable() {
+
+            @Override
+            public void run() {
+                scheduled = false;
+                continueRepartitioning();
+            }
+        });
+    }
+
+    private void continueRepartitioning() {
+        BashPartitioner partitioner = getPartitioner();
+        if (partitioner == null) {
+            return;
+        }
+        IRegion region = partitioner.continueRepartitioning();
+        if (region != null && sourceViewer instanceof ITextViewerExtension2) {
+            ((ITextViewerExtension2) sourceViewer).invalidateTextPresentation(region.getOffset(), region.getLength());
+        }
+        scheduleWhenPending();
+    }
+
+    private BashPartitioner getPartitioner() {
+        if (sourceViewer == null) {
+            return null;
+        }
+        IDocument document = sourceViewer.getDocument();
+        if (document == null) {
+            return null;
+        }
+        IDocumentPartitioner partitioner = document.getDocumentPartitioner();
+        if (partitioner instanceof BashPartitioner) {
+            return (BashPartitioner) partitioner;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.source.Annotation;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModelExtension;
+import org.eclipse.ui.texteditor.MarkerAnnotation;
+
+/**
+ * Shows validation errors as temporary annotations inside an annotation model
+ * only. In contrast to markers, the workspace is never touched - so no
+ * resource deltas are sent, no builders or resource listeners are triggered.
+ * Markers of the saved content are kept - an error already shown by a marker
+ * at same position is not shown again.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+class TemporaryErrorAnnotationSupport {
+
+    private static final String ANNOTATION_TYPE_ERROR = "org.eclipse.ui.workbench.texteditor.error";
+    private static final String ANNOTATION_TYPE_WARNING = "org.eclipse.ui.workbench.texteditor.warning";
+    private static final String ANNOTATION_TYPE_INFO = "org.eclipse.ui.workbench.texteditor.info";
+
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    private IAnnotationModel annotationModel;
+    private Annotation[] annotations = NO_ANNOTATIONS;
+
+    /**
+     * Replaces all former temporary annotations by annotations for given errors
+     * not already shown by markers
+     * 
+     * @param model  annotation model to use
+     * @param errors data of errors to show
+     */
+    void update(IAnnotationModel model, List<MarkerData> errors) {
+        if (model != annotationModel) {
+            clear();
+            annotationModel = model;
+        }
+        if (annotationModel == null) {
+            return;
+        }
+        Set<String> shownByMarkers = collectErrorsShownByMarkers();
+        Map<Annotation, Position> newAnnotations = new HashMap<>();
+        for (MarkerData error : errors) {
+            int start = Math.max(0, error.getCharStart());
+            if (shownByMarkers.contains(createKey(start, error.getMessage()))) {
+                continue;
+            }
+            Annotation annotation = new Annotation(getAnnotationType(error.getSeverity()), false, error.getMessage());
+            int length = Math.max(0, error.getCharEnd() - start);
+            newAnnotations.put(annotation, new Position(start, length));
+        }
+        replace(newAnnotations);
+    }
+
+    private Set<String> collectErrorsShownByMarkers() {
+        Set<String> keys = new HashSet<>();
+        Iterator<Annotation> iterator = annotationModel.getAnnotationIterator();
+        while (iterator.hasNext()) {
+            Annotation annotation = iterator.next();
+            if (!(annotation instanceof MarkerAnnotation) || annotation.isMarkedDeleted()) {
+                continue;
+            }
+            /* position is updated by document changes */
+            Position position = annotationModel.getPosition(annotation);
+            if (position == null || position.isDeleted()) {
+                continue;
+            }
+            keys.add(createKey(position.getOffset(), annotation.getText()));
+        }
+        return keys;
+    }
+
+    private String createKey(int offset, String message) {
+        return offset + ":" + message;
+    }
+
+    /**
+     * Removes all temporary annotations
+     */
+    void clear() {
+        if (annotationModel == null) {
+            return;
+        }
+        replace(new HashMap<>());
+    }
+
+    private void replace(Map<Annotation, Position> newAnnotations) {
+        if (annotations.length == 0 && newAnnotations.isEmpty()) {
+            return;
+        }
+        if (annotationModel instanceof IAnnotationModelExtension) {
+            /* one model change event for all */
+            ((IAnnotationModelExtension) annotationModel).replaceAnnotations(annotations, newAnnotations);
+        } else {
+            for (Annotation annotation : annotations) {
+                annotationModel.removeAnnotation(annotation);
+            }
+            for (Map.Entry<Annotation, Position> entry : newAnnotations.entrySet()) {
+                annotationModel.addAnnotation(entry.getKey(), entry.getValue());
+            }
+        }
+        annotations = newAnnotations.keySet().toArray(new Annotation[newAnnotations.size()]);
+    }
+
+    private String getAnnotationType(int severity) {
+        switch (severity) {
+        case IMarker.SEVERITY_INFO:
+            return ANNOTATION_TYPE_INFO;
+        case IMarker.SEVERITY_WARNING:
+            return ANNOTATION_TYPE_WARNING;
+        default:
+            return ANNOTATION_TYPE_ERROR;
+        }
+    }
+}
@@ -17,13 +17,17 @@ package de.jcup.basheditor.debug;
 
 import java.io.IOException;
 import java.net.BindException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.DebugEvent;
-import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IBreakpointManager;
 import org.eclipse.debug.core.model.IBreakpoint;
@@ -60,6 +64,18 @@ public class BashDebugger {
 	private boolean terminate = false;
 
 	private boolean starting;
+	/* bash checks breakpoints and stop depth itself until it stops again */
+	private volatile boolean resumedInBash;
+	/* bash waits for next command, so variables can be queried */
+	private volatile boolean variablesQueryable;
+	/* variables are kept between suspensions and updated when fetched again */
+	private Map<String, BashVariable> variablesByName = new HashMap<>();
+	/* variables of current suspension, null when not fetched yet */
+	private IVariable[] currentVariables;
+	/* watch expression variables are kept between suspensions as well */
+	private Map<String, BashVariable> watchVariablesByExpression = new HashMap<>();
+	/* watch expressions already fetched for current suspension */
+	private Set<String> currentWatchExpressions = new HashSet<>();
 
 	BashNetworkConnector bashConnector;
 	private IStackFrame[] stackFrames;
@@ -142,15 +158,31 @@ public class BashDebugger {
 			break;
 		case SUSPEND:
 			suspend = true;
+			if (resumedInBash) {
+				try {
+					bashConnector.suspendWhileResumed();
+				} catch (Exception e) {
+					EclipseUtil.logError("Suspend problem: was not able to suspend bash", e, BashEditorActivator.getDefault());
+				}
+			}
 			break;
 		case BREAKPOINT_TOGGLED:
 			breakpointToggled = true;
+			if (resumedInBash) {
+				try {
+					bashConnector.changeBreakpointsWhileResumed(createBreakpointLocations());
+				} catch (Exception e) {
+					EclipseUtil.logError("Breakpoint problem: was not able to send breakpoints to bash", e, BashEditorActivator.getDefault());
+				}
+			}
 			break;
 		case TERMINATE:
 			terminate = true;
 			try {
 				if (starting) {
 					bashConnector.cancel();
+				} else if (resumedInBash) {
+					bashConnector.terminateWhileResumed();
 				}
 			} catch (Exception e) {
 				EclipseUtil.logError("Terminate problem: was not able to cancel", e, BashEditorActivator.getDefault());
@@ -236,9 +268,22 @@ public class BashDebugger {
 			resume = true;
 		}
 		do {
+			/*
+			 * bash announces every stop - after a resume inside a subshell this can
+			 * be the parent shell, handleStop decides whether to resume it again
+			 */
+			if (!bashConnector.waitForStop()) {
+				/* script has ended */
+				break;
+			}
+			resumedInBash = false;
 			lock();
 
-			bashConnector.stepBegin();
+			if (!bashConnector.stepBegin()) {
+				/* script has ended */
+				unlock();
+				break;
+			}
 			context.update(bashConnector);
 			
 			stackLevel = context.getBashLineNumber().getArraySize();
@@ -247,6 +292,7 @@ public class BashDebugger {
 
 			createStack(context);
 			createFrames(context);
+			variablesQueryable = true;
 			
 			unlock();
 			if (context.isStopped()) {
@@ -263,6 +309,9 @@ public class BashDebugger {
 			context.stop();
 
 			lock();
+			variablesQueryable = false;
+			currentVariables = null;
+			currentWatchExpressions.clear();
 
 			stepIn = false;
 			bashThread.setStepping(false);
@@ -272,7 +321,15 @@ public class BashDebugger {
 				bashConnector.terminate();
 				break;
 			}
-			bashConnector.stepEnd();
+			synchronized (this) {
+				/* a suspend before resume is handled by next step */
+				if (resume && !suspend) {
+					bashConnector.resume(createBreakpointLocations(), stackLevelStop);
+					resumedInBash = true;
+				} else {
+					bashConnector.stepEnd();
+				}
+			}
 
 			unlock();
 		} while (true);
@@ -318,31 +375,37 @@ public class BashDebugger {
 	}
 
 	private void stopOnBreakpoint(ProcessContext context) throws CoreException {
-		IBreakpointManager breakpointManager = DebugPlugin.getDefault().getBreakpointManager();
-		if (! breakpointManager.isEnabled()) {
-			/* all breakpoints turned off...*/
-			return;
-		}
 		BashNetworkVariableData bashLineNumber = context.getBashLineNumber();
 		BashNetworkVariableData bashSource = context.getBashSource();
 		
-		IBreakpoint[] breakpoints = breakpointManager.getBreakpoints(BashDebugConstants.BASH_DEBUG_MODEL_ID);
-		int line;
 		int currentline = bashLineNumber.getIntValue(0);
 		String source = bashSource.getStringValue(0);
+		if (createBreakpointLocations().contains(bashConnector.buildBreakpointLocation(source, currentline))) {
+			context.stop();
+		}
+	}
+
+	/**
+	 * @return locations of all enabled breakpoints - same format as built for
+	 *         current line, so bash can check them itself
+	 */
+	private Set<String> createBreakpointLocations() throws CoreException {
+		Set<String> locations = new LinkedHashSet<>();
+		IBreakpointManager breakpointManager = DebugPlugin.getDefault().getBreakpointManager();
+		if (! breakpointManager.isEnabled()) {
+			/* all breakpoints turned off...*/
+			return locations;
+		}
+		IBreakpoint[] breakpoints = breakpointManager.getBreakpoints(BashDebugConstants.BASH_DEBUG_MODEL_ID);
 		for (int i = 0; i < breakpoints.length; i++) {
 			ILineBreakpoint breakPoint = (ILineBreakpoint) breakpoints[i];
 			if (!breakPoint.isEnabled()) {
 				continue;
 			}
-			line = breakPoint.getLineNumber();
-			
 			String lookupSource = BashSourceLookupParticipant.getReverseLookupSourceItem(breakPoint.getMarker().getResource().getFullPath());
-			if (line == currentline && source.equals(lookupSource)) {
-				context.stop();
-				break;
-			}
+			locations.add(bashConnector.buildBreakpointLocation(lookupSource, breakPoint.getLineNumber()));
 		}
+		return locations;
 	}
 
 	public void lock() {
@@ -361,25 +424,41 @@ public class BashDebugger {
 		}
 	}
 
+	/**
+	 * Resolves value of given variable name - only this variable is fetched from
+	 * bash, once per suspension. The variable of an expression is kept and
+	 * updated, so changed values are marked like for other variables.
+	 */
 	public IValue getValue(String expression, IDebugElement element) throws Exception {
-		if (element instanceof BashStackFrame) {
-			BashStackFrame frame = (BashStackFrame) element;
-			IValue value = findValue(expression, frame.getVariables());
-			return value;
+		if (!(element instanceof BashStackFrame)) {
+			return null;
 		}
-		return null;
-	}
-
-	IValue findValue(String expression, IVariable[] vars) throws DebugException {
-		IValue value = null;
-		String name = expression;
-		for (int i = 0; i < vars.length; i++) {
-			if (vars[i].getName().equals(name)) {
-				value = vars[i].getValue();
-				break;
+		lock();
+		try {
+			if (!variablesQueryable) {
+				return null;
+			}
+			String name = expression.trim();
+			BashVariable variable = watchVariablesByExpression.get(name);
+			if (variable != null && currentWatchExpressions.contains(name)) {
+				return variable.getValue();
 			}
+			BashNetworkVariableData data = bashConnector.fetchVariable(name);
+			if (data == null) {
+				watchVariablesByExpression.remove(name);
+				return null;
+			}
+			if (variable == null) {
+				variable = new BashVariable(debugTarget, data);
+				watchVariablesByExpression.put(name, variable);
+			} else {
+				variable.update(data);
+			}
+			currentWatchExpressions.add(name);
+			return variable.getValue();
+		} finally {
+			unlock();
 		}
-		return value;
 	}
 
 	private void createFrames(ProcessContext context) {
@@ -405,12 +484,42 @@ public class BashDebugger {
 
 	}
 
-	public IVariable[] createBashVariables(BashStackFrame frame) {
+	/**
+	 * Creates variables of given frame - variables are fetched from bash on first
+	 * call while stopped. Must be called inside lock.
+	 * 
+	 * @return variables or <code>null</code> when bash is not stopped
+	 */
+	public IVariable[] createBashVariables(BashStackFrame frame) throws IOException {
+		if (!variablesQueryable) {
+			return null;
+		}
+		if (currentVariables == null) {
+			currentVariables = updateVariables();
+		}
+		return currentVariables;
+	}
+
+	/**
+	 * Fetches variables and updates the ones of former suspensions. So variable
+	 * instances stay same and changed values are marked.
+	 */
+	private IVariable[] updateVariables() throws IOException {
+		bashConnector.fetchVariables();
+		Map<String, BashVariable> updatedVariablesByName = new HashMap<>();
 		IVariable[] variables = new IVariable[bashConnector.getVariableCount()];
 		for (int i = 0; i < variables.length; i++) {
 			BashNetworkVariableData data = bashConnector.getVariableData(i);
-			variables[i] = new BashVariable(frame, data);
+			BashVariable variable = variablesByName.get(data.getName());
+			if (variable == null) {
+				variable = new BashVariable(debugTarget, data);
+			} else {
+				variable.update(data);
+			}
+			updatedVariablesByName.put(data.getName(), variable);
+			variables[i] = variable;
 		}
+		variablesByName = updatedVariablesByName;
 		return variables;
 	}
 
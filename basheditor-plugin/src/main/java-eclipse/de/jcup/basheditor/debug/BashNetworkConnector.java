@@ -16,42 +16,38 @@
 package de.jcup.basheditor.debug;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.util.Collections;
-import java.util.Iterator;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
 import java.util.List;
 import java.util.Vector;
 
-import de.jcup.basheditor.BashEditorActivator;
 import de.jcup.basheditor.EclipseDeveloperSettings;
 import de.jcup.basheditor.preferences.BashEditorPreferences;
-import de.jcup.basheditor.script.parser.ParseToken;
-import de.jcup.basheditor.script.parser.TokenParser;
-import de.jcup.basheditor.script.parser.TokenParserException;
-import de.jcup.eclipse.commons.ui.EclipseUtil;
 
 public class BashNetworkConnector {
-	private ServerSocket serverSocket;
-	private Socket socket;
+	private ServerSocketChannel serverSocketChannel;
+	private SocketChannel socketChannel;
 
-	private InputStream inputStream;
-	private OutputStream outputStream;
+	private DebugResponseReader reader;
 
 	private BashNetworkVariableData bashLineNumber;
 	private BashNetworkVariableData functionName;
 	private BashNetworkVariableData bashSource;
 
 	private Vector<BashNetworkVariableData> bashVariables = new Vector<BashNetworkVariableData>();
-	private TokenParser parser = new TokenParser();
+	private boolean variablesFetched;
 	private DebugBashCodeBuilder builder;
+	private DebugVariablesParser parser;
 	private int port;
 
 	public BashNetworkConnector(int port) {
 		this.port = port;
 		this.builder = new DebugBashCodeBuilder();
+		this.parser = new DebugVariablesParser(builder);
 	}
 
 	public BashNetworkVariableData getBashLineNumber() {
@@ -67,14 +63,22 @@ public class BashNetworkConnector {
 	}
 
 	public void startServerSocket() throws IOException {
-		serverSocket = new ServerSocket(port);
+		serverSocketChannel = ServerSocketChannel.open();
+		try {
+			/* same as for server sockets - port is directly reusable for next session */
+			serverSocketChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+			serverSocketChannel.bind(new InetSocketAddress(port));
+		} catch (IOException e) {
+			serverSocketChannel.close();
+			throw e;
+		}
 	}
 
 	public void connect() throws IOException {
-		socket = serverSocket.accept();
+		socketChannel = serverSocketChannel.accept();
+		socketChannel.socket().setTcpNoDelay(true);
 
-		inputStream = socket.getInputStream();
-		outputStream = socket.getOutputStream();
+		reader = new DebugResponseReader(socketChannel);
 	}
 
 	public void cancel() throws IOException {
@@ -82,44 +86,40 @@ public class BashNetworkConnector {
 	}
 
 	public void disconnect() throws IOException {
-		if (serverSocket != null && !serverSocket.isClosed()) {
-			serverSocket.close();
+		if (serverSocketChannel != null && serverSocketChannel.isOpen()) {
+			serverSocketChannel.close();
 		}
-		if (socket != null && !socket.isClosed()) {
-			socket.close();
+		if (socketChannel != null && socketChannel.isOpen()) {
+			socketChannel.close();
 		}
 	}
 
-	public void stepBegin() throws IOException {
+	/**
+	 * Begins a new step - only location of stopped bash is fetched. Variables
+	 * are fetched on demand by {@link #fetchVariables()} or
+	 * {@link #fetchVariable(String)}
+	 * 
+	 * @return <code>true</code> when location was fetched, <code>false</code>
+	 *         when connection was closed - e.g. script has ended
+	 * @throws IOException
+	 */
+	public boolean stepBegin() throws IOException {
 		if (isShowingMetaInformation()) {
 			BashDebugConsole.println(">> =============== <<");
 			BashDebugConsole.println(">> Begin new step  <<");
 			BashDebugConsole.println(">> =============== <<");
 		}
 		bashVariables.clear();
+		variablesFetched = false;
 
-		String command = builder.buildRemoteDebugCommand();
-		outputStream.write(command.getBytes());
-		outputStream.flush();
-
-		StepParseContext spc = new StepParseContext();
-
-		byte[] buffer = new byte[100 * 1024];
-		int numberOfLines = 0;
-		for (int i = 0; i < buffer.length; i++) {
-			int n = inputStream.read();
-			if (n == '\n') {
-				numberOfLines++;
-			} else {
-				if (n == '\t' && numberOfLines > builder.getLinesOfDebugCode()) {
-					spc.stepStr = new String(buffer, 0, i);
-					parse(spc);
-					break;
-				} else {
-					numberOfLines = 0;
-				}
-			}
-			buffer[i] = (byte) n;
+		write(builder.buildRemoteDebugCommand());
+
+		List<String> lines = readResponse();
+		if (lines == null) {
+			return false;
+		}
+		for (BashNetworkVariableData variable : parse(lines)) {
+			defineLocationVariable(variable);
 		}
 
 		int indexToRemove = -1;
@@ -134,113 +134,171 @@ public class BashNetworkConnector {
 			functionName.removeFromArray(indexToRemove);
 			bashSource.removeFromArray(indexToRemove);
 		}
+		return true;
 	}
 
-	private boolean isTrapFunction(int functionIndex) {
-		String nameOfFirstFunction = functionName.getStringValue(functionIndex);
-		return nameOfFirstFunction.equalsIgnoreCase(builder.getNameOfTrapFunction());
+	/**
+	 * Fetches all variables of stopped bash - only once per step. Afterwards
+	 * available by {@link #getVariableCount()} and {@link #getVariableData(int)}
+	 * 
+	 * @throws IOException
+	 */
+	public void fetchVariables() throws IOException {
+		if (variablesFetched) {
+			return;
+		}
+		write(builder.buildVariablesQueryCommand());
+
+		List<String> lines = readResponse();
+		if (lines == null) {
+			throw new IOException("Connection closed while fetching variables");
+		}
+		bashVariables.addAll(parse(lines));
+		variablesFetched = true;
 	}
 
-	private void parse(StepParseContext spc) {
-		String stepSourceCode = spc.stepStr;
-		String[] sourceCodeLines = stepSourceCode.split("\n");
+	/**
+	 * Fetches one variable of stopped bash
+	 * 
+	 * @param variableName
+	 * @return variable data or <code>null</code> when name is not valid or
+	 *         variable does not exist
+	 * @throws IOException
+	 */
+	public BashNetworkVariableData fetchVariable(String variableName) throws IOException {
+		if (!builder.isValidVariableName(variableName) || builder.isDebugVariable(variableName)) {
+			return null;
+		}
+		if (variablesFetched) {
+			for (BashNetworkVariableData data : bashVariables) {
+				if (data.getName().equals(variableName)) {
+					return data;
+				}
+			}
+			return null;
+		}
+		write(builder.buildVariableQueryCommand(variableName));
 
-		for (String sourceCodeLine : sourceCodeLines) {
-		    if (isShowingMetaInformation()) {
-		        BashDebugConsole.println("Parse:" + sourceCodeLine);
-		    }
-			addBashVariables(spc, sourceCodeLine);
+		List<String> lines = readResponse();
+		if (lines == null) {
+			throw new IOException("Connection closed while fetching variable:" + variableName);
 		}
-		Collections.sort(bashVariables);
+		for (BashNetworkVariableData data : parse(lines)) {
+			if (data.getName().equals(variableName)) {
+				return data;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads response of a query until end of response message
+	 * 
+	 * @return lines of response or <code>null</code> when connection was closed
+	 */
+	private List<String> readResponse() throws IOException {
+		return reader.readLinesUntil(builder.getEndOfResponseMessage());
 	}
 
-	private class StepParseContext {
-		private String stepStr;
-		private boolean trapFunctionFound;
+	/**
+	 * Resumes bash. Bash checks breakpoints and stop depth itself, so there is no
+	 * communication until bash stops again - see {@link #waitForStop()}
+	 * 
+	 * @param breakpointLocations locations of all enabled breakpoints
+	 * @param stopDepth           stack depth where to stop or -1
+	 * @throws IOException
+	 */
+	public void resume(Collection<String> breakpointLocations, int stopDepth) throws IOException {
+		write(builder.buildResumeCommand(breakpointLocations, stopDepth));
+	}
 
-		public boolean isTrapFunctionAlreadyFound() {
-			return trapFunctionFound;
+	/**
+	 * Waits until bash stops - after a step or a resume. Bash sends the stopped
+	 * message every time it waits for a command
+	 * 
+	 * @return <code>true</code> when bash has stopped, <code>false</code> when
+	 *         connection was closed - e.g. script has ended
+	 * @throws IOException
+	 */
+	public boolean waitForStop() throws IOException {
+		String stoppedMessage = builder.getStoppedMessage();
+		String line = null;
+		while ((line = reader.readLine()) != null) {
+			if (line.equals(stoppedMessage)) {
+				return true;
+			}
 		}
+		return false;
 	}
 
-	private void addBashVariables(StepParseContext context, String sourceCodeLine) {
-		if (context.isTrapFunctionAlreadyFound()) {
-			/*
-			 * trap function is first function which will be found. After this output is
-			 * only function content. We must ignore next lines for variables, because
-			 * current variable content is already known and parsing more will result in
-			 * duplicates (code scan in functions...)
-			 */
-			return;
+	/**
+	 * Changes breakpoints of a resumed bash
+	 * 
+	 * @param breakpointLocations
+	 * @throws IOException
+	 */
+	public void changeBreakpointsWhileResumed(Collection<String> breakpointLocations) throws IOException {
+		write(builder.buildBreakpointsChangedCommand(breakpointLocations));
+	}
+
+	/**
+	 * Suspends a resumed bash at next command
+	 * 
+	 * @throws IOException
+	 */
+	public void suspendWhileResumed() throws IOException {
+		write(builder.buildSuspendCommand());
+	}
+
+	/**
+	 * Terminates a resumed bash at next command
+	 * 
+	 * @throws IOException
+	 */
+	public void terminateWhileResumed() throws IOException {
+		write(builder.buildTerminateCommand());
+	}
+
+	public String buildBreakpointLocation(String source, int lineNumber) {
+		return builder.buildBreakpointLocation(source, lineNumber);
+	}
+
+	/* commands for a resumed bash are sent from other threads */
+	private synchronized void write(String command) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(command.getBytes());
+		while (buffer.hasRemaining()) {
+			socketChannel.write(buffer);
 		}
-		if (sourceCodeLine.startsWith(builder.getNameOfTrapFunction())) {
-			if (isShowingMetaInformation()) {
-				BashDebugConsole.println(">>>Function found, mark end of variables reached:" + sourceCodeLine);
+	}
+
+	private boolean isTrapFunction(int functionIndex) {
+		String nameOfFirstFunction = functionName.getStringValue(functionIndex);
+		return nameOfFirstFunction.equalsIgnoreCase(builder.getNameOfTrapFunction());
+	}
+
+	private List<BashNetworkVariableData> parse(List<String> lines) {
+		if (isShowingMetaInformation()) {
+			for (String line : lines) {
+				BashDebugConsole.println("Parse:" + line);
 			}
-			context.trapFunctionFound = true;
-			return;
 		}
-		try {
-			List<ParseToken> parsed = parser.parse(sourceCodeLine);
-			if (isShowingMetaInformationInTraceMode()) {
-				BashDebugConsole.println(">>>Tokens found:"+parsed);
-			}
-			// e.g. [EXPRESSION:'BASH_ARGC=', EXPRESSION:'([0]=', STRING:'"6")']
-			// e.g. [EXPRESSION:'BASH_ARGV=', EXPRESSION:'([0]=', STRING:'"-d"',
-			// EXPRESSION:'[1]=', STRING:'"1.0.0"', EXPRESSION:'[2]=', STRING:'"-s"',
-			// EXPRESSION:'[3]=', STRING:'"int"', EXPRESSION:'[4]=', STRING:'"-e"',
-			// EXPRESSION:'[5]=', STRING:'"mycmd")']
-			BashNetworkVariableData variable = null;
-			for (Iterator<ParseToken> it = parsed.iterator(); it.hasNext();) {
-				ParseToken token = it.next();
-
-				if (token.isVariableDefinition()) {
-					String variableName = token.getTextAsVariableName();
-					variable = new BashNetworkVariableData(variableName);
-					if (variableName.equals("_") || variableName.isEmpty()) {
-						return;
-					} else if (variableName.equals(builder.getNameOfDebugCommand())) {
-						return;
-					} else if (variableName.equals(builder.getNameOfBashLineNumberVariable())) {
-						bashLineNumber = variable;
-					} else if (variableName.equals(builder.getNameOfFunctionNameVariable())) {
-						functionName = variable;
-					} else if (variableName.equals(builder.getNameOfBashSourceVariable())) {
-						bashSource = variable;
-					}
-					if (!it.hasNext()) {
-						return;
-					}
-					ParseToken identifierToken = it.next();
-					String value = identifierToken.getText();
-					if (value.startsWith("(")) {
-						variable.defineAsArray();
-						variable.setValue(sourceCodeLine);
-						if (!it.hasNext()) {
-							break;
-						}
-						ParseToken contentToken = it.next();
-						variable.addArrayValue(builder.buildSafeArrayValue(contentToken.getText()));
-
-						while (it.hasNext()) {
-							identifierToken = it.next();
-							if (it.hasNext()) {
-								contentToken = it.next();
-								variable.addArrayValue(builder.buildSafeArrayValue(contentToken.getText()));
-							}
-
-						}
-					} else {
-						variable.setValue(value);
-					}
-					if (isShowingMetaInformationInTraceMode()) {
-						BashDebugConsole.println(">> found + add variable:"+variable);
-					}
-					bashVariables.add(variable);
-				}
+		List<BashNetworkVariableData> variables = parser.parse(lines);
+		if (isShowingMetaInformationInTraceMode()) {
+			for (BashNetworkVariableData variable : variables) {
+				BashDebugConsole.println(">> found + add variable:" + variable);
 			}
-		} catch (TokenParserException e) {
-			EclipseUtil.logError("Parse problems at line:" + sourceCodeLine, e, BashEditorActivator.getDefault());
+		}
+		return variables;
+	}
+
+	private void defineLocationVariable(BashNetworkVariableData variable) {
+		String variableName = variable.getName();
+		if (variableName.equals(builder.getNameOfBashLineNumberVariable())) {
+			bashLineNumber = variable;
+		} else if (variableName.equals(builder.getNameOfFunctionNameVariable())) {
+			functionName = variable;
+		} else if (variableName.equals(builder.getNameOfBashSourceVariable())) {
+			bashSource = variable;
 		}
 	}
 
@@ -256,15 +314,12 @@ public class BashNetworkConnector {
 		if (!isConnected()) {
 			return;
 		}
-		outputStream.write("\n".getBytes());
-		outputStream.flush();
+		write("\n");
 	}
 
 	public void terminate() throws IOException {
-		String command = "exit 0\n";
-		outputStream.write(command.getBytes());
-		outputStream.flush();
-		serverSocket.close();
+		write("exit 0\n");
+		serverSocketChannel.close();
 	}
 
 	public int getVariableCount() {
@@ -276,10 +331,10 @@ public class BashNetworkConnector {
 	}
 
 	public boolean isConnected() {
-		if (socket == null) {
+		if (socketChannel == null) {
 			return false;
 		}
-		return socket.isConnected();
+		return socketChannel.isConnected();
 	}
 
 }
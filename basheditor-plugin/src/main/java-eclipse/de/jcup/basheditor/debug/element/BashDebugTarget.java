@@ -18,7 +18,6 @@ package de.jcup.basheditor.debug.element;
 import java.io.File;
 import java.io.IOException;
 import java.net.BindException;
-import java.net.SocketException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -358,8 +357,9 @@ public class BashDebugTarget extends AbstractBashDebugElement implements IDebugT
 				if (e instanceof BindException) {
 					needsErrorLog=false;
 					return new Status(IStatus.ERROR,BashEditorActivator.getDefault().getPluginID(),"Bash debug session binding failed for port:"+port, e);
-				}else if (e instanceof SocketException) {
-					if (e.getMessage().indexOf("Broken pipe")!=-1) {
+				}else if (e instanceof IOException) {
+					/* socket channels throw plain IO exceptions */
+					if (e.getMessage()!=null && e.getMessage().indexOf("Broken pipe")!=-1) {
 						/* this happens even with exit code 0 normal termination! Unfortunately 
 						 * socket output streams cannot be checked if available, so this workaround necessary"*/
 						needsErrorLog=false;
@@ -423,7 +423,7 @@ public class BashDebugTarget extends AbstractBashDebugElement implements IDebugT
 
 	}
 
-	public IVariable[] createBashVariables(BashStackFrame frame) {
+	public IVariable[] createBashVariables(BashStackFrame frame) throws IOException {
 		if (debugger == null) {
 			return new IVariable[] {};
 		}
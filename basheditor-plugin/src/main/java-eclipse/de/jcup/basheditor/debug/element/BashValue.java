@@ -15,20 +15,86 @@
  */
 package de.jcup.basheditor.debug.element;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.DebugException;
-import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.core.model.IIndexedValue;
 import org.eclipse.debug.core.model.IVariable;
 
-public class BashValue extends AbstractBashDebugElement implements IValue {
+import de.jcup.basheditor.BashEditorActivator;
+import de.jcup.basheditor.debug.BashNetworkVariableData;
+
+/**
+ * Value of a bash variable. Array values are indexed values - variables for
+ * array elements are created only when requested, so the variables view can
+ * page huge arrays. On an update, already created element variables are kept
+ * and updated when their key still exists.
+ *
+ */
+public class BashValue extends AbstractBashDebugElement implements IIndexedValue {
+
+	private static final BashVariable[] NO_VARIABLES = new BashVariable[0];
 
-	IVariable[] containedVariables = new IVariable[0];
 	private String value;
+	private BashNetworkVariableData arrayData;
+	private BashVariable[] arrayVariables = NO_VARIABLES;
+	/* created element variables by array key */
+	private Map<String, BashVariable> arrayVariablesByKey = new HashMap<>();
 
 	public BashValue(BashDebugTarget target, String value) {
 		super(target);
 		this.value = value;
 	}
 
+	BashValue(BashDebugTarget target, BashNetworkVariableData data) {
+		this(target, data.getStringValue());
+		if (data.isArray()) {
+			this.arrayData = data;
+			this.arrayVariables = new BashVariable[data.getArraySize()];
+		}
+	}
+
+	/**
+	 * Updates value with data of a new suspension
+	 * 
+	 * @return <code>true</code> when value has changed
+	 */
+	synchronized boolean update(BashNetworkVariableData data) {
+		boolean changed = update(data.getStringValue());
+		if (!data.isArray()) {
+			arrayData = null;
+			arrayVariables = NO_VARIABLES;
+			arrayVariablesByKey.clear();
+			return changed;
+		}
+		Map<String, BashVariable> updatedByKey = new HashMap<>();
+		BashVariable[] updated = new BashVariable[data.getArraySize()];
+		for (int i = 0; i < updated.length; i++) {
+			String key = data.getArrayKey(i);
+			BashVariable variable = arrayVariablesByKey.get(key);
+			if (variable == null) {
+				continue;
+			}
+			variable.update(data.getStringValue(i));
+			updated[i] = variable;
+			updatedByKey.put(key, variable);
+		}
+		arrayData = data;
+		arrayVariables = updated;
+		arrayVariablesByKey = updatedByKey;
+		return changed;
+	}
+
+	boolean update(String value) {
+		boolean changed = !Objects.equals(this.value, value);
+		this.value = value;
+		return changed;
+	}
+
 	public String getReferenceTypeName() throws DebugException {
 		try {
 			Integer.parseInt(value);
@@ -47,13 +113,40 @@ public class BashValue extends AbstractBashDebugElement implements IValue {
 	}
 
 	public IVariable[] getVariables() throws DebugException {
-		return containedVariables;
+		return getVariables(0, getSize());
 	}
 
 	public boolean hasVariables() throws DebugException {
-		if (containedVariables.length > 0) {
-			return true;
+		return getSize() > 0;
+	}
+
+	public synchronized IVariable getVariable(int offset) throws DebugException {
+		if (offset < 0 || offset >= arrayVariables.length) {
+			throw new DebugException(new Status(IStatus.ERROR, BashEditorActivator.getDefault().getPluginID(), "Array index out of bounds:" + offset));
+		}
+		BashVariable variable = arrayVariables[offset];
+		if (variable == null) {
+			String key = arrayData.getArrayKey(offset);
+			variable = new BashVariable(getBashDebugTarget(), arrayData.getName() + "[" + key + "]", arrayData.getStringValue(offset));
+			arrayVariables[offset] = variable;
+			arrayVariablesByKey.put(key, variable);
+		}
+		return variable;
+	}
+
+	public IVariable[] getVariables(int offset, int length) throws DebugException {
+		IVariable[] variables = new IVariable[length];
+		for (int i = 0; i < length; i++) {
+			variables[i] = getVariable(offset + i);
 		}
-		return false;
+		return variables;
+	}
+
+	public synchronized int getSize() throws DebugException {
+		return arrayVariables.length;
+	}
+
+	public int getInitialOffset() {
+		return 0;
 	}
 }
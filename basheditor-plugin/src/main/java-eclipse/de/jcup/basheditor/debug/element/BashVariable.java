@@ -21,37 +21,52 @@ import org.eclipse.debug.core.model.IVariable;
 
 import de.jcup.basheditor.debug.BashNetworkVariableData;
 
+/**
+ * Variable of a debugged bash. Instances are kept between suspensions and
+ * updated with fetched data, so changed values can be highlighted.
+ *
+ */
 public class BashVariable extends AbstractBashDebugElement implements IVariable, Comparable<BashVariable> {
 
 	private String name;
 	private BashValue value;
-	private BashStackFrame frame;
-	private BashNetworkVariableData data;
 	private String lowerCaseName;
+	private boolean valueChanged;
+
+	public BashVariable(BashDebugTarget target, BashNetworkVariableData data) {
+		super(target);
 
-	public BashVariable(BashStackFrame frame, BashNetworkVariableData data) {
-		super((BashDebugTarget) frame.getDebugTarget());
-		
-		this.data = data;
-		this.frame = frame;
 		this.name = data.getName();
 		this.lowerCaseName = (""+this.name).toLowerCase();
-		this.value = new BashValue((BashDebugTarget) frame.getDebugTarget(), data.getStringValue());
-		
-		if (data.isArray()) {
-			value.containedVariables = new BashVariable[data.getArraySize()];
-			for (int i = 0; i < data.getArraySize(); i++) {
-				BashVariable arrayVariable = new BashVariable(frame, name+"["+i+"]", data.getStringValue(i));
-				value.containedVariables[i] = arrayVariable;
-			}
-		}
+		this.value = new BashValue(target, data);
 	}
 
-	private BashVariable(BashStackFrame frame, String name, String value) {
-		super((BashDebugTarget) frame.getDebugTarget());
-		this.frame = frame;
+	BashVariable(BashDebugTarget target, String name, String value) {
+		super(target);
 		this.name = name;
-		this.value = new BashValue((BashDebugTarget) frame.getDebugTarget(), value);
+		this.lowerCaseName = (""+this.name).toLowerCase();
+		this.value = new BashValue(target, value);
+	}
+
+	/**
+	 * Updates variable with data fetched at a new suspension
+	 * 
+	 * @param data data of variable with same name
+	 * @return <code>true</code> when value has changed since last update
+	 */
+	public boolean update(BashNetworkVariableData data) {
+		valueChanged = value.update(data);
+		return valueChanged;
+	}
+
+	/**
+	 * Updates array element variable
+	 * 
+	 * @return <code>true</code> when value has changed since last update
+	 */
+	boolean update(String elementValue) {
+		valueChanged = value.update(elementValue);
+		return valueChanged;
 	}
 
 	public IValue getValue() throws DebugException {
@@ -67,7 +82,7 @@ public class BashVariable extends AbstractBashDebugElement implements IVariable,
 	}
 
 	public boolean hasValueChanged() throws DebugException {
-		return false;
+		return valueChanged;
 	}
 
 	public void setValue(String expression) throws DebugException {
@@ -47,10 +47,20 @@ import de.jcup.eclipse.commons.keyword.DocumentKeyWord;
 
 public class BashDocumentPartitionScanner extends RuleBasedPartitionScanner {
 
-	private OnlyLettersKeyWordDetector onlyLettersWordDetector = new OnlyLettersKeyWordDetector();
 	private VariableDefKeyWordDetector variableDefKeyWordDetector = new VariableDefKeyWordDetector();
 
 	public BashDocumentPartitionScanner() {
+		this(false);
+	}
+
+	/**
+	 * Creates partition scanner
+	 * 
+	 * @param keywordsOnly when <code>true</code> only keywords are partitioned -
+	 *                     no strings, comments, heredocs etc. Used for very large
+	 *                     documents
+	 */
+	public BashDocumentPartitionScanner(boolean keywordsOnly) {
 		IToken hereDocument = createToken(HERE_DOCUMENT);
 		IToken hereString = createToken(HERE_STRING);
 		IToken parameters = createToken(PARAMETER);
@@ -68,36 +78,38 @@ public class BashDocumentPartitionScanner extends RuleBasedPartitionScanner {
 		IToken bashCommand = createToken(BASH_COMMAND);
 
 		List<IPredicateRule> rules = new ArrayList<>();
-		rules.add(new HereStringRule(hereString));
-		rules.add(new HereDocumentRule(hereDocument));
-		
-		buildWordRules(rules, systemKeyword, BashSystemKeyWords.values());
-		rules.add(new BashVariableRule(variables));
-		rules.add(new SingleLineRule("#", "", comment, (char) -1, true));
-
-		rules.add(new BashStringRule("\"", "\"", doubleString));
-		rules.add(new BashStringRule("\'", "\'", simpleString));
-		rules.add(new BashStringRule("`", "`", backtickString));
-
-		rules.add(new CommandParameterRule(parameters));
+		ExactWordTrieRule systemKeyWordRule = new ExactWordTrieRule();
+		systemKeyWordRule.add(BashSystemKeyWords.values(), systemKeyword);
+		if (keywordsOnly) {
+			rules.add(systemKeyWordRule);
+		} else {
+			rules.add(new HereStringRule(hereString));
+			rules.add(new HereDocumentRule(hereDocument));
+
+			rules.add(systemKeyWordRule);
+			rules.add(new BashVariableRule(variables));
+			rules.add(new SingleLineRule("#", "", comment, (char) -1, true));
+
+			rules.add(new BashStringRule("\"", "\"", doubleString));
+			rules.add(new BashStringRule("\'", "\'", simpleString));
+			rules.add(new BashStringRule("`", "`", backtickString));
+
+			rules.add(new CommandParameterRule(parameters));
+		}
 
-		buildWordRules(rules, includeKeyword, BashIncludeKeyWords.values());
-		buildWordRules(rules, bashKeyword, BashLanguageKeyWords.values());
-		buildWordRules(rules, bashCommand, BashGnuCommandKeyWords.values());
+		/* one rule for all other keywords - on duplicates first added keyword wins */
+		ExactWordTrieRule keyWordRule = new ExactWordTrieRule();
+		keyWordRule.add(BashIncludeKeyWords.values(), includeKeyword);
+		keyWordRule.add(BashLanguageKeyWords.values(), bashKeyword);
+		keyWordRule.add(BashGnuCommandKeyWords.values(), bashCommand);
 
 //		buildVarDefRules(rules, knownVariables, BashSpecialVariableKeyWords.values());
-		buildWordRules(rules, knownVariables, BashSpecialVariableKeyWords.values());
+		keyWordRule.add(BashSpecialVariableKeyWords.values(), knownVariables);
+		rules.add(keyWordRule);
 
 		setPredicateRules(rules.toArray(new IPredicateRule[rules.size()]));
 	}
 
-	private void buildWordRules(List<IPredicateRule> rules, IToken token, DocumentKeyWord[] values) {
-		for (DocumentKeyWord keyWord : values) {
-			rules.add(new ExactWordPatternRule(onlyLettersWordDetector, createWordStart(keyWord), token,
-					keyWord.isBreakingOnEof()));
-		}
-	}
-
 	private void buildVarDefRules(List<IPredicateRule> rules, IToken token, DocumentKeyWord[] values) {
 		for (DocumentKeyWord keyWord : values) {
 			rules.add(new VariableDefKeyWordPatternRule(variableDefKeyWordDetector, createWordStart(keyWord), token,
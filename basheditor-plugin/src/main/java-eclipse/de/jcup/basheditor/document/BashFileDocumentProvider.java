@@ -32,7 +32,7 @@ public class BashFileDocumentProvider extends FileDocumentProvider {
 		IDocument document = super.createDocument(element);
 		if (document != null) {
 			/* installation necessary */
-			IDocumentPartitioner partitioner = BashPartionerFactory.create();
+			IDocumentPartitioner partitioner = BashPartionerFactory.create(document);
 
 			partitioner.connect(document);
 			document.setDocumentPartitioner(partitioner);
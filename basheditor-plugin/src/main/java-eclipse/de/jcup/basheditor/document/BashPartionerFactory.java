@@ -15,12 +15,32 @@
  */
  package de.jcup.basheditor.document;
 
+import org.eclipse.jface.text.IDocument;
+
+import de.jcup.basheditor.preferences.BashEditorPreferences;
+
 public class BashPartionerFactory {
 
 	public static BashPartitioner create(){
+		return create(false);
+	}
+
+	/**
+	 * Creates partitioner for given document. When document is bigger than
+	 * configured keywords only highlighting size, only keywords are partitioned.
+	 * 
+	 * @param document
+	 * @return partitioner, not connected
+	 */
+	public static BashPartitioner create(IDocument document){
+		boolean keywordsOnly = document.getLength() >= BashEditorPreferences.getInstance().getKeywordsOnlyHighlightingSize();
+		return create(keywordsOnly);
+	}
+
+	public static BashPartitioner create(boolean keywordsOnly){
 		String[] legalContentTypes = BashDocumentIdentifiers.allIdsToStringArray();
 
-		BashDocumentPartitionScanner scanner = new BashDocumentPartitionScanner();
+		BashDocumentPartitionScanner scanner = new BashDocumentPartitionScanner(keywordsOnly);
 		BashPartitioner partitioner = new BashPartitioner(scanner, legalContentTypes);
 		
 		return partitioner;
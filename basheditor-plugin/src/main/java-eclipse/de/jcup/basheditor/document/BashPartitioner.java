@@ -13,15 +13,317 @@
  * and limitations under the License.
  *
  */
- package de.jcup.basheditor.document;
+package de.jcup.basheditor.document;
 
+import java.util.TreeSet;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.DocumentRewriteSession;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.TypedPosition;
 import org.eclipse.jface.text.rules.FastPartitioner;
 import org.eclipse.jface.text.rules.IPartitionTokenScanner;
+import org.eclipse.jface.text.rules.IToken;
+
+/**
+ * Partitioner with damage limited repartitioning. Like {@link FastPartitioner}
+ * a document change is rescanned until the new partitions match the existing
+ * ones again. Between two partitions the scanner has no state, so every
+ * partition boundary is a checkpoint where the scan could stop.<br>
+ * <br>
+ * But an unbalanced quote or heredoc start changes all partitions until the
+ * end of the document. So the rescan stops at the first checkpoint behind the
+ * maximum rescan length and the remaining part is marked as pending. Pending
+ * parts are repartitioned by {@link #continueRepartitioning()} in chunks of the
+ * same length - e.g. asynchronously by the editor - and the existing partitions
+ * are kept until then. Every stopped rescan adds its own pending offset, so
+ * a later resynchronization only confirms the partitions up to the next one.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class BashPartitioner extends FastPartitioner {
+
+	public static final int DEFAULT_MAX_RESCAN_LENGTH = 32 * 1024;
 
-public class BashPartitioner extends FastPartitioner{
+	private int maxRescanLength = DEFAULT_MAX_RESCAN_LENGTH;
+	/* offsets where a stopped rescan left partitions of an older state */
+	private TreeSet<Integer> pendingOffsets = new TreeSet<>();
+	private boolean initialized;
 
 	public BashPartitioner(IPartitionTokenScanner scanner, String[] legalContentTypes) {
 		super(scanner, legalContentTypes);
 	}
 
+	/**
+	 * Set maximum length to rescan after a document change or on a continuation
+	 * 
+	 * @param maxRescanLength
+	 */
+	public void setMaxRescanLength(int maxRescanLength) {
+		this.maxRescanLength = Math.max(1, maxRescanLength);
+	}
+
+	/**
+	 * @return <code>true</code> when partitions after a former change are not
+	 *         rescanned completely
+	 */
+	public boolean hasPendingRepartitioning() {
+		return !pendingOffsets.isEmpty();
+	}
+
+	/**
+	 * Rescans next chunk of pending part
+	 * 
+	 * @return region where partitioning has changed or <code>null</code>
+	 */
+	public IRegion continueRepartitioning() {
+		if (!hasPendingRepartitioning() || !initialized || fDocument == null || getActiveRewriteSession() != null) {
+			return null;
+		}
+		fStartOffset = -1;
+		fEndOffset = -1;
+		fDeleteOffset = -1;
+		try {
+			String category = getPositionCategory();
+			int pendingOffset = pendingOffsets.first();
+			int reparseStart = pendingOffset;
+			int first = fDocument.computeIndexInCategory(category, reparseStart);
+			Position[] positions = getPositions();
+			if (first > 0 && positions[first - 1].includes(reparseStart)) {
+				/* created by a change inside pending part - rescan it */
+				reparseStart = positions[first - 1].getOffset();
+				first--;
+			}
+			repartition(reparseStart, IDocument.DEFAULT_CONTENT_TYPE, reparseStart, first, pendingOffset);
+		} catch (BadPositionCategoryException | BadLocationException e) {
+			/* should never happen on connected documents */
+			pendingOffsets.clear();
+		} finally {
+			clearPositionCache();
+		}
+		return createChangedRegion();
+	}
+
+	@Override
+	protected void initialize() {
+		pendingOffsets.clear();
+		super.initialize();
+		initialized = true;
+	}
+
+	@Override
+	public void connect(IDocument document, boolean delayInitialization) {
+		initialized = false;
+		pendingOffsets.clear();
+		super.connect(document, delayInitialization);
+	}
+
+	@Override
+	public void stopRewriteSession(DocumentRewriteSession session) {
+		super.stopRewriteSession(session);
+		if (getActiveRewriteSession() == null) {
+			/* positions were flushed, everything is scanned again */
+			initialized = false;
+			pendingOffsets.clear();
+		}
+	}
+
+	@Override
+	public IRegion documentChanged2(DocumentEvent e) {
+		if (!initialized || getActiveRewriteSession() != null) {
+			return super.documentChanged2(e);
+		}
+		try {
+			String category = getPositionCategory();
+			Position[] positions = getPositions();
+			IRegion line = fDocument.getLineInformationOfOffset(e.getOffset());
+			int reparseStart = line.getOffset();
+			int partitionStart;
+			String contentType = null;
+			int newLength = e.getText() == null ? 0 : e.getText().length();
+
+			int first = fDocument.computeIndexInCategory(category, reparseStart);
+			if (first > 0) {
+				TypedPosition partition = (TypedPosition) positions[first - 1];
+				if (partition.includes(reparseStart)) {
+					partitionStart = partition.getOffset();
+					contentType = partition.getType();
+					reparseStart = partitionStart;
+					--first;
+				} else if (reparseStart == e.getOffset() && reparseStart == partition.getOffset() + partition.getLength()) {
+					partitionStart = partition.getOffset();
+					contentType = partition.getType();
+					reparseStart = partitionStart;
+					--first;
+				} else {
+					partitionStart = partition.getOffset() + partition.getLength();
+					contentType = IDocument.DEFAULT_CONTENT_TYPE;
+				}
+			} else {
+				partitionStart = 0;
+				reparseStart = 0;
+			}
+			updatePendingOffset(e, newLength);
+
+			fPositionUpdater.update(e);
+			for (int i = first; i < positions.length; i++) {
+				Position p = positions[i];
+				if (p.isDeleted) {
+					rememberDeletedOffset(e.getOffset());
+					break;
+				}
+			}
+			clearPositionCache();
+
+			repartition(reparseStart, contentType, partitionStart, first, e.getOffset() + newLength);
+
+		} catch (BadPositionCategoryException x) {
+			/* should never happen on connected documents */
+		} catch (BadLocationException x) {
+			/* ignore as FastPartitioner does */
+		} finally {
+			clearPositionCache();
+		}
+		return createChangedRegion();
+	}
+
+	/**
+	 * Rescans document from given start. Scan stops when an existing partition
+	 * is found again after given resynchronization offset, at document end or at
+	 * first checkpoint behind maximum rescan length.
+	 */
+	private void repartition(int reparseStart, String contentType, int partitionStart, int first, int resyncOffset) throws BadPositionCategoryException, BadLocationException {
+		String category = getPositionCategory();
+		Position[] positions = getPositions();
+		int scanLimit = Math.max(reparseStart, resyncOffset) + maxRescanLength;
+
+		fScanner.setPartialRange(fDocument, reparseStart, fDocument.getLength() - reparseStart, contentType, partitionStart);
+
+		int behindLastScannedPosition = reparseStart;
+		IToken token = fScanner.nextToken();
+
+		while (!token.isEOF()) {
+			int start = fScanner.getTokenOffset();
+			if (start >= scanLimit) {
+				/* checkpoint behind limit reached - remaining part is pending */
+				while (first < positions.length && positions[first].getOffset() < start) {
+					removePosition(category, positions[first++]);
+				}
+				removePendingOffsets(reparseStart, start);
+				pendingOffsets.add(start);
+				return;
+			}
+			String tokenContentType = getTokenContentType(token);
+			if (!isSupportedContentType(tokenContentType)) {
+				token = fScanner.nextToken();
+				continue;
+			}
+			int length = fScanner.getTokenLength();
+			behindLastScannedPosition = start + length;
+			int lastScannedPosition = behindLastScannedPosition - 1;
+
+			/* remove all affected positions */
+			while (first < positions.length) {
+				TypedPosition p = (TypedPosition) positions[first];
+				if (lastScannedPosition >= p.offset + p.length
+						|| (p.overlapsWith(start, length) && (!fDocument.containsPosition(category, start, length) || !tokenContentType.equals(p.getType())))) {
+					removePosition(category, p);
+					++first;
+				} else {
+					break;
+				}
+			}
+
+			/* if position already exists and we have scanned at least the area covered by the change, we are done */
+			if (fDocument.containsPosition(category, start, length)) {
+				if (lastScannedPosition >= resyncOffset) {
+					removePendingOffsets(reparseStart, lastScannedPosition);
+					return;
+				}
+				++first;
+			} else {
+				fDocument.addPosition(category, new TypedPosition(start, length, tokenContentType));
+				rememberRegion(start, length);
+			}
+			token = fScanner.nextToken();
+		}
+
+		/* remove all positions behind last scanned position since there are no further types */
+		first = fDocument.computeIndexInCategory(category, behindLastScannedPosition);
+		clearPositionCache();
+		positions = getPositions();
+		while (first < positions.length) {
+			removePosition(category, positions[first++]);
+		}
+		removePendingOffsets(reparseStart, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Removes pending offsets inside given range - the partitions there are
+	 * scanned again
+	 */
+	private void removePendingOffsets(int fromOffset, int toOffset) {
+		pendingOffsets.subSet(fromOffset, true, toOffset, true).clear();
+	}
+
+	private void updatePendingOffset(DocumentEvent e, int newLength) {
+		if (!hasPendingRepartitioning() || pendingOffsets.last() <= e.getOffset()) {
+			return;
+		}
+		TreeSet<Integer> updated = new TreeSet<>();
+		for (int pendingOffset : pendingOffsets) {
+			if (e.getOffset() + e.getLength() <= pendingOffset) {
+				updated.add(pendingOffset + newLength - e.getLength());
+			} else if (e.getOffset() < pendingOffset) {
+				updated.add(e.getOffset());
+			} else {
+				updated.add(pendingOffset);
+			}
+		}
+		pendingOffsets = updated;
+	}
+
+	private void removePosition(String category, Position p) throws BadPositionCategoryException {
+		fDocument.removePosition(category, p);
+		rememberRegion(p.offset, p.length);
+	}
+
+	private String getPositionCategory() {
+		return getManagingPositionCategories()[0];
+	}
+
+	private void rememberRegion(int offset, int length) {
+		if (fStartOffset == -1 || offset < fStartOffset) {
+			fStartOffset = offset;
+		}
+		int endOffset = offset + length;
+		if (fEndOffset == -1 || endOffset > fEndOffset) {
+			fEndOffset = endOffset;
+		}
+	}
+
+	private void rememberDeletedOffset(int offset) {
+		fDeleteOffset = offset;
+	}
+
+	private IRegion createChangedRegion() {
+		if (fDeleteOffset == -1) {
+			if (fStartOffset == -1 || fEndOffset == -1) {
+				return null;
+			}
+			return new Region(fStartOffset, fEndOffset - fStartOffset);
+		}
+		if (fStartOffset == -1 || fEndOffset == -1) {
+			return new Region(fDeleteOffset, 0);
+		}
+		int offset = Math.min(fDeleteOffset, fStartOffset);
+		int endOffset = Math.max(fDeleteOffset, fEndOffset);
+		return new Region(offset, endOffset - offset);
+	}
 }
@@ -42,14 +42,17 @@ public class BashStringRule extends PatternRule {
 		} else {
 			int c= scanner.read();
 			if (c == fStartSequence[0]) {
-				scanner.unread();
-				scanner.unread();
-				int before = scanner.read();
-				
-				if (before=='\\'){
-					return Token.UNDEFINED;
+				/* at line start there is no escape character before - and nothing must be read before document start */
+				if (scanner.getColumn() > 1) {
+					scanner.unread();
+					scanner.unread();
+					int before = scanner.read();
+
+					if (before == '\\') {
+						return Token.UNDEFINED;
+					}
+					scanner.read();
 				}
-				scanner.read();
 				
 				if (sequenceDetected(scanner, fStartSequence, false)) {
 					if (endSequenceDetected(scanner))
@@ -38,7 +38,7 @@ public class BashTextFileDocumentProvider extends TextFileDocumentProvider {
 			return document;
 		}
 		/* installation necessary */
-		IDocumentPartitioner partitioner = BashPartionerFactory.create();
+		IDocumentPartitioner partitioner = BashPartionerFactory.create(document);
 		partitioner.connect(document);
 		document.setDocumentPartitioner(partitioner);
 		
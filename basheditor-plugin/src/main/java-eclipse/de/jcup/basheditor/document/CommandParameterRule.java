@@ -47,6 +47,11 @@ public class CommandParameterRule implements IPredicateRule {
 		}
 
 		/* check if the former character is a space - if not this is not an argument */
+		if (scanner.getColumn() <= 1) {
+			/* line start - nothing must be read before document start */
+			scanner.unread();
+			return Token.UNDEFINED;
+		}
 		scanner.unread();
 		scanner.unread();
 		char beforeStart = (char) scanner.read();
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.document;
+
+import java.util.Arrays;
+
+import org.eclipse.jface.text.rules.ICharacterScanner;
+import org.eclipse.jface.text.rules.IPredicateRule;
+import org.eclipse.jface.text.rules.IToken;
+import org.eclipse.jface.text.rules.Token;
+
+import de.jcup.eclipse.commons.keyword.DocumentKeyWord;
+
+/**
+ * Rule recognizing exact words - e.g. keywords - like {@link ExactWordPatternRule}
+ * does, but for any amount of words. All words are inside one character trie,
+ * so a word is recognized by one forward scan and the costs do not grow with
+ * the amount of words.<br>
+ * <br>
+ * A word is only recognized when it starts at line start or after a
+ * whitespace and ends before a whitespace or EOF. Words may contain
+ * whitespaces (e.g. "#!/usr/bin/env bash"), the longest found word wins. When
+ * a word is added multiple times, the token of the first add is used.<br>
+ * <br>
+ * {@link DocumentKeyWord#isBreakingOnEof()} is not evaluated: a complete word
+ * directly before EOF is always found, an incomplete one never. This is the
+ * same as for {@link ExactWordPatternRule} - its break on EOF flag is only
+ * used for end sequences, which word pattern rules do not check.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class ExactWordTrieRule implements IPredicateRule {
+
+	private Node root = new Node();
+	private IToken successToken;
+
+	/**
+	 * Adds all given keywords
+	 * 
+	 * @param keyWords
+	 * @param token    token returned when one of the keywords is found
+	 */
+	public void add(DocumentKeyWord[] keyWords, IToken token) {
+		for (DocumentKeyWord keyWord : keyWords) {
+			add(keyWord.getText(), token);
+		}
+	}
+
+	/**
+	 * Adds given word
+	 * 
+	 * @param word  word, <code>null</code> or empty words are ignored
+	 * @param token token returned when word is found
+	 */
+	public void add(String word, IToken token) {
+		if (word == null || word.isEmpty()) {
+			return;
+		}
+		if (successToken == null) {
+			successToken = token;
+		}
+		Node node = root;
+		for (int i = 0; i < word.length(); i++) {
+			node = node.getOrCreateChild(word.charAt(i));
+		}
+		if (node.token == null) {
+			node.token = token;
+		}
+	}
+
+	@Override
+	public IToken evaluate(ICharacterScanner scanner) {
+		return evaluate(scanner, false);
+	}
+
+	/**
+	 * @return token of first added word. Partitions of other tokens are never
+	 *         resumed by this rule but scanned again from their start
+	 */
+	@Override
+	public IToken getSuccessToken() {
+		return successToken;
+	}
+
+	@Override
+	public IToken evaluate(ICharacterScanner scanner, boolean resume) {
+		if (resume) {
+			/*
+			 * a resumed word would start inside the word - returning undefined lets the
+			 * partition scanner start again at partition offset
+			 */
+			return Token.UNDEFINED;
+		}
+		int c = scanner.read();
+		Node node = root.getChild(c);
+		if (node == null || isWordPrefixed(scanner)) {
+			scanner.unread();
+			return Token.UNDEFINED;
+		}
+		IToken matchedToken = null;
+		int matchedCount = 0;
+		int readCount = 1;
+		while (true) {
+			c = scanner.read();
+			readCount++;
+			if (node.token != null && (c == ICharacterScanner.EOF || Character.isWhitespace((char) c))) {
+				/* word found - but a longer one containing the whitespace is possible */
+				matchedToken = node.token;
+				matchedCount = readCount - 1;
+			}
+			node = node.getChild(c);
+			if (node == null) {
+				break;
+			}
+		}
+		/* keep whitespace or EOF after found word for next token */
+		for (int i = matchedCount; i < readCount; i++) {
+			scanner.unread();
+		}
+		if (matchedToken == null) {
+			return Token.UNDEFINED;
+		}
+		return matchedToken;
+	}
+
+	/**
+	 * Checks character before first read one
+	 * 
+	 * @return <code>true</code> when character before word is not a whitespace
+	 */
+	private boolean isWordPrefixed(ICharacterScanner scanner) {
+		if (scanner.getColumn() <= 1) {
+			return false;
+		}
+		scanner.unread();
+		scanner.unread();
+		int charBefore = scanner.read();
+		scanner.read();
+		return !Character.isWhitespace((char) charBefore);
+	}
+
+	private static class Node {
+		private static final char[] NO_CHARS = new char[0];
+		private static final Node[] NO_NODES = new Node[0];
+
+		/* sorted characters, child at same index */
+		private char[] chars = NO_CHARS;
+		private Node[] children = NO_NODES;
+		private IToken token;
+
+		private Node getChild(int c) {
+			if (c == ICharacterScanner.EOF) {
+				return null;
+			}
+			int index = Arrays.binarySearch(chars, (char) c);
+			if (index < 0) {
+				return null;
+			}
+			return children[index];
+		}
+
+		private Node getOrCreateChild(char c) {
+			int index = Arrays.binarySearch(chars, c);
+			if (index >= 0) {
+				return children[index];
+			}
+			int insertAt = -index - 1;
+			Node child = new Node();
+
+			char[] newChars = new char[chars.length + 1];
+			System.arraycopy(chars, 0, newChars, 0, insertAt);
+			newChars[insertAt] = c;
+			System.arraycopy(chars, insertAt, newChars, insertAt + 1, chars.length - insertAt);
+
+			Node[] newChildren = new Node[children.length + 1];
+			System.arraycopy(children, 0, newChildren, 0, insertAt);
+			newChildren[insertAt] = child;
+			System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+			chars = newChars;
+			children = newChildren;
+			return child;
+		}
+	}
+}
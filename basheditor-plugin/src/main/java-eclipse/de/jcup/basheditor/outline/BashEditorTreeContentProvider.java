@@ -34,6 +34,7 @@ public class BashEditorTreeContentProvider implements ITreeContentProvider {
 	private static final String BASH_SCRIPT_DOES_NOT_CONTAIN_ANY_FUNCTIONS = "Bash script does not contain any functions";
 	private static final Object[] RESULT_WHEN_EMPTY = new Object[] { BASH_SCRIPT_DOES_NOT_CONTAIN_ANY_FUNCTIONS };
 	private Object[] items;
+	private ItemOffsetIndex offsetIndex = new ItemOffsetIndex(null);
 	private Object monitor = new Object();
 
 	BashEditorTreeContentProvider() {
@@ -148,43 +149,18 @@ public class BashEditorTreeContentProvider implements ITreeContentProvider {
 		synchronized (monitor) {
 			if (model == null) {
 				items = null;
+				offsetIndex = new ItemOffsetIndex(null);
 				return;
 			}
 			items = createItems(model);
+			offsetIndex = new ItemOffsetIndex(items);
 		}
 	}
 
 	public Item tryToFindByOffset(int offset) {
 		synchronized (monitor) {
-			return findItemByOffset(offset,items);
+			return offsetIndex.find(offset);
 		}
 	}
 
-    private Item findItemByOffset(int offset, Object[] items) {
-        if (items == null) {
-            return null;
-        }
-        for (Object oitem : items) {
-        	if (!(oitem instanceof Item)) {
-        		continue;
-        	}
-        	Item item = (Item) oitem;
-        	int itemStart = item.getOffset();
-        	int itemEnd = item.getEndOffset();
-        	
-        	/* do children first - otherwise parent can hide children... */
-        	if (item.hasChildren()) {
-        	    Item itemFound = findItemByOffset(offset, item.getChildren().toArray());
-        	    if (itemFound!=null) {
-        	        return itemFound;
-        	    }
-        	}
-        	/* do parent now */
-        	if (offset >= itemStart && offset <= itemEnd) {
-        	    return item;
-        	}
-        }
-        return null;
-    }
-
 }
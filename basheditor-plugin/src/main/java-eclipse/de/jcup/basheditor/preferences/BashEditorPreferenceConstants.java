@@ -51,6 +51,10 @@ public enum BashEditorPreferenceConstants implements PreferenceIdentifiable {
 	
 	P_AMOUNT_OF_SPACES_FOR_TAB_REPLACEMENT("replaceTabBySpacesAmount"),
 	
+	P_PROGRESSIVE_HIGHLIGHTING_SIZE_KB("progressiveHighlightingSizeKB"),
+	
+	P_KEYWORDS_ONLY_HIGHLIGHTING_SIZE_KB("keywordsOnlyHighlightingSizeKB"),
+	
 	;
 	
 
@@ -87,6 +87,7 @@ public class BashEditorPreferenceInitializer extends AbstractPreferenceInitializ
 		store.setDefault(VALIDATE_DO_STATEMENTS.getId(), true);
 		store.setDefault(VALIDATE_IF_STATEMENTS.getId(), true);
 		store.setDefault(VALIDATE_FUNCTION_STATEMENTS.getId(), true);
+		store.setDefault(VALIDATE_WHILE_TYPING.getId(), true);
 
 		store.setDefault(VALIDATE_ERROR_LEVEL.getId(), BashEditorValidationErrorLevel.ERROR.getId());
 		
@@ -113,6 +114,12 @@ public class BashEditorPreferenceInitializer extends AbstractPreferenceInitializ
 		store.setDefault(P_REPLACE_TAB_BY_SPACES_STRATEGY.getId(), BashEditorTabReplaceStrategy.getDefault().getId());
 		store.setDefault(P_AMOUNT_OF_SPACES_FOR_TAB_REPLACEMENT.getId(),3);
 		
+		/* +++++++++++++++ */
+		/* + Large files + */
+		/* +++++++++++++++ */
+		store.setDefault(P_PROGRESSIVE_HIGHLIGHTING_SIZE_KB.getId(), 512);
+		store.setDefault(P_KEYWORDS_ONLY_HIGHLIGHTING_SIZE_KB.getId(), 8192);
+		
 	}
 
 }
@@ -277,6 +277,27 @@ public class BashEditorPreferencePage extends FieldEditorPreferencePage implemen
         addField(amountFieldEditor);
         createDependency(tabReplaceStrategy.getComboBoxControl(tabReplaceGroup),amountFieldEditor.getTextControl(tabReplaceGroup), Arrays.asList(ALWAYS.getLabelText()));
         
+        /* ----------------------- */
+        /* -- Large files       -- */
+        /* ----------------------- */
+
+        GridData largeFilesGroupLayoutData = new GridData(GridData.HORIZONTAL_ALIGN_FILL | GridData.GRAB_HORIZONTAL);
+        largeFilesGroupLayoutData.horizontalSpan = 2;
+        Group largeFilesGroup = new Group(appearanceComposite, SWT.NONE);
+        largeFilesGroup.setText("Large files");
+        largeFilesGroup.setLayout(new GridLayout());
+        largeFilesGroup.setLayoutData(largeFilesGroupLayoutData);
+
+        IntegerFieldEditor progressiveSizeFieldEditor = new IntegerFieldEditor(P_PROGRESSIVE_HIGHLIGHTING_SIZE_KB.getId(), "Highlight visible part first from size (KB)", largeFilesGroup);
+        progressiveSizeFieldEditor.setValidRange(1, Integer.MAX_VALUE / 1024);
+        progressiveSizeFieldEditor.getLabelControl(largeFilesGroup).setToolTipText("Files of this size are colored progressively: the visible part at once, the rest in the background");
+        addField(progressiveSizeFieldEditor);
+
+        IntegerFieldEditor keywordsOnlySizeFieldEditor = new IntegerFieldEditor(P_KEYWORDS_ONLY_HIGHLIGHTING_SIZE_KB.getId(), "Highlight only keywords from size (KB)", largeFilesGroup);
+        keywordsOnlySizeFieldEditor.setValidRange(1, Integer.MAX_VALUE / 1024);
+        keywordsOnlySizeFieldEditor.getLabelControl(largeFilesGroup).setToolTipText("Files of this size have no string, comment or heredoc highlighting.\nYou have to close and reopen existing files by bash editor to get the effect there as well.");
+        addField(keywordsOnlySizeFieldEditor);
+
         updateSlaveComponents();
     }
 
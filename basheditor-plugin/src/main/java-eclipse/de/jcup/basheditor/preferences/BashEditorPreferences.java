@@ -201,6 +201,21 @@ public class BashEditorPreferences {
         return getIntPreference(P_AMOUNT_OF_SPACES_FOR_TAB_REPLACEMENT);
     }
     
+    /**
+     * @return document size in characters where highlighting is done
+     *         progressively - visible part first, the rest in chunks
+     */
+    public int getProgressiveHighlightingSize() {
+        return getIntPreference(P_PROGRESSIVE_HIGHLIGHTING_SIZE_KB) * 1024;
+    }
+
+    /**
+     * @return document size in characters where only keywords are highlighted
+     */
+    public int getKeywordsOnlyHighlightingSize() {
+        return getIntPreference(P_KEYWORDS_ONLY_HIGHLIGHTING_SIZE_KB) * 1024;
+    }
+
     public BashEditorTabReplaceStrategy getReplaceTabBySpacesStrategy() {
        String strategyId = getStringPreference(P_REPLACE_TAB_BY_SPACES_STRATEGY);
        return BashEditorTabReplaceStrategy.fromId(strategyId); 
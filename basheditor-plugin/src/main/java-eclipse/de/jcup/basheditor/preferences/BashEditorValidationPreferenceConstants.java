@@ -29,6 +29,8 @@ public enum BashEditorValidationPreferenceConstants implements PreferenceIdentif
 	
 	VALIDATE_ERROR_LEVEL("validateErrorLevel","Error level"),
 	
+	VALIDATE_WHILE_TYPING("validateWhileTyping","Validate while typing (errors of unsaved changes are shown inside editor only)"),
+	
 	;
 
 	private String id;
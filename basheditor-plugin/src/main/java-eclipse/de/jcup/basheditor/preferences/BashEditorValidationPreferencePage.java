@@ -20,6 +20,7 @@ import static de.jcup.basheditor.preferences.BashEditorValidationPreferenceConst
 import static de.jcup.basheditor.preferences.BashEditorValidationPreferenceConstants.VALIDATE_ERROR_LEVEL;
 import static de.jcup.basheditor.preferences.BashEditorValidationPreferenceConstants.VALIDATE_FUNCTION_STATEMENTS;
 import static de.jcup.basheditor.preferences.BashEditorValidationPreferenceConstants.VALIDATE_IF_STATEMENTS;
+import static de.jcup.basheditor.preferences.BashEditorValidationPreferenceConstants.VALIDATE_WHILE_TYPING;
 
 import org.eclipse.jface.preference.BooleanFieldEditor;
 import org.eclipse.jface.preference.ComboFieldEditor;
@@ -51,6 +52,7 @@ public class BashEditorValidationPreferencePage extends FieldEditorPreferencePag
 		createEditor(VALIDATE_DO_STATEMENTS, parent);
 		createEditor(VALIDATE_FUNCTION_STATEMENTS, parent);
 		createEditor(VALIDATE_BLOCK_STATEMENTS, parent);
+		createEditor(VALIDATE_WHILE_TYPING, parent);
 
 		createComboBox(VALIDATE_ERROR_LEVEL, parent);
 	}
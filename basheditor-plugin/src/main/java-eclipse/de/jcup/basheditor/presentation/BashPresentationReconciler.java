@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.presentation;
+
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.ITextViewerExtension2;
+import org.eclipse.jface.text.Region;
+import org.eclipse.jface.text.TextPresentation;
+import org.eclipse.jface.text.presentation.PresentationReconciler;
+import org.eclipse.swt.custom.StyledText;
+
+/**
+ * Presentation reconciler with progressive presentation for large documents.
+ * When a damage inside a document bigger than the progressive document size
+ * is too big for one chunk, only the visible part is presented at once. The
+ * remaining parts are kept as pending positions and presented chunk by chunk
+ * - one chunk per UI event, parts at or below the visible area first. So
+ * opening a multi megabyte script does not block the workbench until all is
+ * colored.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+public class BashPresentationReconciler extends PresentationReconciler {
+
+	public static final int CHUNK_SIZE = 16 * 1024;
+
+	private ITextViewer viewer;
+	private int progressiveDocumentSize = Integer.MAX_VALUE;
+	private PendingPresentationRanges pendingRanges = new PendingPresentationRanges();
+	private boolean presentingChunk;
+	private boolean scheduled;
+
+	/**
+	 * Set document size where progressive presentation starts
+	 *
+	 * @param progressiveDocumentSize size in characters
+	 */
+	public void setProgressiveDocumentSize(int progressiveDocumentSize) {
+		this.progressiveDocumentSize = progressiveDocumentSize;
+	}
+
+	@Override
+	public void install(ITextViewer viewer) {
+		this.viewer = viewer;
+		super.install(viewer);
+	}
+
+	@Override
+	public void uninstall() {
+		super.uninstall();
+		pendingRanges.clear();
+		viewer = null;
+	}
+
+	@Override
+	protected void setDocumentToDamagers(IDocument document) {
+		/* called on every input document change */
+		pendingRanges.setDocument(document);
+		super.setDocumentToDamagers(document);
+	}
+
+	@Override
+	protected TextPresentation createPresentation(IRegion damage, IDocument document) {
+		if (presentingChunk || document.getLength() < progressiveDocumentSize || damage.getLength() <= CHUNK_SIZE) {
+			return super.createPresentation(damage, document);
+		}
+		int damageEnd = damage.getOffset() + damage.getLength();
+		IRegion visible = getVisibleRegion();
+
+		int immediateStart = Math.max(damage.getOffset(), visible.getOffset());
+		int immediateEnd = Math.min(damageEnd, visible.getOffset() + visible.getLength());
+		if (immediateEnd <= immediateStart) {
+			/* nothing visible - present all later */
+			immediateStart = damageEnd;
+			immediateEnd = damageEnd;
+		}
+		pendingRanges.add(damage.getOffset(), immediateStart - damage.getOffset());
+		pendingRanges.add(immediateEnd, damageEnd - immediateEnd);
+		schedule();
+
+		if (immediateEnd <= immediateStart) {
+			return null;
+		}
+		return super.createPresentation(new Region(immediateStart, immediateEnd - immediateStart), document);
+	}
+
+	/**
+	 * @return <code>true</code> when parts of the document are not presented
+	 *         yet
+	 */
+	public boolean hasPendingPresentation() {
+		return !pendingRanges.isEmpty();
+	}
+
+	private IRegion getVisibleRegion() {
+		int top = viewer.getTopIndexStartOffset();
+		int bottom = viewer.getBottomIndexEndOffset();
+		if (bottom <= top) {
+			/* widget not laid out yet */
+			bottom = top + CHUNK_SIZE;
+		}
+		return new Region(top, bottom - top);
+	}
+
+	private void schedule() {
+		if (scheduled || viewer == null) {
+			return;
+		}
+		StyledText textWidget = viewer.getTextWidget();
+		if (textWidget == null || textWidget.isDisposed()) {
+			return;
+		}
+		scheduled = true;
+		textWidget.getDisplay().asyncExec(new Runnable() {
+
+			@Override
+			public void run() {
+				scheduled = false;
+				presentNextChunk();
+			}
+		});
+	}
+
+	private void presentNextChunk() {
+		if (viewer == null || !(viewer instanceof ITextViewerExtension2)) {
+			pendingRanges.clear();
+			return;
+		}
+		StyledText textWidget = viewer.getTextWidget();
+		if (textWidget == null || textWidget.isDisposed()) {
+			pendingRanges.clear();
+			return;
+		}
+		IRegion chunk = pendingRanges.removeNextChunk(viewer.getTopIndexStartOffset(), CHUNK_SIZE);
+		if (chunk == null) {
+			return;
+		}
+		presentingChunk = true;
+		try {
+			((ITextViewerExtension2) viewer).invalidateTextPresentation(chunk.getOffset(), chunk.getLength());
+		} finally {
+			presentingChunk = false;
+		}
+		if (hasPendingPresentation()) {
+			schedule();
+		}
+	}
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.presentation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
+import org.eclipse.jface.text.Region;
+
+/**
+ * Ranges of a document which are not presented yet. The ranges are kept as
+ * document positions, so later edits move, resize or delete them. Overlapping
+ * or adjacent ranges are merged. Chunks are taken from the first range at or
+ * below a given offset, so the visible area is presented first.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+class PendingPresentationRanges {
+
+	private IDocument document;
+	private List<Position> positions = new ArrayList<>();
+
+	/**
+	 * Set document for pending ranges - all former ranges are removed
+	 *
+	 * @param document document or <code>null</code>
+	 */
+	void setDocument(IDocument document) {
+		clear();
+		this.document = document;
+	}
+
+	/**
+	 * Adds given range as pending. Pending ranges overlapping or touching the
+	 * new one are merged into it.
+	 *
+	 * @param offset offset of range
+	 * @param length length of range - nothing is added when not positive
+	 */
+	void add(int offset, int length) {
+		if (document == null || length <= 0) {
+			return;
+		}
+		int start = offset;
+		int end = offset + length;
+		for (Iterator<Position> it = positions.iterator(); it.hasNext();) {
+			Position pending = it.next();
+			if (pending.isDeleted()) {
+				removeFromDocument(pending);
+				it.remove();
+				continue;
+			}
+			int pendingEnd = pending.getOffset() + pending.getLength();
+			if (pendingEnd < start || pending.getOffset() > end) {
+				continue;
+			}
+			start = Math.min(start, pending.getOffset());
+			end = Math.max(end, pendingEnd);
+			removeFromDocument(pending);
+			it.remove();
+		}
+		addPosition(start, end - start);
+	}
+
+	/**
+	 * Removes next chunk from pending ranges. This is a part of the first
+	 * pending range at or below given offset, otherwise of the first pending
+	 * range at all. When the range starts above given offset, only the part
+	 * below is used - the part above stays pending.
+	 *
+	 * @param visibleOffset offset where presentation shall start
+	 * @param chunkSize     maximum length of chunk
+	 * @return chunk region or <code>null</code> when nothing is pending
+	 */
+	IRegion removeNextChunk(int visibleOffset, int chunkSize) {
+		Position next = findNext(visibleOffset);
+		if (next == null) {
+			return null;
+		}
+		int offset = next.getOffset();
+		int length = Math.min(chunkSize, next.getLength());
+		next.setOffset(offset + length);
+		next.setLength(next.getLength() - length);
+		if (next.getLength() == 0) {
+			removeFromDocument(next);
+			positions.remove(next);
+		}
+		return new Region(offset, length);
+	}
+
+	/**
+	 * @return <code>true</code> when no range is pending
+	 */
+	boolean isEmpty() {
+		return positions.isEmpty();
+	}
+
+	/**
+	 * @return current pending ranges, sorted by offset. Deleted ranges are not
+	 *         contained
+	 */
+	List<IRegion> getRanges() {
+		List<IRegion> ranges = new ArrayList<>();
+		for (Position pending : positions) {
+			if (pending.isDeleted() || pending.getLength() == 0) {
+				continue;
+			}
+			ranges.add(new Region(pending.getOffset(), pending.getLength()));
+		}
+		ranges.sort((r1, r2) -> r1.getOffset() - r2.getOffset());
+		return ranges;
+	}
+
+	void clear() {
+		for (Position pending : positions) {
+			removeFromDocument(pending);
+		}
+		positions.clear();
+	}
+
+	private Position findNext(int visibleOffset) {
+		Position first = null;
+		Position firstVisible = null;
+		for (Iterator<Position> it = positions.iterator(); it.hasNext();) {
+			Position pending = it.next();
+			if (pending.isDeleted() || pending.getLength() == 0) {
+				removeFromDocument(pending);
+				it.remove();
+				continue;
+			}
+			if (first == null || pending.getOffset() < first.getOffset()) {
+				first = pending;
+			}
+			if (pending.getOffset() + pending.getLength() <= visibleOffset) {
+				continue;
+			}
+			if (firstVisible == null || pending.getOffset() < firstVisible.getOffset()) {
+				firstVisible = pending;
+			}
+		}
+		if (firstVisible == null) {
+			return first;
+		}
+		if (firstVisible.getOffset() < visibleOffset) {
+			/* split - part above visible area is presented later */
+			int aboveOffset = firstVisible.getOffset();
+			int aboveLength = visibleOffset - aboveOffset;
+			firstVisible.setLength(firstVisible.getLength() - aboveLength);
+			firstVisible.setOffset(visibleOffset);
+			addPosition(aboveOffset, aboveLength);
+		}
+		return firstVisible;
+	}
+
+	private void addPosition(int offset, int length) {
+		Position position = new Position(offset, length);
+		try {
+			document.addPosition(position);
+			positions.add(position);
+		} catch (BadLocationException e) {
+			/* range outside document - nothing to present */
+		}
+	}
+
+	private void removeFromDocument(Position position) {
+		if (document != null) {
+			document.removePosition(position);
+		}
+	}
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+/**
+ * Immutable data of a marker - used to compare wanted markers with existing
+ * ones without accessing the workspace.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class MarkerData {
+
+	private int severity;
+	private String message;
+	private int lineNumber;
+	private int charStart;
+	private int charEnd;
+
+	/**
+	 * Creates marker data
+	 * 
+	 * @param severity
+	 * @param message
+	 * @param lineNumber line number, values lower than 1 are changed to 1
+	 * @param charStart  start or -1 when not defined
+	 * @param charEnd    end or -1 when not defined
+	 */
+	public MarkerData(int severity, String message, int lineNumber, int charStart, int charEnd) {
+		this.severity = severity;
+		this.message = message;
+		this.lineNumber = lineNumber <= 0 ? 1 : lineNumber;
+		this.charStart = charStart;
+		this.charEnd = charStart == -1 ? -1 : charEnd;
+	}
+
+	public int getSeverity() {
+		return severity;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	public int getCharStart() {
+		return charStart;
+	}
+
+	public int getCharEnd() {
+		return charEnd;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + charEnd;
+		result = prime * result + charStart;
+		result = prime * result + lineNumber;
+		result = prime * result + ((message == null) ? 0 : message.hashCode());
+		result = prime * result + severity;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof MarkerData))
+			return false;
+		MarkerData other = (MarkerData) obj;
+		if (charEnd != other.charEnd)
+			return false;
+		if (charStart != other.charStart)
+			return false;
+		if (lineNumber != other.lineNumber)
+			return false;
+		if (severity != other.severity)
+			return false;
+		return SimpleStringUtils.equals(message, other.message);
+	}
+
+	@Override
+	public String toString() {
+		return "MarkerData [severity=" + severity + ", message=" + message + ", lineNumber=" + lineNumber + ", charStart=" + charStart + ", charEnd=" + charEnd + "]";
+	}
+}
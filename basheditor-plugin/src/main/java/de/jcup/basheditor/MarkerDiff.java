@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compares existing markers with wanted marker data. Existing markers having
+ * wanted data are kept, all other existing markers must be removed and only
+ * missing ones must be created. Wanted markers with same message and line
+ * number as a former wanted one are ignored, so no duplicates are created.
+ * 
+ * @author Albert Tregnaghi
+ *
+ * @param <M> marker type
+ */
+public class MarkerDiff<M> {
+
+	private List<MarkerData> toCreate = new ArrayList<>();
+	private List<M> toRemove = new ArrayList<>();
+
+	/**
+	 * Creates a diff
+	 * 
+	 * @param existing existing markers with their data
+	 * @param wanted   wanted marker data
+	 */
+	public MarkerDiff(Map<M, MarkerData> existing, List<MarkerData> wanted) {
+		Map<MarkerData, ArrayDeque<M>> existingByData = new HashMap<>();
+		for (Map.Entry<M, MarkerData> entry : existing.entrySet()) {
+			existingByData.computeIfAbsent(entry.getValue(), data -> new ArrayDeque<>()).add(entry.getKey());
+		}
+		Set<M> kept = new HashSet<>();
+		Set<String> messageAndLines = new HashSet<>();
+		for (MarkerData data : wanted) {
+			if (data == null) {
+				continue;
+			}
+			if (!messageAndLines.add(data.getLineNumber() + ":" + data.getMessage())) {
+				/* same message and line already wanted */
+				continue;
+			}
+			ArrayDeque<M> sameMarkers = existingByData.get(data);
+			if (sameMarkers == null || sameMarkers.isEmpty()) {
+				toCreate.add(data);
+			} else {
+				/* keep existing marker */
+				kept.add(sameMarkers.removeFirst());
+			}
+		}
+		for (M marker : existing.keySet()) {
+			if (!kept.contains(marker)) {
+				toRemove.add(marker);
+			}
+		}
+	}
+
+	/**
+	 * @return marker data for markers to create
+	 */
+	public List<MarkerData> getToCreate() {
+		return toCreate;
+	}
+
+	/**
+	 * @return existing markers to remove
+	 */
+	public List<M> getToRemove() {
+		return toRemove;
+	}
+
+	/**
+	 * @return <code>true</code> when nothing must be created or removed
+	 */
+	public boolean isEmpty() {
+		return toCreate.isEmpty() && toRemove.isEmpty();
+	}
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.jcup.basheditor.ScriptModelProposal.Kind;
+import de.jcup.basheditor.script.BashFunction;
+import de.jcup.basheditor.script.BashScriptModel;
+import de.jcup.basheditor.script.BashVariable;
+import de.jcup.basheditor.script.BashVariableAssignment;
+
+/**
+ * Code completion for functions and variables of a script model. No text is
+ * scanned, only the (already built) model is inspected. Proposals are ranked
+ * by scope - local variables of the function containing the caret first, then
+ * global variables and functions - then by match (names starting with wanted
+ * text first) and at last by distance of definition to caret.<br>
+ * <br>
+ * When wanted text starts with "$" or "${" only variables are proposed.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class ScriptModelCodeCompletion {
+
+	/* @formatter:off*/
+	private static final Comparator<ScriptModelProposal> RANKING = 
+			Comparator.comparing(ScriptModelProposal::getKind).
+			thenComparing(proposal -> !proposal.isStartingWithWanted()).
+			thenComparingInt(ScriptModelProposal::getDistance).
+			thenComparing(ScriptModelProposal::getName);
+	/* @formatter:on*/
+
+	/**
+	 * Calculates proposals
+	 * 
+	 * @param model      script model, when <code>null</code> nothing is proposed
+	 * @param textBefore text typed before caret
+	 * @param offset     caret offset
+	 * @return ranked proposals, never <code>null</code>
+	 */
+	public List<ScriptModelProposal> calculate(BashScriptModel model, String textBefore, int offset) {
+		if (model == null) {
+			return Collections.emptyList();
+		}
+		if (textBefore == null) {
+			textBefore = "";
+		}
+		String variablePrefix = "";
+		String variablePostfix = "";
+		if (textBefore.startsWith("${")) {
+			variablePrefix = "${";
+			variablePostfix = "}";
+		} else if (textBefore.startsWith("$")) {
+			variablePrefix = "$";
+		}
+		boolean variablesOnly = !variablePrefix.isEmpty();
+		String wanted = textBefore.substring(variablePrefix.length());
+		String wantedLowerCase = wanted.toLowerCase();
+
+		List<ScriptModelProposal> proposals = new ArrayList<>();
+		Set<String> localNames = new HashSet<>();
+
+		BashFunction enclosingFunction = model.getFunctionAt(offset);
+		if (enclosingFunction != null) {
+			for (BashVariable variable : enclosingFunction.getVariables().values()) {
+				localNames.add(variable.getName());
+				addProposal(proposals, variable.getName(), variablePrefix, variablePostfix, Kind.LOCAL_VARIABLE, wanted, wantedLowerCase, distance(variable, offset));
+			}
+		}
+		for (BashVariable variable : model.getVariables().values()) {
+			if (localNames.contains(variable.getName())) {
+				/* hidden by local variable */
+				continue;
+			}
+			addProposal(proposals, variable.getName(), variablePrefix, variablePostfix, Kind.GLOBAL_VARIABLE, wanted, wantedLowerCase, distance(variable, offset));
+		}
+		if (!variablesOnly) {
+			Set<String> functionNames = new HashSet<>();
+			for (BashFunction function : model.getFunctions()) {
+				if (!functionNames.add(function.getName())) {
+					continue;
+				}
+				addProposal(proposals, function.getName(), "", "", Kind.FUNCTION, wanted, wantedLowerCase, distance(model.getFunctions(function.getName()), offset));
+			}
+		}
+		proposals.sort(RANKING);
+		return proposals;
+	}
+
+	private void addProposal(List<ScriptModelProposal> proposals, String name, String prefix, String postfix, Kind kind, String wanted, String wantedLowerCase, int distance) {
+		if (name == null || name.isEmpty() || name.equals(wanted)) {
+			return;
+		}
+		String nameLowerCase = name.toLowerCase();
+		boolean startsWithWanted = nameLowerCase.startsWith(wantedLowerCase);
+		if (!startsWithWanted && nameLowerCase.indexOf(wantedLowerCase) == -1) {
+			return;
+		}
+		proposals.add(new ScriptModelProposal(name, prefix + name + postfix, kind, startsWithWanted, distance));
+	}
+
+	private int distance(BashVariable variable, int offset) {
+		int distance = Integer.MAX_VALUE;
+		for (BashVariableAssignment assignment : variable.getAssignments()) {
+			distance = Math.min(distance, Math.abs(assignment.getStart() - offset));
+		}
+		return distance;
+	}
+
+	private int distance(List<BashFunction> functions, int offset) {
+		int distance = Integer.MAX_VALUE;
+		for (BashFunction function : functions) {
+			distance = Math.min(distance, Math.abs(function.getPosition() - offset));
+		}
+		return distance;
+	}
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+/**
+ * A code completion proposal created from a script model
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class ScriptModelProposal {
+
+	/**
+	 * Kind of proposal - ordinal is the scope rank, smaller is nearer to caret
+	 */
+	public enum Kind {
+		LOCAL_VARIABLE,
+
+		GLOBAL_VARIABLE,
+
+		FUNCTION,
+	}
+
+	private String name;
+	private String replacement;
+	private Kind kind;
+	private boolean startsWithWanted;
+	private int distance;
+
+	ScriptModelProposal(String name, String replacement, Kind kind, boolean startsWithWanted, int distance) {
+		this.name = name;
+		this.replacement = replacement;
+		this.kind = kind;
+		this.startsWithWanted = startsWithWanted;
+		this.distance = distance;
+	}
+
+	/**
+	 * @return name of function or variable
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return text to insert - e.g. "${name}" for a variable when "${" was
+	 *         typed
+	 */
+	public String getReplacement() {
+		return replacement;
+	}
+
+	public Kind getKind() {
+		return kind;
+	}
+
+	/**
+	 * @return <code>true</code> when name starts with wanted text, otherwise name
+	 *         only contains it
+	 */
+	public boolean isStartingWithWanted() {
+		return startsWithWanted;
+	}
+
+	/**
+	 * @return distance between caret and nearest definition or assignment
+	 */
+	public int getDistance() {
+		return distance;
+	}
+
+	@Override
+	public String toString() {
+		return replacement + " (" + kind + ", distance " + distance + ")";
+	}
+}
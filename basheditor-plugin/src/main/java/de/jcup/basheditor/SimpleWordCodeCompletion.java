@@ -15,22 +15,26 @@
  */
 package de.jcup.basheditor;
 
-import static java.util.Collections.unmodifiableSet;
-
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 public class SimpleWordCodeCompletion {
 
 	private Set<String> additionalWordsCache = new HashSet<>();
 
-	private SortedSet<String> allWordsCache = new TreeSet<>();
-
 	private WordListBuilder wordListBuilder;
 
+	/* index is reused as long as source, additional words and word list builder are same */
+	private SimpleWordIndex index;
+	private String indexedSource;
+	private Set<String> indexedAdditionalWords;
+	private WordListBuilder indexedWordListBuilder;
+
 	/**
 	 * Adds an additional word - will be removed on all of {@link #reset()}
 	 * 
@@ -40,10 +44,6 @@ public class SimpleWordCodeCompletion {
 		if (word == null) {
 			return;
 		}
-		if (!allWordsCache.isEmpty()) {
-			allWordsCache.clear(); // reset the all words cache so rebuild will
-									// be triggered
-		}
 		additionalWordsCache.add(word.trim());
 	}
 
@@ -55,12 +55,84 @@ public class SimpleWordCodeCompletion {
 	 * @return proposals, never <code>null</code>
 	 */
 	public Set<String> calculate(String source, int offset) {
-		rebuildCacheIfNecessary(source);
-		if (offset == 0) {
-			return unmodifiableSet(allWordsCache);
+		return calculate(getIndex(source), source, offset);
+	}
+
+	/**
+	 * Calculates the resulting proposals for given offset by given word index -
+	 * e.g. an index kept up to date by a {@link SimpleWordLineIndexer}. Additional
+	 * words and word list builder are not used.
+	 * 
+	 * @param index
+	 * @param source
+	 * @param offset
+	 * @return proposals, never <code>null</code>
+	 */
+	public Set<String> calculate(SimpleWordIndex index, String source, int offset) {
+		return calculate(index, null, source, offset);
+	}
+
+	/**
+	 * Calculates the resulting proposals for given offset by given word index and
+	 * an immutable index - e.g. a shared keyword index. Words of both indexes are
+	 * merged at query time, so none of the indexes is changed.
+	 * 
+	 * @param index          index of document words
+	 * @param immutableIndex additional index, can be <code>null</code>
+	 * @param source
+	 * @param offset
+	 * @return proposals, never <code>null</code>
+	 */
+	public Set<String> calculate(SimpleWordIndex index, SortedWordIndex immutableIndex, String source, int offset) {
+		String wanted = offset == 0 ? "" : getTextbefore(source, offset);
+		if (immutableIndex == null) {
+			return index.filter(wanted);
+		}
+		if (wanted.isEmpty()) {
+			LinkedHashSet<String> all = new LinkedHashSet<>();
+			mergeSorted(new ArrayList<>(index.getWords()), new ArrayList<>(immutableIndex.getWords()), all);
+			return all;
+		}
+		String wantedLowerCase = wanted.toLowerCase();
+		List<String> startingWithWanted = new ArrayList<>();
+		List<String> containingWanted = new ArrayList<>();
+		index.collect(wantedLowerCase, startingWithWanted, containingWanted);
+
+		List<String> immutableStartingWithWanted = new ArrayList<>();
+		List<String> immutableContainingWanted = new ArrayList<>();
+		immutableIndex.collect(wantedLowerCase, immutableStartingWithWanted, immutableContainingWanted);
+
+		LinkedHashSet<String> filtered = new LinkedHashSet<>();
+		mergeSorted(startingWithWanted, immutableStartingWithWanted, filtered);
+		mergeSorted(containingWanted, immutableContainingWanted, filtered);
+		/* remove wanted itself */
+		filtered.remove(wanted);
+		return filtered;
+	}
+
+	/**
+	 * Adds words of both sorted lists to target, so target gets natural order
+	 */
+	private void mergeSorted(List<String> sorted1, List<String> sorted2, Collection<String> target) {
+		int index1 = 0;
+		int index2 = 0;
+		while (index1 < sorted1.size() && index2 < sorted2.size()) {
+			String word1 = sorted1.get(index1);
+			String word2 = sorted2.get(index2);
+			int compared = word1.compareTo(word2);
+			if (compared <= 0) {
+				target.add(word1);
+				index1++;
+				if (compared == 0) {
+					index2++;
+				}
+			} else {
+				target.add(word2);
+				index2++;
+			}
 		}
-		String wanted = getTextbefore(source, offset);
-		return filter(allWordsCache, wanted);
+		target.addAll(sorted1.subList(index1, sorted1.size()));
+		target.addAll(sorted2.subList(index2, sorted2.size()));
 	}
 
 	/**
@@ -81,30 +153,20 @@ public class SimpleWordCodeCompletion {
 		if (offset > sourceLength) {
 			return "";
 		}
-		StringBuilder sb = new StringBuilder();
-		int current = offset - 1; // -1 because we want the char before
-		boolean ongoing = false;
-		do {
-			if (current < 0) {
-				break;
-			}
-			char c = source.charAt(current--);
-			ongoing = !Character.isWhitespace(c);
-			if (ongoing) {
-				sb.insert(0, c);
-			}
-		} while (ongoing);
-
-		return sb.toString();
+		int start = offset;
+		while (start > 0 && !Character.isWhitespace(source.charAt(start - 1))) {
+			start--;
+		}
+		return source.substring(start, offset);
 	}
 
 	/**
-	 * Reset allWordsCache
+	 * Reset additional words. The word index is kept and reused when next
+	 * calculation is done for same source and same words.
 	 * 
 	 * @return completion
 	 */
 	public SimpleWordCodeCompletion reset() {
-		allWordsCache.clear();
 		additionalWordsCache.clear();
 		return this;
 	}
@@ -113,31 +175,26 @@ public class SimpleWordCodeCompletion {
 		if (wanted == null || wanted.isEmpty()) {
 			return allWords;
 		}
-		LinkedHashSet<String> filtered = new LinkedHashSet<>();
-		LinkedHashSet<String> addAfterEnd = new LinkedHashSet<>();
-		String wantedLowerCase = wanted.toLowerCase();
-
-		for (String word : allWords) {
-			String wordLowerCase = word.toLowerCase();
-			if (wordLowerCase.startsWith(wantedLowerCase)) {
-				filtered.add(word);
-			} else if (wordLowerCase.indexOf(wantedLowerCase) != -1) {
-				addAfterEnd.add(word);
-			}
-		}
-		filtered.addAll(addAfterEnd);
-		/* remove wanted itself */
-		filtered.remove(wanted);
-		return filtered;
+		return new SimpleWordIndex(allWords).filter(wanted);
 	}
 
-	private void rebuildCacheIfNecessary(String source) {
-		if (allWordsCache.isEmpty()) {
-			allWordsCache.addAll(additionalWordsCache);
-			allWordsCache.addAll(getWordListBuilder().build(source));
-			// we do not want the empty String
-			allWordsCache.remove("");
+	private SimpleWordIndex getIndex(String source) {
+		WordListBuilder builder = getWordListBuilder();
+		boolean reusable = index != null;
+		reusable = reusable && builder == indexedWordListBuilder;
+		reusable = reusable && additionalWordsCache.equals(indexedAdditionalWords);
+		reusable = reusable && SimpleStringUtils.equals(source, indexedSource);
+		if (reusable) {
+			return index;
 		}
+		List<String> words = new ArrayList<>(additionalWordsCache);
+		words.addAll(builder.build(source));
+
+		index = new SimpleWordIndex(words);
+		indexedSource = source;
+		indexedAdditionalWords = new HashSet<>(additionalWordsCache);
+		indexedWordListBuilder = builder;
+		return index;
 	}
 
 	public WordListBuilder getWordListBuilder() {
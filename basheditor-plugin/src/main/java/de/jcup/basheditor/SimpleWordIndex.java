@@ -0,0 +1,309 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Index to find words containing a wanted text (case insensitive). For every
+ * word all lower cased n-grams (up to {@link #MAX_GRAM_LENGTH} characters) are
+ * indexed, so only words containing the rarest n-gram of the wanted text must
+ * be inspected. Words starting with the wanted text are returned first, then
+ * words only containing it - both in natural order.<br>
+ * <br>
+ * Words are reference counted: a word added multiple times is contained until
+ * it is removed the same amount of times. So the index can be updated
+ * incrementally. All methods are thread safe.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class SimpleWordIndex {
+
+	static final int MAX_GRAM_LENGTH = 3;
+
+	private static final int[] NO_IDS = new int[0];
+
+	private TreeSet<String> words = new TreeSet<>();
+	private Map<String, Integer> idByWord = new HashMap<>();
+	private List<String> wordById = new ArrayList<>();
+	private List<String> lowerCaseWordById = new ArrayList<>();
+	private List<Integer> referenceCountById = new ArrayList<>();
+	private IdList freeIds = new IdList();
+	/* gram key to ids of words containing the gram, ids are ascending */
+	private Map<Long, IdList> idsByGram = new HashMap<>();
+
+	/**
+	 * Creates an empty index
+	 */
+	public SimpleWordIndex() {
+	}
+
+	/**
+	 * Creates an index for given words
+	 * 
+	 * @param words words, <code>null</code> and empty words are ignored
+	 */
+	public SimpleWordIndex(Collection<String> words) {
+		for (String word : words) {
+			add(word);
+		}
+	}
+
+	/**
+	 * Adds given word or increases its reference count when already contained
+	 * 
+	 * @param word word, <code>null</code> or empty words are ignored
+	 */
+	public synchronized void add(String word) {
+		if (word == null || word.isEmpty()) {
+			return;
+		}
+		Integer existingId = idByWord.get(word);
+		if (existingId != null) {
+			referenceCountById.set(existingId, referenceCountById.get(existingId) + 1);
+			return;
+		}
+		String lowerCase = word.toLowerCase();
+		int id;
+		if (freeIds.size > 0) {
+			id = freeIds.ids[--freeIds.size];
+			wordById.set(id, word);
+			lowerCaseWordById.set(id, lowerCase);
+			referenceCountById.set(id, 1);
+		} else {
+			id = wordById.size();
+			wordById.add(word);
+			lowerCaseWordById.add(lowerCase);
+			referenceCountById.add(1);
+		}
+		idByWord.put(word, id);
+		words.add(word);
+
+		int length = lowerCase.length();
+		for (int start = 0; start < length; start++) {
+			for (int gramLength = 1; gramLength <= MAX_GRAM_LENGTH && start + gramLength <= length; gramLength++) {
+				Long key = gramKey(lowerCase, start, gramLength);
+				IdList list = idsByGram.get(key);
+				if (list == null) {
+					list = new IdList();
+					idsByGram.put(key, list);
+				}
+				list.insert(id);
+			}
+		}
+	}
+
+	/**
+	 * Decreases reference count of given word - when zero the word is removed
+	 * 
+	 * @param word
+	 */
+	public synchronized void remove(String word) {
+		if (word == null) {
+			return;
+		}
+		Integer id = idByWord.get(word);
+		if (id == null) {
+			return;
+		}
+		int referenceCount = referenceCountById.get(id) - 1;
+		if (referenceCount > 0) {
+			referenceCountById.set(id, referenceCount);
+			return;
+		}
+		String lowerCase = lowerCaseWordById.get(id);
+		int length = lowerCase.length();
+		for (int start = 0; start < length; start++) {
+			for (int gramLength = 1; gramLength <= MAX_GRAM_LENGTH && start + gramLength <= length; gramLength++) {
+				Long key = gramKey(lowerCase, start, gramLength);
+				IdList list = idsByGram.get(key);
+				if (list == null) {
+					continue;
+				}
+				list.remove(id);
+				if (list.size == 0) {
+					idsByGram.remove(key);
+				}
+			}
+		}
+		idByWord.remove(word);
+		words.remove(word);
+		wordById.set(id, null);
+		lowerCaseWordById.set(id, null);
+		referenceCountById.set(id, 0);
+		freeIds.add(id);
+	}
+
+	/**
+	 * @param word
+	 * @return <code>true</code> when word is contained
+	 */
+	public synchronized boolean contains(String word) {
+		return idByWord.containsKey(word);
+	}
+
+	/**
+	 * @return all words of the index in natural order, never <code>null</code>
+	 */
+	public synchronized SortedSet<String> getWords() {
+		return Collections.unmodifiableSortedSet(new TreeSet<>(words));
+	}
+
+	/**
+	 * Filters words by wanted text (case insensitive). Words starting with wanted
+	 * text are returned first, afterwards words containing it. The wanted text
+	 * itself is never part of the result.
+	 * 
+	 * @param wanted
+	 * @return filtered words, when wanted is <code>null</code> or empty all words
+	 */
+	public Set<String> filter(String wanted) {
+		if (wanted == null || wanted.isEmpty()) {
+			return getWords();
+		}
+		List<String> startingWithWanted = new ArrayList<>();
+		List<String> containingWanted = new ArrayList<>();
+		collect(wanted.toLowerCase(), startingWithWanted, containingWanted);
+
+		LinkedHashSet<String> filtered = new LinkedHashSet<>(startingWithWanted);
+		filtered.addAll(containingWanted);
+		/* remove wanted itself */
+		filtered.remove(wanted);
+		return filtered;
+	}
+
+	/**
+	 * Collects words matching wanted text, both lists are sorted in natural order
+	 * afterwards
+	 * 
+	 * @param wantedLowerCase   lower cased wanted text, not empty
+	 * @param startingWithWanted target for words starting with wanted text
+	 * @param containingWanted   target for words only containing wanted text
+	 */
+	void collect(String wantedLowerCase, List<String> startingWithWanted, List<String> containingWanted) {
+		synchronized (this) {
+			IdList candidates = findCandidates(wantedLowerCase);
+			for (int i = 0; i < candidates.size; i++) {
+				int id = candidates.ids[i];
+				String wordLowerCase = lowerCaseWordById.get(id);
+				if (wordLowerCase.startsWith(wantedLowerCase)) {
+					startingWithWanted.add(wordById.get(id));
+				} else if (wordLowerCase.indexOf(wantedLowerCase) != -1) {
+					containingWanted.add(wordById.get(id));
+				}
+			}
+		}
+		Collections.sort(startingWithWanted);
+		Collections.sort(containingWanted);
+	}
+
+	/**
+	 * Find ids of all words which could contain wanted text - the rarest gram of
+	 * the wanted text is used
+	 */
+	private IdList findCandidates(String wantedLowerCase) {
+		int length = wantedLowerCase.length();
+		if (length <= MAX_GRAM_LENGTH) {
+			return getIds(gramKey(wantedLowerCase, 0, length));
+		}
+		IdList candidates = null;
+		for (int start = 0; start + MAX_GRAM_LENGTH <= length; start++) {
+			IdList ids = getIds(gramKey(wantedLowerCase, start, MAX_GRAM_LENGTH));
+			if (candidates == null || ids.size < candidates.size) {
+				candidates = ids;
+			}
+			if (candidates.size == 0) {
+				break;
+			}
+		}
+		return candidates;
+	}
+
+	private IdList getIds(Long gramKey) {
+		IdList ids = idsByGram.get(gramKey);
+		if (ids == null) {
+			return IdList.EMPTY;
+		}
+		return ids;
+	}
+
+	private static Long gramKey(String text, int start, int gramLength) {
+		long key = gramLength;
+		for (int i = 0; i < gramLength; i++) {
+			key = (key << 16) | text.charAt(start + i);
+		}
+		return Long.valueOf(key);
+	}
+
+	/**
+	 * Sorted list of ids
+	 */
+	private static class IdList {
+		private static final IdList EMPTY = new IdList();
+
+		private int[] ids = NO_IDS;
+		private int size;
+
+		private void add(int id) {
+			ensureCapacity();
+			ids[size++] = id;
+		}
+
+		private void insert(int id) {
+			if (size > 0 && ids[size - 1] < id) {
+				/* common case - new word has biggest id */
+				add(id);
+				return;
+			}
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index >= 0) {
+				/* gram found multiple times inside same word */
+				return;
+			}
+			int insertionPoint = -index - 1;
+			ensureCapacity();
+			System.arraycopy(ids, insertionPoint, ids, insertionPoint + 1, size - insertionPoint);
+			ids[insertionPoint] = id;
+			size++;
+		}
+
+		private void remove(int id) {
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index < 0) {
+				return;
+			}
+			System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+			size--;
+		}
+
+		private void ensureCapacity() {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+			}
+		}
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Keeps a {@link SimpleWordIndex} up to date for a document. The words of
+ * every line are remembered, so on a document change only the changed lines
+ * must be scanned again: words of the replaced lines are removed from the
+ * index, words of the new lines are added. Because the index is reference
+ * counted a word stays inside the index as long as one line contains it.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class SimpleWordLineIndexer {
+
+	private static final String[] NO_WORDS = new String[0];
+
+	private SimpleWordIndex index;
+	private WordListBuilder wordListBuilder;
+	private List<String[]> wordsByLine = new ArrayList<>();
+	/* words of currently scanned line - every word only once */
+	private Set<String> lineWords = new LinkedHashSet<>();
+
+	/**
+	 * Creates a line indexer
+	 * 
+	 * @param index           index to update
+	 * @param wordListBuilder builder used to find words of a line
+	 */
+	public SimpleWordLineIndexer(SimpleWordIndex index, WordListBuilder wordListBuilder) {
+		this.index = index;
+		this.wordListBuilder = wordListBuilder;
+	}
+
+	/**
+	 * Removes all words of all lines from index and adds words of given source
+	 * 
+	 * @param source complete source, e.g. a document
+	 */
+	public void reset(CharSequence source) {
+		clear();
+		replaceLines(0, 0, source, 0, source.length());
+	}
+
+	/**
+	 * Removes all words added by this indexer from the index
+	 */
+	public void clear() {
+		for (String[] words : wordsByLine) {
+			removeFromIndex(words);
+		}
+		wordsByLine.clear();
+	}
+
+	/**
+	 * Replaces lines
+	 * 
+	 * @param firstLine        index of first replaced line
+	 * @param removedLineCount amount of lines replaced
+	 * @param source           source containing the new lines
+	 * @param start            start offset of first new line inside source
+	 * @param end              end offset of last new line inside source
+	 *                         (exclusive, without line delimiter). Lines are
+	 *                         separated by \n, \r\n or \r - so there is always
+	 *                         one more line than line delimiters.
+	 */
+	public void replaceLines(int firstLine, int removedLineCount, CharSequence source, int start, int end) {
+		if (firstLine < 0 || firstLine > wordsByLine.size()) {
+			throw new IllegalArgumentException("Illegal first line:" + firstLine + ", line count is:" + wordsByLine.size());
+		}
+		int removeEnd = Math.min(wordsByLine.size(), firstLine + removedLineCount);
+		List<String[]> removed = wordsByLine.subList(firstLine, removeEnd);
+
+		List<String[]> added = new ArrayList<>();
+		int lineStart = start;
+		for (int pos = start; pos < end; pos++) {
+			char c = source.charAt(pos);
+			if (c != '\n' && c != '\r') {
+				continue;
+			}
+			added.add(createWords(source, lineStart, pos));
+			if (c == '\r' && pos + 1 < end && source.charAt(pos + 1) == '\n') {
+				pos++;
+			}
+			lineStart = pos + 1;
+		}
+		added.add(createWords(source, lineStart, end));
+
+		/* add before remove, so words still existing are not removed from index at all */
+		for (String[] words : added) {
+			addToIndex(words);
+		}
+		for (String[] words : removed) {
+			removeFromIndex(words);
+		}
+		removed.clear();
+		wordsByLine.addAll(firstLine, added);
+	}
+
+	/**
+	 * @return amount of lines known by this indexer
+	 */
+	public int getLineCount() {
+		return wordsByLine.size();
+	}
+
+	private String[] createWords(CharSequence source, int start, int end) {
+		if (start >= end) {
+			return NO_WORDS;
+		}
+		lineWords.clear();
+		wordListBuilder.addWords(source, start, end, lineWords);
+		if (lineWords.isEmpty()) {
+			return NO_WORDS;
+		}
+		return lineWords.toArray(new String[lineWords.size()]);
+	}
+
+	private void addToIndex(String[] words) {
+		for (String word : words) {
+			index.add(word);
+		}
+	}
+
+	private void removeFromIndex(String[] words) {
+		for (String word : words) {
+			index.remove(word);
+		}
+	}
+}
@@ -16,11 +16,16 @@
 package de.jcup.basheditor;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
 /**
- * This builder build words from a given source. 
+ * Builds word lists by a single pass scanner - no regular expressions and no
+ * intermediate arrays are used. Words are separated by whitespaces and
+ * <code>,;:.!()?=</code>. A leading <code>#</code> and quotes at start or end
+ * of a word are removed.
+ * 
  * @author albert
  *
  */
@@ -34,53 +39,74 @@ public class SimpleWordListBuilder implements WordListBuilder {
 		if (source == null  || source.isEmpty()) {
 			return Collections.emptyList();
 		}
-		String[] allWords = source.split("[\\s,;:.!()\\?=]");
 		List<String> list = new ArrayList<>();
-		for (String word: allWords){
-			String transformed = transformIfNecessary(word);
-			if (transformed!=null && ! transformed.isEmpty()){
-				list.add(transformed);
-			}
-		}
+		addWords(source, 0, source.length(), list);
 		return list;
 	}
 
-	private String transformIfNecessary(String word) {
-		if (word==null) {
-			return null;
+	@Override
+	public void addWords(CharSequence source, int start, int end, Collection<String> words) {
+		int wordStart = -1;
+		for (int pos = start; pos < end; pos++) {
+			if (!isSeparator(source.charAt(pos))) {
+				if (wordStart == -1) {
+					wordStart = pos;
+				}
+				continue;
+			}
+			if (wordStart != -1) {
+				addTransformedWord(source, wordStart, pos, words);
+				wordStart = -1;
+			}
 		}
-		if (word.isEmpty()){
-			return null;
+		if (wordStart != -1) {
+			addTransformedWord(source, wordStart, end, words);
 		}
-		
-		String transformed=word;
-		/* start*/
-		if (transformed.startsWith("#")){
-			transformed = dropFirstChar(transformed);
+	}
+
+	private void addTransformedWord(CharSequence source, int start, int end, Collection<String> words) {
+		/* start */
+		if (start < end && source.charAt(start) == '#') {
+			start++;
 		}
-		if (transformed.startsWith("'")){
-			transformed = dropFirstChar(transformed);
+		if (start < end && source.charAt(start) == '\'') {
+			start++;
 		}
-		if (transformed.startsWith("\"")){
-			transformed = dropFirstChar(transformed);
+		if (start < end && source.charAt(start) == '"') {
+			start++;
 		}
-		
 		/* end */
-		if (transformed.endsWith("'")){
-			transformed=dropLastChar(transformed);
+		if (start < end && source.charAt(end - 1) == '\'') {
+			end--;
 		}
-		if (transformed.endsWith("\"")){
-			transformed=dropLastChar(transformed);
+		if (start < end && source.charAt(end - 1) == '"') {
+			end--;
+		}
+		if (start < end) {
+			words.add(source.subSequence(start, end).toString());
 		}
-		return transformed;
-	}
-
-	private String dropLastChar(String transformed) {
-		return transformed.substring(0,transformed.length()-1);
 	}
 
-	private String dropFirstChar(String transformed) {
-		transformed=transformed.substring(1);
-		return transformed;
+	private boolean isSeparator(char c) {
+		switch (c) {
+		case ' ':
+		case '\t':
+		case '\n':
+		case '\u000B':
+		case '\f':
+		case '\r':
+		case ',':
+		case ';':
+		case ':':
+		case '.':
+		case '!':
+		case '(':
+		case ')':
+		case '?':
+		case '=':
+			return true;
+		default:
+			return false;
+		}
 	}
 }
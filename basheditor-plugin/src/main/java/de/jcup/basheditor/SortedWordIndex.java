@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Immutable index of words - e.g. all bash keywords. Words are sorted and
+ * lower cased once on creation, so filtering needs no sorting at all and the
+ * index can be shared by all editors.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class SortedWordIndex {
+
+	private final String[] words;
+	private final String[] lowerCaseWords;
+	private final SortedSet<String> wordSet;
+
+	/**
+	 * Creates index for given words
+	 * 
+	 * @param words words, <code>null</code> and empty words are ignored, all
+	 *              others are trimmed
+	 */
+	public SortedWordIndex(Collection<String> words) {
+		TreeSet<String> sorted = new TreeSet<>();
+		if (words != null) {
+			for (String word : words) {
+				if (word == null) {
+					continue;
+				}
+				String trimmed = word.trim();
+				if (!trimmed.isEmpty()) {
+					sorted.add(trimmed);
+				}
+			}
+		}
+		this.wordSet = Collections.unmodifiableSortedSet(sorted);
+		this.words = sorted.toArray(new String[sorted.size()]);
+		this.lowerCaseWords = new String[this.words.length];
+		for (int i = 0; i < this.words.length; i++) {
+			lowerCaseWords[i] = this.words[i].toLowerCase();
+		}
+	}
+
+	/**
+	 * @return all words in natural order, unmodifiable
+	 */
+	public SortedSet<String> getWords() {
+		return wordSet;
+	}
+
+	/**
+	 * Filters words by wanted text (case insensitive). Words starting with wanted
+	 * text are returned first, afterwards words containing it. The wanted text
+	 * itself is never part of the result.
+	 * 
+	 * @param wanted
+	 * @return filtered words, when wanted is <code>null</code> or empty all words
+	 */
+	public Set<String> filter(String wanted) {
+		if (wanted == null || wanted.isEmpty()) {
+			return wordSet;
+		}
+		List<String> startingWithWanted = new ArrayList<>();
+		List<String> containingWanted = new ArrayList<>();
+		collect(wanted.toLowerCase(), startingWithWanted, containingWanted);
+
+		LinkedHashSet<String> filtered = new LinkedHashSet<>(startingWithWanted);
+		filtered.addAll(containingWanted);
+		filtered.remove(wanted);
+		return filtered;
+	}
+
+	/**
+	 * Collects words matching wanted text, both lists are in natural order
+	 * afterwards
+	 * 
+	 * @param wantedLowerCase    lower cased wanted text, not empty
+	 * @param startingWithWanted target for words starting with wanted text
+	 * @param containingWanted   target for words only containing wanted text
+	 */
+	void collect(String wantedLowerCase, List<String> startingWithWanted, List<String> containingWanted) {
+		for (int i = 0; i < words.length; i++) {
+			String wordLowerCase = lowerCaseWords[i];
+			if (wordLowerCase.startsWith(wantedLowerCase)) {
+				startingWithWanted.add(words[i]);
+			} else if (wordLowerCase.indexOf(wantedLowerCase) != -1) {
+				containingWanted.add(words[i]);
+			}
+		}
+	}
+}
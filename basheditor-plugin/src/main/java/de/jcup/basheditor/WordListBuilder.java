@@ -15,6 +15,7 @@
  */
 package de.jcup.basheditor;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface WordListBuilder {
@@ -27,4 +28,17 @@ public interface WordListBuilder {
 	 */
 	List<String> build(String source);
 
+	/**
+	 * Adds words found inside given part of source to given collection - e.g. a
+	 * set, so words are only added once
+	 * 
+	 * @param source source, e.g. a document
+	 * @param start  start offset (inclusive)
+	 * @param end    end offset (exclusive)
+	 * @param words  collection where found words are added
+	 */
+	default void addWords(CharSequence source, int start, int end, Collection<String> words) {
+		words.addAll(build(source.subSequence(start, end).toString()));
+	}
+
 }
\ No newline at end of file
@@ -18,11 +18,18 @@ package de.jcup.basheditor.debug;
 import java.util.ArrayList;
 
 
+/**
+ * Data of a bash variable. Arrays contain their values and the keys - for
+ * indexed arrays the index, for associative arrays the key.
+ *
+ */
 public class BashNetworkVariableData implements Comparable<BashNetworkVariableData> {
 	private String name;
 	private String lowerCasedName;
 	private String value;
 	private ArrayList<String> arrayList;
+	private ArrayList<String> arrayKeys;
+	private boolean associative;
 
 	public BashNetworkVariableData(String variableName) {
 		if (variableName==null) {
@@ -34,7 +41,7 @@ public class BashNetworkVariableData implements Comparable<BashNetworkVariableDa
 	}
 
 	public String getStringValue(int index) {
-		if (index >= arrayList.size()) {
+		if (arrayList == null || index >= arrayList.size()) {
 			return "";
 		}
 		String s = arrayList.get(index);
@@ -42,7 +49,7 @@ public class BashNetworkVariableData implements Comparable<BashNetworkVariableDa
 	}
 
 	public int compareTo(BashNetworkVariableData o) {
-		return lowerCasedName.compareTo(o.name.toLowerCase());
+		return lowerCasedName.compareTo(o.lowerCasedName);
 	}
 
 	public int getIntValue(int index) {
@@ -78,11 +85,31 @@ public class BashNetworkVariableData implements Comparable<BashNetworkVariableDa
 		return arrayList.size();
 	}
 
+	/**
+	 * @param index
+	 * @return key of array element - index inside bash for indexed arrays, key
+	 *         for associative arrays
+	 */
+	public String getArrayKey(int index) {
+		if (arrayKeys == null || index >= arrayKeys.size()) {
+			return String.valueOf(index);
+		}
+		return arrayKeys.get(index);
+	}
+
+	/**
+	 * @return <code>true</code> when this is an associative array
+	 */
+	public boolean isAssociative() {
+		return associative;
+	}
+
 	public void removeFromArray(int index) {
 		if (arrayList==null) {
 			return;
 		}
 		arrayList.remove(index);
+		arrayKeys.remove(index);
 	}
 
 	public void setValue(String value) {
@@ -91,12 +118,23 @@ public class BashNetworkVariableData implements Comparable<BashNetworkVariableDa
 
 	public void defineAsArray() {
 		arrayList = new ArrayList<>();
+		arrayKeys = new ArrayList<>();
+	}
+
+	public void defineAsAssociativeArray() {
+		defineAsArray();
+		associative = true;
 	}
 
 	public void addArrayValue(String value) {
+		addArrayValue(String.valueOf(getArraySize()), value);
+	}
+
+	public void addArrayValue(String key, String value) {
 		if (!isArray()) {
 			defineAsArray();
 		}
+		arrayKeys.add(key);
 		arrayList.add(value);
 	}
 }
\ No newline at end of file
@@ -15,10 +15,40 @@
  */
 package de.jcup.basheditor.debug;
 
+import java.util.Collection;
+import java.util.regex.Pattern;
+
+/**
+ * Builds the bash code for remote debugging. The trap function installed by
+ * {@link #buildDebugBashCodeSnippet()} sends the stopped message and blocks on
+ * every command until eclipse sends the next command. After a resume command
+ * bash checks breakpoints and stop depth itself and contacts eclipse only when
+ * it must stop. While resumed, eclipse can send asynchronous commands (e.g.
+ * suspend or changed breakpoints), which are evaluated at next trap.<br>
+ * <br>
+ * Resume state is only a variable, so it does not survive a subshell (command
+ * substitution, pipe). Because every stop is announced, eclipse does not wait
+ * for a stop while a parent shell blocks after a subshell was resumed - it
+ * gets the stopped message from the parent and decides itself whether to
+ * resume it again.<br>
+ * <br>
+ * A stopped bash reports only its location. Variables are queried by eclipse
+ * only when needed - every query is evaluated without releasing bash.
+ *
+ */
 public class DebugBashCodeBuilder {
-	private static final String DEFAULT_FUNCTION_NAME_TRAP = "_________DEBUG_TRAP";
-	private static final String DEFAULT_DEBUG_COMMAND = "_________DEBUG_COMMAND";
-	
+	private static final String PREFIX = "_________DEBUG_";
+	private static final String DEFAULT_FUNCTION_NAME_TRAP = PREFIX + "TRAP";
+	private static final String DEFAULT_DEBUG_COMMAND = PREFIX + "COMMAND";
+	private static final String RESUMED = PREFIX + "RESUMED";
+	private static final String STOP_DEPTH = PREFIX + "STOP_DEPTH";
+	private static final String BREAKPOINTS = PREFIX + "BREAKPOINTS";
+	private static final String STOPPED_MESSAGE = PREFIX + "STOPPED";
+	private static final String END_OF_RESPONSE_MESSAGE = PREFIX + "END";
+	private static final Pattern VARIABLE_NAME_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+	/* no operation command marking asynchronous commands and queries */
+	private static final String ASYNC_MARKER = ":;";
+
 	final String nameOfTrapFunction = DEFAULT_FUNCTION_NAME_TRAP;
 	final String nameOfDebugCommand = DEFAULT_DEBUG_COMMAND;
 
@@ -46,6 +76,31 @@ public class DebugBashCodeBuilder {
 	public String getNameOfBashSourceVariable() {
 		return "BASH_SOURCE";
 	}
+
+	/**
+	 * @return message bash sends every time it stops and waits for a command
+	 */
+	public String getStoppedMessage() {
+		return STOPPED_MESSAGE;
+	}
+
+	/**
+	 * @return line bash sends after response of a query
+	 */
+	public String getEndOfResponseMessage() {
+		return END_OF_RESPONSE_MESSAGE;
+	}
+
+	/**
+	 * @param variableName
+	 * @return <code>true</code> when variable is defined by debug code
+	 */
+	public boolean isDebugVariable(String variableName) {
+		if (variableName == null) {
+			return false;
+		}
+		return variableName.startsWith(PREFIX);
+	}
 	
 	public void setFileDescriptor(int fileDescriptor) {
 		this.fileDescriptor = fileDescriptor;
@@ -57,9 +112,27 @@ public class DebugBashCodeBuilder {
 		sb.append("function " + nameOfTrapFunction + "()\n");
 		sb.append("{\n");
 		sb.append("	local " + nameOfDebugCommand + "\n");
+		sb.append("	if (( " + RESUMED + " )); then\n");
+		sb.append("		while read -t 0 -u " + fileDescriptor + "; do\n");
+		sb.append("			read -u " + fileDescriptor + " " + nameOfDebugCommand + "\n");
+		sb.append("			eval \"$" + nameOfDebugCommand + "\"\n");
+		sb.append("		done\n");
+		sb.append("		if (( " + RESUMED + " && ${#BASH_LINENO[@]} != " + STOP_DEPTH + " )) && [[ $" + BREAKPOINTS + " != *\"|${BASH_SOURCE[1]}:${BASH_LINENO[0]}|\"* ]]; then\n");
+		sb.append("			return\n");
+		sb.append("		fi\n");
+		sb.append("		" + RESUMED + "=0\n");
+		sb.append("	fi\n");
+		sb.append("	echo " + STOPPED_MESSAGE + " >&" + fileDescriptor + "\n");
 		sb.append("	read -u " + fileDescriptor + " " + nameOfDebugCommand + "\n");
-		sb.append("	eval $" + nameOfDebugCommand + "\n");
+		sb.append("	while [[ $" + nameOfDebugCommand + " == \"" + ASYNC_MARKER + "\"* ]]; do\n");
+		sb.append("		eval \"$" + nameOfDebugCommand + "\"\n");
+		sb.append("		read -u " + fileDescriptor + " " + nameOfDebugCommand + "\n");
+		sb.append("	done\n");
+		sb.append("	eval \"$" + nameOfDebugCommand + "\"\n");
 		sb.append("}\n");
+		sb.append(RESUMED + "=0\n");
+		sb.append(STOP_DEPTH + "=-1\n");
+		sb.append(BREAKPOINTS + "=\n");
 		sb.append("set -o functrace\n");
 		sb.append("trap " + nameOfTrapFunction + " DEBUG\n");
 
@@ -67,32 +140,111 @@ public class DebugBashCodeBuilder {
 
 	}
 
+	/**
+	 * Builds query for location of stopped bash - contains only line numbers,
+	 * function names and sources of the call stack
+	 * 
+	 * @return command
+	 */
 	public String buildRemoteDebugCommand() {
-		return "set >&" + fileDescriptor + " ; echo $'\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x09' >&" + fileDescriptor + " ; read -u " + fileDescriptor + " "
-				+ getNameOfDebugCommand() + "\n";
+		return buildQueryCommand("declare -p " + getNameOfBashLineNumberVariable() + " " + getNameOfFunctionNameVariable() + " " + getNameOfBashSourceVariable() + " >&" + fileDescriptor + " 2>/dev/null");
 	}
 
-	public String buildSafeArrayValue(String text) {
-		if (text==null) {
-			return "";
-		}
-		if (text.startsWith("\"")) {
-			text=text.substring(1);
-		}
-		if (text.startsWith("(")) {
-			text=text.substring(1);
-		}
-		if (text.endsWith(")")) {
-			text= text.substring(0,text.length()-1);
+	/**
+	 * @return query for all variables of stopped bash
+	 */
+	public String buildVariablesQueryCommand() {
+		return buildQueryCommand("set >&" + fileDescriptor);
+	}
+
+	/**
+	 * Builds query for one variable of stopped bash
+	 * 
+	 * @param variableName name of variable, must be valid - see
+	 *                     {@link #isValidVariableName(String)}
+	 * @return command
+	 */
+	public String buildVariableQueryCommand(String variableName) {
+		if (!isValidVariableName(variableName)) {
+			throw new IllegalArgumentException("Not a valid variable name:" + variableName);
 		}
-		if (text.endsWith("\"")) {
-			text= text.substring(0,text.length()-1);
+		return buildQueryCommand("declare -p " + variableName + " >&" + fileDescriptor + " 2>/dev/null");
+	}
+
+	/**
+	 * @param variableName
+	 * @return <code>true</code> when given name is a valid bash variable name
+	 */
+	public boolean isValidVariableName(String variableName) {
+		if (variableName == null) {
+			return false;
 		}
-		return text;
+		return VARIABLE_NAME_PATTERN.matcher(variableName).matches();
 	}
 
-	public int getLinesOfDebugCode() {
-		return 10;
+	private String buildQueryCommand(String command) {
+		return ASYNC_MARKER + " " + command + " ; echo " + END_OF_RESPONSE_MESSAGE + " >&" + fileDescriptor + "\n";
 	}
-	
+
+	/**
+	 * Builds command to resume bash. Bash stops again (and sends stopped message)
+	 * when a breakpoint is reached or stack depth is same as given one.
+	 * 
+	 * @param breakpointLocations locations built by
+	 *                            {@link #buildBreakpointLocation(String, int)}
+	 * @param stopDepth           amount of entries inside BASH_LINENO where to
+	 *                            stop, -1 when not stopping on a depth
+	 * @return command
+	 */
+	public String buildResumeCommand(Collection<String> breakpointLocations, int stopDepth) {
+		return buildBreakpointsAssignment(breakpointLocations) + " ; " + STOP_DEPTH + "=" + stopDepth + " ; " + RESUMED + "=1\n";
+	}
+
+	/**
+	 * Builds asynchronous command to change breakpoints of a resumed bash
+	 * 
+	 * @param breakpointLocations locations built by
+	 *                            {@link #buildBreakpointLocation(String, int)}
+	 * @return command
+	 */
+	public String buildBreakpointsChangedCommand(Collection<String> breakpointLocations) {
+		return ASYNC_MARKER + " " + buildBreakpointsAssignment(breakpointLocations) + "\n";
+	}
+
+	/**
+	 * @return asynchronous command to suspend a resumed bash
+	 */
+	public String buildSuspendCommand() {
+		return ASYNC_MARKER + " " + RESUMED + "=0\n";
+	}
+
+	/**
+	 * @return asynchronous command to terminate a resumed bash
+	 */
+	public String buildTerminateCommand() {
+		return ASYNC_MARKER + " exit 0\n";
+	}
+
+	/**
+	 * Builds location of a breakpoint
+	 * 
+	 * @param source     source as defined inside BASH_SOURCE
+	 * @param lineNumber line number as defined inside BASH_LINENO
+	 * @return location
+	 */
+	public String buildBreakpointLocation(String source, int lineNumber) {
+		return source + ":" + lineNumber;
+	}
+
+	private String buildBreakpointsAssignment(Collection<String> breakpointLocations) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("|");
+		for (String location : breakpointLocations) {
+			sb.append(location).append("|");
+		}
+		/* single quoted, backslashes are doubled because read interprets them */
+		String quoted = sb.toString().replace("\\", "\\\\").replace("'", "'\\''");
+		return BREAKPOINTS + "='" + quoted + "'";
+	}
+
 }
@@ -47,7 +47,7 @@ public class DebugBashCodeToggleSupport {
     }
 
     private File resolveDebuggerFile() {
-        return new File(System.getProperty("user.home"), ".basheditor/remote-debugging-v1.sh");
+        return new File(System.getProperty("user.home"), ".basheditor/remote-debugging-v3.sh");
     }
 
     private String createSourceToInclude(File debuggerFile) {
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.debug;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads responses of remote debugged bash line by line from a channel. Data is
+ * read in blocks into a buffer, lines grow as needed - so there is no size
+ * limit for a response. A response ends with a terminator line, e.g. the end
+ * of response message of {@link DebugBashCodeBuilder}. The channel must be in
+ * blocking mode.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+public class DebugResponseReader {
+
+	static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private ReadableByteChannel channel;
+	private Charset charset;
+	private ByteBuffer buffer;
+	private byte[] line = new byte[1024];
+	private int lineLength;
+	private boolean endOfStream;
+
+	public DebugResponseReader(ReadableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE, Charset.defaultCharset());
+	}
+
+	DebugResponseReader(ReadableByteChannel channel, int bufferSize, Charset charset) {
+		this.channel = channel;
+		this.charset = charset;
+		this.buffer = ByteBuffer.allocate(bufferSize);
+		/* nothing read yet */
+		this.buffer.flip();
+	}
+
+	/**
+	 * Reads next line
+	 *
+	 * @return line without line feed or <code>null</code> when end of stream is
+	 *         reached. A last line without line feed is returned before.
+	 * @throws IOException
+	 */
+	public String readLine() throws IOException {
+		lineLength = 0;
+		while (true) {
+			if (!buffer.hasRemaining() && !fill()) {
+				if (lineLength == 0) {
+					return null;
+				}
+				return createLine();
+			}
+			byte[] data = buffer.array();
+			int start = buffer.position();
+			int end = buffer.limit();
+			for (int i = start; i < end; i++) {
+				if (data[i] == '\n') {
+					append(data, start, i - start);
+					buffer.position(i + 1);
+					return createLine();
+				}
+			}
+			append(data, start, end - start);
+			buffer.position(end);
+		}
+	}
+
+	/**
+	 * Reads lines until given terminator line is found
+	 *
+	 * @param terminator
+	 * @return lines before terminator line or <code>null</code> when end of
+	 *         stream was reached before
+	 * @throws IOException
+	 */
+	public List<String> readLinesUntil(String terminator) throws IOException {
+		List<String> lines = new ArrayList<>();
+		String next = null;
+		while ((next = readLine()) != null) {
+			if (next.equals(terminator)) {
+				return lines;
+			}
+			lines.add(next);
+		}
+		return null;
+	}
+
+	private boolean fill() throws IOException {
+		if (endOfStream) {
+			return false;
+		}
+		buffer.clear();
+		int read = 0;
+		while (read == 0) {
+			read = channel.read(buffer);
+		}
+		buffer.flip();
+		if (read == -1) {
+			endOfStream = true;
+			return false;
+		}
+		return true;
+	}
+
+	private void append(byte[] data, int offset, int length) {
+		if (lineLength + length > line.length) {
+			line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+		}
+		System.arraycopy(data, offset, line, lineLength, length);
+		lineLength += length;
+	}
+
+	private String createLine() {
+		return new String(line, 0, lineLength, charset);
+	}
+}
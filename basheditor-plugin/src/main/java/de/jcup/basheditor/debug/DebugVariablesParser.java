@@ -0,0 +1,480 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.debug;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Parses variables printed by bash "set" or "declare -p" in one pass. Every
+ * line is scanned character by character and values are written directly into
+ * {@link BashNetworkVariableData}. Supported are single, double and
+ * <code>$'...'</code> quoting, indexed and associative arrays and quoted values
+ * spanning multiple lines. Parsing ends at the first function definition,
+ * because "set" prints functions after all variables.<br>
+ * <br>
+ * The result is sorted - bash prints variables already sorted, so variables
+ * are normally only appended.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+public class DebugVariablesParser {
+
+	private static final String DECLARE = "declare ";
+
+	private DebugBashCodeBuilder builder;
+	private Charset charset;
+
+	private Iterator<String> lines;
+	private String line;
+	private int pos;
+	private StringBuilder sb = new StringBuilder();
+	/* definition of current array, collected over multiple lines */
+	private StringBuilder raw = new StringBuilder();
+	private int rawStart = -1;
+	/* bytes of octal and hex escapes, decoded together */
+	private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+	/**
+	 * @param builder builder used to identify variables of debug code - those are
+	 *                ignored
+	 */
+	public DebugVariablesParser(DebugBashCodeBuilder builder) {
+		this(builder, Charset.defaultCharset());
+	}
+
+	DebugVariablesParser(DebugBashCodeBuilder builder, Charset charset) {
+		this.builder = builder;
+		this.charset = charset;
+	}
+
+	/**
+	 * Parses given lines. Lines which cannot be parsed are ignored.
+	 *
+	 * @param lines lines printed by "set" or "declare -p"
+	 * @return variables sorted by name, never <code>null</code>
+	 */
+	public List<BashNetworkVariableData> parse(List<String> lines) {
+		List<BashNetworkVariableData> variables = new ArrayList<>();
+		this.lines = lines.iterator();
+		while (this.lines.hasNext()) {
+			line = this.lines.next();
+			pos = 0;
+			if (isFunctionDefinition()) {
+				break;
+			}
+			BashNetworkVariableData variable = parseVariable();
+			if (variable != null) {
+				addSorted(variables, variable);
+			}
+		}
+		this.lines = null;
+		this.line = null;
+		return variables;
+	}
+
+	private BashNetworkVariableData parseVariable() {
+		boolean array = false;
+		boolean associative = false;
+		if (line.startsWith(DECLARE)) {
+			/* e.g. "declare -a ", "declare -- ", "declare -Ax " */
+			pos = DECLARE.length();
+			if (!has('-')) {
+				return null;
+			}
+			while (pos < line.length() && line.charAt(pos) != ' ') {
+				char c = line.charAt(pos++);
+				if (c == 'a') {
+					array = true;
+				} else if (c == 'A') {
+					associative = true;
+				}
+			}
+			pos++;
+		}
+		int nameStart = pos;
+		if (pos >= line.length() || !isNameStart(line.charAt(pos))) {
+			return null;
+		}
+		while (pos < line.length() && isNamePart(line.charAt(pos))) {
+			pos++;
+		}
+		int nameEnd = pos;
+		if (!has('=')) {
+			/* declared but not set, or no variable at all */
+			return null;
+		}
+		String name = line.substring(nameStart, nameEnd);
+		if (name.equals("_") || builder.isDebugVariable(name)) {
+			return null;
+		}
+		pos++;
+		if (has('(')) {
+			return parseArray(name, associative);
+		}
+		String value = parseWord(false);
+		if (value == null) {
+			return null;
+		}
+		if ((array || associative) && value.startsWith("(")) {
+			/* older bash versions print arrays single quoted */
+			line = value;
+			pos = 0;
+			return parseArray(name, associative);
+		}
+		BashNetworkVariableData variable = new BashNetworkVariableData(name);
+		variable.setValue(value);
+		return variable;
+	}
+
+	/**
+	 * Parses array starting at current opening bracket. Value of the variable is
+	 * the array definition as printed by bash.
+	 */
+	private BashNetworkVariableData parseArray(String name, boolean associative) {
+		BashNetworkVariableData variable = new BashNetworkVariableData(name);
+		if (associative) {
+			variable.defineAsAssociativeArray();
+		} else {
+			variable.defineAsArray();
+		}
+		raw.setLength(0);
+		rawStart = pos;
+		pos++;
+		boolean closed = parseArrayElements(variable);
+		String definition = raw.append(line, rawStart, pos).toString();
+		rawStart = -1;
+		if (!closed) {
+			return null;
+		}
+		variable.setValue(definition);
+		return variable;
+	}
+
+	/**
+	 * Parses elements like <code>[0]="a" [1]=$'b\nc')</code> until closing
+	 * bracket
+	 *
+	 * @return <code>true</code> when closing bracket was found
+	 */
+	private boolean parseArrayElements(BashNetworkVariableData variable) {
+		while (true) {
+			skipSpaces();
+			if (pos >= line.length()) {
+				/* quoted values can contain new lines, but elements are not separated by them */
+				return false;
+			}
+			if (has(')')) {
+				pos++;
+				return true;
+			}
+			if (!has('[')) {
+				return false;
+			}
+			pos++;
+			String key = parseWord(true);
+			if (key == null || !has(']')) {
+				return false;
+			}
+			pos++;
+			if (!has('=')) {
+				return false;
+			}
+			pos++;
+			String value = parseWord(true);
+			if (value == null) {
+				return false;
+			}
+			variable.addArrayValue(key, value);
+		}
+	}
+
+	/**
+	 * Parses a shell word - unquoted parts and quoted parts are concatenated
+	 *
+	 * @param insideArray when <code>true</code> word ends also at brackets
+	 * @return word or <code>null</code> when a quote is not closed
+	 */
+	private String parseWord(boolean insideArray) {
+		sb.setLength(0);
+		while (pos < line.length()) {
+			char c = line.charAt(pos);
+			if (c == ' ' || c == '\t') {
+				break;
+			}
+			if (insideArray && (c == ']' || c == ')')) {
+				break;
+			}
+			if (c == '\'') {
+				pos++;
+				if (!parseSingleQuoted()) {
+					return null;
+				}
+			} else if (c == '"') {
+				pos++;
+				if (!parseDoubleQuoted()) {
+					return null;
+				}
+			} else if (c == '$' && pos + 1 < line.length() && line.charAt(pos + 1) == '\'') {
+				pos += 2;
+				if (!parseAnsiCQuoted()) {
+					return null;
+				}
+			} else if (c == '\\' && pos + 1 < line.length()) {
+				sb.append(line.charAt(pos + 1));
+				pos += 2;
+			} else {
+				sb.append(c);
+				pos++;
+			}
+		}
+		return sb.toString();
+	}
+
+	private boolean parseSingleQuoted() {
+		while (true) {
+			if (pos >= line.length()) {
+				if (!nextLine()) {
+					return false;
+				}
+				continue;
+			}
+			char c = line.charAt(pos++);
+			if (c == '\'') {
+				return true;
+			}
+			sb.append(c);
+		}
+	}
+
+	private boolean parseDoubleQuoted() {
+		while (true) {
+			if (pos >= line.length()) {
+				if (!nextLine()) {
+					return false;
+				}
+				continue;
+			}
+			char c = line.charAt(pos++);
+			if (c == '"') {
+				return true;
+			}
+			if (c == '\\' && pos < line.length()) {
+				char escaped = line.charAt(pos);
+				if (escaped == '"' || escaped == '\\' || escaped == '$' || escaped == '`') {
+					sb.append(escaped);
+					pos++;
+					continue;
+				}
+			}
+			sb.append(c);
+		}
+	}
+
+	private boolean parseAnsiCQuoted() {
+		while (true) {
+			if (pos >= line.length()) {
+				flushBytes();
+				if (!nextLine()) {
+					return false;
+				}
+				continue;
+			}
+			char c = line.charAt(pos++);
+			if (c == '\\' && pos < line.length()) {
+				char escaped = line.charAt(pos);
+				if ((escaped >= '0' && escaped <= '7') || (escaped == 'x' && pos + 1 < line.length() && Character.digit(line.charAt(pos + 1), 16) != -1)) {
+					/* e.g. non ascii characters in C locale: \303\244 */
+					bytes.write(parseByte());
+					continue;
+				}
+			}
+			flushBytes();
+			if (c == '\'') {
+				return true;
+			}
+			if (c != '\\' || pos >= line.length()) {
+				sb.append(c);
+				continue;
+			}
+			char escaped = line.charAt(pos++);
+			switch (escaped) {
+			case 'n':
+				sb.append('\n');
+				break;
+			case 't':
+				sb.append('\t');
+				break;
+			case 'r':
+				sb.append('\r');
+				break;
+			case 'a':
+				sb.append('\u0007');
+				break;
+			case 'b':
+				sb.append('\b');
+				break;
+			case 'e':
+			case 'E':
+				sb.append('\u001b');
+				break;
+			case 'f':
+				sb.append('\f');
+				break;
+			case 'v':
+				sb.append('\u000b');
+				break;
+			case 'c':
+				if (pos < line.length()) {
+					sb.append((char) (line.charAt(pos++) & 0x1f));
+				}
+				break;
+			case 'u':
+				appendCodePoint(escaped, 4);
+				break;
+			case 'U':
+				appendCodePoint(escaped, 8);
+				break;
+			default:
+				/* \\ \' \" \? and unknown escapes */
+				sb.append(escaped);
+			}
+		}
+	}
+
+	/**
+	 * Parses octal escape with up to three digits or hex escape with up to two
+	 * digits, position is at first character after backslash
+	 */
+	private int parseByte() {
+		int radix = 8;
+		int maxDigits = 3;
+		if (line.charAt(pos) == 'x') {
+			radix = 16;
+			maxDigits = 2;
+			pos++;
+		}
+		int value = 0;
+		for (int digits = 0; digits < maxDigits && pos < line.length(); digits++) {
+			int digit = Character.digit(line.charAt(pos), radix);
+			if (digit == -1) {
+				break;
+			}
+			value = value * radix + digit;
+			pos++;
+		}
+		return value & 0xff;
+	}
+
+	private void flushBytes() {
+		if (bytes.size() == 0) {
+			return;
+		}
+		sb.append(new String(bytes.toByteArray(), charset));
+		bytes.reset();
+	}
+
+	private void appendCodePoint(char escaped, int maxDigits) {
+		int codePoint = 0;
+		int digits = 0;
+		while (digits < maxDigits && pos < line.length()) {
+			int digit = Character.digit(line.charAt(pos), 16);
+			if (digit == -1) {
+				break;
+			}
+			codePoint = codePoint * 16 + digit;
+			digits++;
+			pos++;
+		}
+		if (digits == 0) {
+			/* bash keeps escapes without digits */
+			sb.append('\\').append(escaped);
+			return;
+		}
+		if (Character.isValidCodePoint(codePoint)) {
+			sb.appendCodePoint(codePoint);
+		}
+	}
+
+	/**
+	 * Continues a quoted value at next line
+	 */
+	private boolean nextLine() {
+		if (!lines.hasNext()) {
+			return false;
+		}
+		if (rawStart != -1) {
+			raw.append(line, rawStart, line.length()).append('\n');
+			rawStart = 0;
+		}
+		sb.append('\n');
+		line = lines.next();
+		pos = 0;
+		return true;
+	}
+
+	private boolean isFunctionDefinition() {
+		/* e.g. "myFunction () " */
+		int index = line.indexOf(" ()");
+		if (index <= 0 || line.indexOf('=') != -1) {
+			return false;
+		}
+		for (int i = 0; i < index; i++) {
+			char c = line.charAt(i);
+			if (c == ' ' || c == '\t') {
+				return false;
+			}
+		}
+		return line.substring(index + 3).trim().isEmpty();
+	}
+
+	private void skipSpaces() {
+		while (pos < line.length() && line.charAt(pos) == ' ') {
+			pos++;
+		}
+	}
+
+	private boolean has(char c) {
+		return pos < line.length() && line.charAt(pos) == c;
+	}
+
+	private static boolean isNameStart(char c) {
+		return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isNamePart(char c) {
+		return c == '_' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+	}
+
+	private static void addSorted(List<BashNetworkVariableData> variables, BashNetworkVariableData variable) {
+		int size = variables.size();
+		if (size == 0 || variables.get(size - 1).compareTo(variable) <= 0) {
+			/* common case - bash prints variables sorted */
+			variables.add(variable);
+			return;
+		}
+		int index = Collections.binarySearch(variables, variable);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		variables.add(index, variable);
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.outline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Immutable index to find outline items by offset. The offsets of all items
+ * are split into segments not containing any item start or end. For every
+ * segment the item to show is computed once, so a lookup is only a binary
+ * search.<br>
+ * <br>
+ * When multiple items contain an offset, the result is the same as a linear
+ * search through the items would return: children are inspected before their
+ * parent, otherwise items are inspected in given order.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+public class ItemOffsetIndex {
+
+	private static final int[] NO_BOUNDS = new int[0];
+	private static final Item[] NO_ITEMS = new Item[0];
+
+	/* segment i is from bounds[i] (inclusive) to bounds[i+1] (exclusive) */
+	private int[] bounds = NO_BOUNDS;
+	private Item[] segmentItems = NO_ITEMS;
+
+	/**
+	 * Creates an index for given items (including all children)
+	 *
+	 * @param items items, other objects and <code>null</code> are ignored
+	 */
+	public ItemOffsetIndex(Object[] items) {
+		if (items == null) {
+			return;
+		}
+		List<Item> ranked = new ArrayList<>();
+		addInInspectionOrder(ranked, Arrays.asList(items));
+		if (ranked.isEmpty()) {
+			return;
+		}
+		build(ranked);
+	}
+
+	/**
+	 * Find item for given offset
+	 *
+	 * @param offset
+	 * @return item containing offset or <code>null</code>
+	 */
+	public Item find(int offset) {
+		int low = 0;
+		int high = bounds.length - 1;
+		int found = -1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (bounds[mid] <= offset) {
+				found = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		if (found == -1) {
+			return null;
+		}
+		return segmentItems[found];
+	}
+
+	private void addInInspectionOrder(List<Item> ranked, List<?> items) {
+		for (Object object : items) {
+			if (!(object instanceof Item)) {
+				continue;
+			}
+			Item item = (Item) object;
+			if (item.hasChildren()) {
+				addInInspectionOrder(ranked, item.getChildren());
+			}
+			if (item.getEndOffset() < item.getOffset()) {
+				/* can never be found */
+				continue;
+			}
+			ranked.add(item);
+		}
+	}
+
+	private void build(List<Item> ranked) {
+		int amount = ranked.size();
+		Integer[] byStart = new Integer[amount];
+		Integer[] byEnd = new Integer[amount];
+		int[] allBounds = new int[amount * 2];
+		for (int rank = 0; rank < amount; rank++) {
+			Item item = ranked.get(rank);
+			byStart[rank] = rank;
+			byEnd[rank] = rank;
+			allBounds[rank * 2] = item.getOffset();
+			allBounds[rank * 2 + 1] = exclusiveEnd(item);
+		}
+		Arrays.sort(byStart, Comparator.comparingInt(rank -> ranked.get(rank).getOffset()));
+		Arrays.sort(byEnd, Comparator.comparingInt(rank -> exclusiveEnd(ranked.get(rank))));
+		Arrays.sort(allBounds);
+
+		int distinct = 0;
+		for (int i = 0; i < allBounds.length; i++) {
+			if (i == 0 || allBounds[i] != allBounds[i - 1]) {
+				allBounds[distinct++] = allBounds[i];
+			}
+		}
+		bounds = Arrays.copyOf(allBounds, distinct);
+		segmentItems = new Item[distinct];
+
+		/* sweep over bounds, active ranks are the items containing the segment */
+		TreeSet<Integer> active = new TreeSet<>();
+		int startIndex = 0;
+		int endIndex = 0;
+		for (int i = 0; i < distinct; i++) {
+			int bound = bounds[i];
+			while (endIndex < amount && exclusiveEnd(ranked.get(byEnd[endIndex])) == bound) {
+				active.remove(byEnd[endIndex++]);
+			}
+			while (startIndex < amount && ranked.get(byStart[startIndex]).getOffset() == bound) {
+				active.add(byStart[startIndex++]);
+			}
+			if (!active.isEmpty()) {
+				segmentItems[i] = ranked.get(active.first());
+			}
+		}
+	}
+
+	private static int exclusiveEnd(Item item) {
+		return item.getEndOffset() + 1;
+	}
+}
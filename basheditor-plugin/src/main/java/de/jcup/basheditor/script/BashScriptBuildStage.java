@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script;
+
+/**
+ * Stages of building a bash script model and showing it inside the editor.
+ * Used for {@link BashScriptBuildStatistics}.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public enum BashScriptBuildStage {
+
+    /* model builder */
+    TOKENIZE("tokenize"),
+
+    VARIABLES("variables"),
+
+    FUNCTIONS("functions"),
+
+    VALIDATE("validate"),
+
+    BUILD("build (total)"),
+
+    /* editor */
+    REQUEST("editor request"),
+
+    OUTLINE("outline"),
+
+    MARKERS("markers"),
+
+    /* from editor request until outline and markers are updated */
+    REBUILD_OUTLINE("rebuild outline (total)");
+
+    private String label;
+
+    private BashScriptBuildStage(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Collects time and allocation data for every stage of building a script model
+ * and showing it inside the editor. For every stage and script size bucket the
+ * last samples are kept, so percentiles (p50, p99) can be reported. Allocated
+ * bytes are only measured when supported by the JVM and the stage was done
+ * inside one thread.<br>
+ * <br>
+ * All methods are thread safe.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class BashScriptBuildStatistics {
+
+    /**
+     * Amount of samples kept for every stage and size bucket
+     */
+    public static final int MAX_SAMPLES = 1024;
+
+    /**
+     * Value for unknown allocated bytes
+     */
+    public static final long UNKNOWN_BYTES = -1;
+
+    private static final int[] SIZE_BUCKET_LIMITS = new int[] { 10_000, 100_000, 1_000_000 };
+    private static final String[] SIZE_BUCKET_LABELS = new String[] { "<10K", "<100K", "<1M", ">=1M" };
+
+    private static final BashScriptBuildStatistics SHARED = new BashScriptBuildStatistics();
+    private static final AllocationCounter ALLOCATION_COUNTER = AllocationCounter.create();
+
+    private static final StageMeasurement NO_MEASUREMENT = new StageMeasurement(null, null, 0) {
+        @Override
+        public void done() {
+            /* nothing to do */
+        }
+    };
+
+    private Samples[][] samples = new Samples[BashScriptBuildStage.values().length][SIZE_BUCKET_LABELS.length];
+
+    /**
+     * @return statistics shared by all editors
+     */
+    public static BashScriptBuildStatistics getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Starts measurement of a stage. Call {@link StageMeasurement#done()} when
+     * stage has finished.
+     * 
+     * @param statistics   statistics to use, when <code>null</code> nothing is
+     *                     measured
+     * @param stage
+     * @param scriptLength length of script
+     * @return measurement, never <code>null</code>
+     */
+    public static StageMeasurement measure(BashScriptBuildStatistics statistics, BashScriptBuildStage stage, int scriptLength) {
+        if (statistics == null) {
+            return NO_MEASUREMENT;
+        }
+        return new StageMeasurement(statistics, stage, scriptLength);
+    }
+
+    /**
+     * Adds a sample
+     * 
+     * @param stage
+     * @param scriptLength
+     * @param nanos          time used in nanoseconds
+     * @param allocatedBytes allocated bytes or {@link #UNKNOWN_BYTES}
+     */
+    public void add(BashScriptBuildStage stage, int scriptLength, long nanos, long allocatedBytes) {
+        if (stage == null) {
+            return;
+        }
+        int bucket = getSizeBucket(scriptLength);
+        synchronized (samples) {
+            Samples found = samples[stage.ordinal()][bucket];
+            if (found == null) {
+                found = new Samples();
+                samples[stage.ordinal()][bucket] = found;
+            }
+            found.add(nanos, allocatedBytes);
+        }
+    }
+
+    /**
+     * Resolves percentile of time used by given stage for scripts of given size
+     * 
+     * @param stage
+     * @param scriptLength script length used to identify the size bucket
+     * @param percentile   percentile (1-100)
+     * @return time in nanoseconds or -1 when no samples available
+     */
+    public long getNanosPercentile(BashScriptBuildStage stage, int scriptLength, int percentile) {
+        synchronized (samples) {
+            Samples found = samples[stage.ordinal()][getSizeBucket(scriptLength)];
+            if (found == null) {
+                return -1;
+            }
+            return percentile(found.copyNanos(), percentile);
+        }
+    }
+
+    /**
+     * Resolves percentile of bytes allocated by given stage for scripts of given
+     * size
+     * 
+     * @param stage
+     * @param scriptLength script length used to identify the size bucket
+     * @param percentile   percentile (1-100)
+     * @return allocated bytes or {@link #UNKNOWN_BYTES} when not measured
+     */
+    public long getAllocatedBytesPercentile(BashScriptBuildStage stage, int scriptLength, int percentile) {
+        synchronized (samples) {
+            Samples found = samples[stage.ordinal()][getSizeBucket(scriptLength)];
+            if (found == null) {
+                return UNKNOWN_BYTES;
+            }
+            return percentile(found.copyKnownBytes(), percentile);
+        }
+    }
+
+    /**
+     * Removes all samples
+     */
+    public void clear() {
+        synchronized (samples) {
+            for (Samples[] bucketSamples : samples) {
+                Arrays.fill(bucketSamples, null);
+            }
+        }
+    }
+
+    /**
+     * Creates a report containing p50 and p99 of time and allocated bytes for
+     * every stage and size bucket having samples
+     * 
+     * @return report, never <code>null</code>
+     */
+    public String createReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Bash script build statistics (last ").append(MAX_SAMPLES).append(" samples per stage and script size in chars)\n");
+        sb.append(String.format(Locale.ROOT, "%-24s %6s %8s %10s %10s %10s %10s\n", "stage", "size", "count", "time p50", "time p99", "alloc p50", "alloc p99"));
+        synchronized (samples) {
+            for (BashScriptBuildStage stage : BashScriptBuildStage.values()) {
+                for (int bucket = 0; bucket < SIZE_BUCKET_LABELS.length; bucket++) {
+                    Samples found = samples[stage.ordinal()][bucket];
+                    if (found == null) {
+                        continue;
+                    }
+                    long[] nanos = found.copyNanos();
+                    long[] bytes = found.copyKnownBytes();
+                    /* @formatter:off*/
+                    sb.append(String.format(Locale.ROOT, "%-24s %6s %8d %10s %10s %10s %10s\n", 
+                            stage.getLabel(), 
+                            SIZE_BUCKET_LABELS[bucket], 
+                            found.count, 
+                            formatNanos(percentile(nanos, 50)),
+                            formatNanos(percentile(nanos, 99)), 
+                            formatBytes(percentile(bytes, 50)), 
+                            formatBytes(percentile(bytes, 99))));
+                    /* @formatter:on*/
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    static int getSizeBucket(int scriptLength) {
+        for (int i = 0; i < SIZE_BUCKET_LIMITS.length; i++) {
+            if (scriptLength < SIZE_BUCKET_LIMITS[i]) {
+                return i;
+            }
+        }
+        return SIZE_BUCKET_LIMITS.length;
+    }
+
+    /**
+     * Nearest rank percentile
+     * 
+     * @param values     values, will be sorted
+     * @param percentile
+     * @return percentile or -1 when no values available
+     */
+    static long percentile(long[] values, int percentile) {
+        if (values.length == 0) {
+            return -1;
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100.0 * values.length);
+        int index = Math.min(values.length - 1, Math.max(0, rank - 1));
+        return values[index];
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 0) {
+            return "-";
+        }
+        return String.format(Locale.ROOT, "%.2fms", nanos / 1_000_000.0);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 0) {
+            return "-";
+        }
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        return String.format(Locale.ROOT, "%.1fKB", bytes / 1024.0);
+    }
+
+    /**
+     * Measurement of one stage
+     */
+    public static class StageMeasurement {
+        private BashScriptBuildStatistics statistics;
+        private BashScriptBuildStage stage;
+        private int scriptLength;
+        private long threadId;
+        private long startNanos;
+        private long startBytes;
+
+        private StageMeasurement(BashScriptBuildStatistics statistics, BashScriptBuildStage stage, int scriptLength) {
+            this.statistics = statistics;
+            this.stage = stage;
+            this.scriptLength = scriptLength;
+            this.threadId = Thread.currentThread().getId();
+            this.startBytes = ALLOCATION_COUNTER.getAllocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Marks stage as done and adds sample to statistics
+         */
+        public void done() {
+            long nanos = System.nanoTime() - startNanos;
+            long allocatedBytes = UNKNOWN_BYTES;
+            if (startBytes != UNKNOWN_BYTES && threadId == Thread.currentThread().getId()) {
+                long endBytes = ALLOCATION_COUNTER.getAllocatedBytes();
+                if (endBytes != UNKNOWN_BYTES) {
+                    allocatedBytes = endBytes - startBytes;
+                }
+            }
+            statistics.add(stage, scriptLength, nanos, allocatedBytes);
+        }
+    }
+
+    private static class Samples {
+        private long[] nanos = new long[MAX_SAMPLES];
+        private long[] bytes = new long[MAX_SAMPLES];
+        private long count;
+
+        private void add(long nanos, long allocatedBytes) {
+            int index = (int) (count % MAX_SAMPLES);
+            this.nanos[index] = nanos;
+            this.bytes[index] = allocatedBytes;
+            count++;
+        }
+
+        private int size() {
+            return (int) Math.min(count, MAX_SAMPLES);
+        }
+
+        private long[] copyNanos() {
+            return Arrays.copyOf(nanos, size());
+        }
+
+        private long[] copyKnownBytes() {
+            int size = size();
+            long[] known = new long[size];
+            int amount = 0;
+            for (int i = 0; i < size; i++) {
+                if (bytes[i] != UNKNOWN_BYTES) {
+                    known[amount++] = bytes[i];
+                }
+            }
+            return Arrays.copyOf(known, amount);
+        }
+    }
+
+    /**
+     * Measures bytes allocated by current thread - only possible when JVM
+     * provides com.sun.management.ThreadMXBean (hotspot, openj9). The interface
+     * is only accessed by reflection, so the plugin does not depend on the
+     * com.sun.management package.
+     */
+    private static class AllocationCounter {
+        private static final String SUN_THREAD_MX_BEAN = "com.sun.management.ThreadMXBean";
+
+        private ThreadMXBean threadMXBean;
+        private Method getThreadAllocatedBytes;
+
+        private static AllocationCounter create() {
+            AllocationCounter counter = new AllocationCounter();
+            try {
+                ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                Class<?> sunInterface = findInterface(bean.getClass(), SUN_THREAD_MX_BEAN);
+                if (sunInterface == null) {
+                    return counter;
+                }
+                if (!(Boolean) sunInterface.getMethod("isThreadAllocatedMemorySupported").invoke(bean)) {
+                    return counter;
+                }
+                if (!(Boolean) sunInterface.getMethod("isThreadAllocatedMemoryEnabled").invoke(bean)) {
+                    sunInterface.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(bean, true);
+                }
+                counter.getThreadAllocatedBytes = sunInterface.getMethod("getThreadAllocatedBytes", long.class);
+                counter.threadMXBean = bean;
+            } catch (Throwable e) {
+                /* not available - so no allocation data */
+            }
+            return counter;
+        }
+
+        private static Class<?> findInterface(Class<?> type, String name) {
+            if (type == null) {
+                return null;
+            }
+            for (Class<?> implemented : type.getInterfaces()) {
+                if (implemented.getName().equals(name)) {
+                    return implemented;
+                }
+                Class<?> found = findInterface(implemented, name);
+                if (found != null) {
+                    return found;
+                }
+            }
+            return findInterface(type.getSuperclass(), name);
+        }
+
+        private long getAllocatedBytes() {
+            if (threadMXBean == null) {
+                return UNKNOWN_BYTES;
+            }
+            try {
+                return (Long) getThreadAllocatedBytes.invoke(threadMXBean, Thread.currentThread().getId());
+            } catch (Exception e) {
+                return UNKNOWN_BYTES;
+            }
+        }
+    }
+}
@@ -17,6 +17,8 @@ package de.jcup.basheditor.script;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -30,8 +32,95 @@ public class BashScriptModel implements BashVariableRegistry {
     List<ParseToken> debugTokenList;
     Map<String, BashVariable> variables = new TreeMap<String, BashVariable>();
 
+    /* indexes - maintained by addFunction(...) */
+    private Map<String, List<BashFunction>> functionsByName = new HashMap<>();
+    private List<BashFunction> functionsByOffset = new ArrayList<>();
+
+    /**
+     * @return all functions (in definition order) - functions can only be added
+     *         by {@link #addFunction(BashFunction)}, so indexes stay in sync
+     */
     public Collection<BashFunction> getFunctions() {
-        return functions;
+        return Collections.unmodifiableCollection(functions);
+    }
+
+    /**
+     * Adds given function to model and indexes
+     * 
+     * @param function
+     */
+    void addFunction(BashFunction function) {
+        if (function == null) {
+            return;
+        }
+        functions.add(function);
+
+        List<BashFunction> sameName = functionsByName.get(function.name);
+        if (sameName == null) {
+            sameName = new ArrayList<>(1);
+            functionsByName.put(function.name, sameName);
+        }
+        sameName.add(function);
+
+        int index = functionsByOffset.size();
+        while (index > 0 && functionsByOffset.get(index - 1).position > function.position) {
+            /* normally functions are added in offset order, so this is seldom */
+            index--;
+        }
+        functionsByOffset.add(index, function);
+    }
+
+    /**
+     * @param functionName
+     * @return first function defined with given name or <code>null</code>
+     */
+    public BashFunction getFunction(String functionName) {
+        List<BashFunction> found = functionsByName.get(functionName);
+        if (found == null) {
+            return null;
+        }
+        return found.get(0);
+    }
+
+    /**
+     * @param functionName
+     * @return all functions defined with given name (in definition order), never
+     *         <code>null</code>
+     */
+    public List<BashFunction> getFunctions(String functionName) {
+        List<BashFunction> found = functionsByName.get(functionName);
+        if (found == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Resolves function containing given offset
+     * 
+     * @param offset
+     * @return function where offset is between function position and end (both
+     *         inclusive) or <code>null</code>
+     */
+    public BashFunction getFunctionAt(int offset) {
+        int low = 0;
+        int high = functionsByOffset.size() - 1;
+        /* find last function starting at or before offset */
+        BashFunction candidate = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            BashFunction function = functionsByOffset.get(mid);
+            if (function.position <= offset) {
+                candidate = function;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (candidate == null || candidate.end < offset) {
+            return null;
+        }
+        return candidate;
     }
 
     public Collection<BashError> getErrors() {
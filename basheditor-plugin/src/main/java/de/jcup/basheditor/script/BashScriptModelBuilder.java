@@ -15,10 +15,11 @@
  */
 package de.jcup.basheditor.script;
 
-import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import de.jcup.basheditor.process.CancelStateProvider;
+import de.jcup.basheditor.script.BashScriptBuildStatistics.StageMeasurement;
 import de.jcup.basheditor.script.parser.ParseToken;
 import de.jcup.basheditor.script.parser.TokenParser;
 import de.jcup.basheditor.script.parser.TokenParserException;
@@ -26,6 +27,7 @@ import de.jcup.basheditor.script.parser.validator.CaseEndsWithEsacValidator;
 import de.jcup.basheditor.script.parser.validator.ClosedBlocksValidator;
 import de.jcup.basheditor.script.parser.validator.DoEndsWithDoneValidator;
 import de.jcup.basheditor.script.parser.validator.IfEndsWithFiValidator;
+import de.jcup.basheditor.script.parser.validator.ParseTokenValidatorPipeline;
 
 /**
  * A bash script model builder
@@ -40,6 +42,8 @@ public class BashScriptModelBuilder {
     private boolean ignoreFunctionValidation;
     private boolean debugMode;
     private boolean ignoreVariables;
+    private TokenParser tokenParser = new TokenParser();
+    private BashScriptBuildStatistics statistics;
 
     /**
      * Parses given script and creates a bash script model
@@ -49,21 +53,56 @@ public class BashScriptModelBuilder {
      * @throws BashScriptModelException
      */
     public BashScriptModel build(String bashScript) throws BashScriptModelException {
+        return build(bashScript, CancelStateProvider.NEVER_CANCELED);
+    }
+
+    /**
+     * Parses given script and creates a bash script model. The cancel state is
+     * checked between the build stages, so a canceled build stops early.
+     * 
+     * @param bashScript
+     * @param cancelStateProvider
+     * @return a model about bash script or <code>null</code> when build was
+     *         canceled
+     * @throws BashScriptModelException
+     */
+    public BashScriptModel build(String bashScript, CancelStateProvider cancelStateProvider) throws BashScriptModelException {
+        int scriptLength = bashScript == null ? 0 : bashScript.length();
+        StageMeasurement buildMeasurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.BUILD, scriptLength);
+
         BashScriptModel model = new BashScriptModel();
 
-        TokenParser parser = new TokenParser();
         List<ParseToken> tokens;
+        StageMeasurement measurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.TOKENIZE, scriptLength);
         try {
-            tokens = parser.parse(bashScript);
+            tokens = tokenParser.parse(bashScript);
         } catch (TokenParserException e) {
             throw new BashScriptModelException("Was not able to build bashscript", e);
         }
+        measurement.done();
+        if (cancelStateProvider.isCanceled()) {
+            return null;
+        }
+
+        measurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.VARIABLES, scriptLength);
         buildScriptVariablesByTokens(model,false,true, tokens);
+        measurement.done();
+        if (cancelStateProvider.isCanceled()) {
+            return null;
+        }
+
+        measurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.FUNCTIONS, scriptLength);
         buildFunctionsByTokens(model, tokens);
+        measurement.done();
+        if (cancelStateProvider.isCanceled()) {
+            return null;
+        }
 
-        List<ValidationResult> results = new ArrayList<>();
-        for (BashScriptValidator<List<ParseToken>> validator : createParseTokenValidators()) {
-            results.addAll(validator.validate(tokens));
+        measurement = BashScriptBuildStatistics.measure(statistics, BashScriptBuildStage.VALIDATE, scriptLength);
+        List<ValidationResult> results = createParseTokenValidatorPipeline().validate(tokens);
+        measurement.done();
+        if (cancelStateProvider.isCanceled()) {
+            return null;
         }
 
         for (ValidationResult result : results) {
@@ -75,6 +114,7 @@ public class BashScriptModelBuilder {
         if (debugMode) {
             appendDebugTokens(model, tokens);
         }
+        buildMeasurement.done();
 
         return model;
     }
@@ -137,6 +177,29 @@ public class BashScriptModelBuilder {
        this.ignoreVariables=ignoreVariables;
     }
 
+    /**
+     * Set token parser to use - e.g. an incremental token parser
+     * 
+     * @param tokenParser token parser, when <code>null</code> a default token
+     *                    parser is used
+     */
+    public void setTokenParser(TokenParser tokenParser) {
+        if (tokenParser == null) {
+            tokenParser = new TokenParser();
+        }
+        this.tokenParser = tokenParser;
+    }
+
+    /**
+     * Set statistics where time and allocations of every build stage are added
+     * 
+     * @param statistics statistics or <code>null</code> when nothing shall be
+     *                   measured
+     */
+    public void setStatistics(BashScriptBuildStatistics statistics) {
+        this.statistics = statistics;
+    }
+
     public void setIgnoreDoValidation(boolean ignoreDoValidation) {
         this.ignoreDoValidation = ignoreDoValidation;
     }
@@ -149,19 +212,19 @@ public class BashScriptModelBuilder {
         this.ignoreFunctionValidation = ignoreFunctionValidation;
     }
 
-    private List<BashScriptValidator<List<ParseToken>>> createParseTokenValidators() {
-        List<BashScriptValidator<List<ParseToken>>> validators = new ArrayList<>();
+    private ParseTokenValidatorPipeline createParseTokenValidatorPipeline() {
+        ParseTokenValidatorPipeline pipeline = new ParseTokenValidatorPipeline();
         if (!ignoreDoValidation) {
-            validators.add(new DoEndsWithDoneValidator());
+            pipeline.add(new DoEndsWithDoneValidator());
         }
         if (!ignoreBlockValidation) {
-            validators.add(new ClosedBlocksValidator());
+            pipeline.add(new ClosedBlocksValidator());
         }
         if (!ignoreIfValidation) {
-            validators.add(new IfEndsWithFiValidator());
-            validators.add(new CaseEndsWithEsacValidator());
+            pipeline.add(new IfEndsWithFiValidator());
+            pipeline.add(new CaseEndsWithEsacValidator());
         }
-        return validators;
+        return pipeline;
     }
 
     private void buildFunctionsByTokens(BashScriptModel model, List<ParseToken> tokens) {
@@ -202,7 +265,7 @@ public class BashScriptModelBuilder {
                     break;
                 }
 
-                model.functions.add(function);
+                model.addFunction(function);
                 /*
                  * function created - last currentTokenNr++ was too much because it will be done
                  * by loop to- so reduce with 1
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script;
+
+/**
+ * Cache for the latest script model of a document. The model is identified by
+ * the modification stamp of the document version it was built for, so all
+ * consumers (outline, quick outline, hyperlinks, completion...) can share one
+ * model until the document changes.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class BashScriptModelCache {
+
+    /**
+     * Stamp for unknown document versions - models for this stamp are never
+     * cached
+     */
+    public static final long UNKNOWN_MODIFICATION_STAMP = -1;
+
+    private long modificationStamp = UNKNOWN_MODIFICATION_STAMP;
+    private BashScriptModel model;
+
+    /**
+     * @param modificationStamp modification stamp of current document
+     * @return cached model for given modification stamp or <code>null</code>
+     *         when not cached
+     */
+    public synchronized BashScriptModel get(long modificationStamp) {
+        if (modificationStamp == UNKNOWN_MODIFICATION_STAMP) {
+            return null;
+        }
+        if (this.modificationStamp != modificationStamp) {
+            return null;
+        }
+        return model;
+    }
+
+    /**
+     * @return latest cached model - maybe built for an older document version -
+     *         or <code>null</code> when nothing is cached
+     */
+    public synchronized BashScriptModel getLatest() {
+        return model;
+    }
+
+    /**
+     * Caches given model for document version with given modification stamp.
+     * Former cached model is replaced.
+     * 
+     * @param modificationStamp
+     * @param model
+     */
+    public synchronized void put(long modificationStamp, BashScriptModel model) {
+        if (modificationStamp == UNKNOWN_MODIFICATION_STAMP || model == null) {
+            return;
+        }
+        this.modificationStamp = modificationStamp;
+        this.model = model;
+    }
+
+    /**
+     * Removes cached model
+     */
+    public synchronized void clear() {
+        modificationStamp = UNKNOWN_MODIFICATION_STAMP;
+        model = null;
+    }
+}
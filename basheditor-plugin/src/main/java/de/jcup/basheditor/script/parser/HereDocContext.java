@@ -90,6 +90,13 @@ class HereDocContext{
 		return literal.toString();
 	}
 
+	/**
+	 * @return <code>true</code> when scan has reached end of script
+	 */
+	public boolean isEndOfScriptReached() {
+		return getCharacterAtPosOrNull(hereDocPos - 1) == null;
+	}
+
 	public boolean hasNoLiteral() {
 		return literal==null || literal.length()==0;
 	}
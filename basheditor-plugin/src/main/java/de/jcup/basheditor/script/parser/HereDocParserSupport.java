@@ -27,13 +27,19 @@ public class HereDocParserSupport {
 		
 		step1_scanForLiteral(context);
 		if (context.hasNoLiteral()){
+			markHereDocScanned(codePosSupport, context);
 			return false;
 		}
 
 		step2_scanForContent(context);
 		if (! context.isHereDocValid()){
+			markHereDocScanned(codePosSupport, context);
 			return false;
 		}
+		if (codePosSupport instanceof ParseContext){
+			/* pending text must be added as token before here-doc tokens, so tokens are still ordered by position*/
+			((ParseContext) codePosSupport).addTokenAndResetText();
+		}
 		context.moveToNewEndPosition(context.hereDocPos);
 		
 		if (codePosSupport instanceof ParseContext){
@@ -42,15 +48,34 @@ public class HereDocParserSupport {
 			 */
 			ParseContext parseContext = (ParseContext) codePosSupport;
 			addHereDocTokens(parseContext, context);
+			parseContext.moveCurrentTokenStartBehindPos();
 		}
 		return true;
 	}
 
+	private void markHereDocScanned(CodePosSupport codePosSupport, HereDocContext context) {
+		if (!(codePosSupport instanceof ParseContext)) {
+			return;
+		}
+		ParseContext parseContext = (ParseContext) codePosSupport;
+		if (context.isEndOfScriptReached()) {
+			/* mark current token, because any change after can make the here-doc valid */
+			parseContext.currentToken.hereDocEnd = ParseToken.HERE_DOC_END_UNKNOWN;
+			return;
+		}
+		/* only a change inside the scanned text can make the here-doc valid */
+		parseContext.markHereDocScannedUntil(context.hereDocPos);
+	}
+
 	private void addHereDocTokens(ParseContext parseContext, HereDocContext context) {
+		/* mark all tokens as part of here-doc - necessary for incremental parsing */
+		int hereDocEnd = context.closingLiteralTokenEnd;
+
 		ParseToken hereDocToken = new ParseToken();
 		hereDocToken.start = context.hereDocTokenStart;
 		hereDocToken.end = context.hereDocTokenEnd;
 		hereDocToken.text = "<<" + context.getLiteral();
+		hereDocToken.hereDocEnd = hereDocEnd;
 
 		parseContext.addToken(hereDocToken);
 
@@ -58,6 +83,7 @@ public class HereDocParserSupport {
 		contentToken.start = context.contentTokenStart;
 		contentToken.end = context.contentTokenEnd;
 		contentToken.text=context.getContent();
+		contentToken.hereDocEnd = hereDocEnd;
 
 		parseContext.addToken(contentToken);
 
@@ -65,6 +91,7 @@ public class HereDocParserSupport {
 		closingLiteralToken.start = context.closingLiteralTokenStart;
 		closingLiteralToken.end = context.closingLiteralTokenEnd;
 		closingLiteralToken.text = context.partScan.toString();
+		closingLiteralToken.hereDocEnd = hereDocEnd;
 
 		parseContext.addToken(closingLiteralToken);
 	}
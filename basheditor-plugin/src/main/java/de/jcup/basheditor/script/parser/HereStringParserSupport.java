@@ -27,6 +27,10 @@ public class HereStringParserSupport {
 
 		scanForContent(context);
 
+		if (codePosSupport instanceof ParseContext) {
+			/* pending text must be added as token before here-string token, so tokens are still ordered by position*/
+			((ParseContext) codePosSupport).addTokenAndResetText();
+		}
 		context.moveToNewEndPosition(context.hereStringPos);
 		
 
@@ -37,6 +41,7 @@ public class HereStringParserSupport {
 			 */
 			ParseContext parseContext = (ParseContext) codePosSupport;
 			addHereStringToken(parseContext, context);
+			parseContext.moveCurrentTokenStartBehindPos();
 		}
 		return true;
 	}
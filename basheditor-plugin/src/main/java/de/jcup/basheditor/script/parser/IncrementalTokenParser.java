@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser;
+
+import java.util.List;
+
+/**
+ * A token parser for editors. All changes done to the script are collected by
+ * {@link #scriptChanged(int, int, String)}. When a script was prepared by
+ * {@link #prepare(String)} the next {@link #parse(String)} call for exactly
+ * this script will only parse the changed parts again. All other scripts are
+ * parsed completely.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+public class IncrementalTokenParser extends TokenParser {
+
+	/* tokens of last incremental parsed script - the base for next changes */
+	private List<ParseToken> tokens;
+	private ChangedRegion changesSinceBase = new ChangedRegion();
+
+	private String preparedScript;
+	private ScriptChange preparedChange;
+	private ChangedRegion changesSincePrepared;
+
+	/**
+	 * Marks given region as changed - call this for every change of the script
+	 * (e.g. on every document event)
+	 *
+	 * @param offset offset of change
+	 * @param length length of replaced text
+	 * @param text   replacement text
+	 */
+	public synchronized void scriptChanged(int offset, int length, String text) {
+		int textLength = text == null ? 0 : text.length();
+		changesSinceBase.add(offset, length, textLength);
+		if (changesSincePrepared != null) {
+			changesSincePrepared.add(offset, length, textLength);
+		}
+	}
+
+	/**
+	 * Prepares next parse for given script. Must be called with the current
+	 * script, before any further change is done.
+	 *
+	 * @param script
+	 */
+	public synchronized void prepare(String script) {
+		preparedScript = script;
+		preparedChange = null;
+		if (tokens != null && script != null) {
+			preparedChange = changesSinceBase.createChange(script);
+		}
+		changesSincePrepared = new ChangedRegion();
+	}
+
+	/**
+	 * Resets all collected data, next parse will be a full one
+	 */
+	public synchronized void reset() {
+		tokens = null;
+		changesSinceBase = new ChangedRegion();
+		preparedScript = null;
+		preparedChange = null;
+		changesSincePrepared = null;
+	}
+
+	@Override
+	public List<ParseToken> parse(String bashScript) throws TokenParserException {
+		List<ParseToken> baseTokens;
+		ScriptChange change;
+		synchronized (this) {
+			if (bashScript == null || bashScript != preparedScript) {
+				/* not prepared, so just a normal parse */
+				return super.parse(bashScript);
+			}
+			baseTokens = tokens;
+			change = preparedChange;
+		}
+		List<ParseToken> result;
+		try {
+			if (baseTokens == null || change == null) {
+				result = super.parse(bashScript);
+			} else {
+				result = parse(bashScript, baseTokens, change);
+			}
+		} catch (TokenParserException e) {
+			reset();
+			throw e;
+		}
+		synchronized (this) {
+			if (bashScript == preparedScript) {
+				/* no other script prepared meanwhile, so parsed script is new base */
+				tokens = result;
+				changesSinceBase = changesSincePrepared;
+				preparedScript = null;
+				preparedChange = null;
+				changesSincePrepared = null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Region containing all changes done since a former script version. Outside
+	 * the region the script is same as before, only positions after the region
+	 * are moved.
+	 */
+	static class ChangedRegion {
+		private boolean changed;
+		private int start;
+		/* end of region inside former script */
+		private int formerEnd;
+		/* end of region inside current script */
+		private int currentEnd;
+
+		void add(int offset, int length, int textLength) {
+			if (!changed) {
+				changed = true;
+				start = offset;
+				formerEnd = offset + length;
+				currentEnd = offset + textLength;
+				return;
+			}
+			int newStart = Math.min(start, offset);
+			int end = Math.max(currentEnd, offset + length);
+
+			formerEnd = formerEnd + (end - currentEnd);
+			currentEnd = end + textLength - length;
+			start = newStart;
+		}
+
+		/**
+		 * Creates a change for given current script
+		 *
+		 * @param currentScript
+		 * @return change or <code>null</code> when region does not fit to script
+		 */
+		ScriptChange createChange(String currentScript) {
+			if (!changed) {
+				return new ScriptChange(0, 0, "");
+			}
+			if (currentEnd > currentScript.length()) {
+				return null;
+			}
+			return new ScriptChange(start, formerEnd - start, currentScript.substring(start, currentEnd));
+		}
+	}
+}
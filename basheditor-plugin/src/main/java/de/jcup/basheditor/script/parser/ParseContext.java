@@ -20,11 +20,21 @@ import java.util.List;
 
 class ParseContext implements CodePosSupport{
 
-	char[] chars;
+	String script;
+	/* script as source of lazy token texts - when set, texts are not copied */
+	String source;
 	int pos;
-	StringBuilder sb;
+	/*
+	 * text of current token - as long as appended characters are contiguous inside
+	 * script only start and length are tracked, otherwise a string builder is used
+	 */
+	private StringBuilder sb;
+	private int textStart;
+	private int textLength;
 	List<ParseToken> tokens = new ArrayList<ParseToken>();
 	ParseToken currentToken;
+	/* end of text scanned for an invalid here-doc - tokens until there depend on it */
+	private int hereDocScanEnd = -1;
 	private ParserState parserState = ParserState.INIT;
 	private ParserState stateBeforeString;
 	private VariableContext variableContext;
@@ -122,12 +132,32 @@ class ParseContext implements CodePosSupport{
 	}
 	
 	void addTokenAndResetText() {
+		addTokenAndResetText(pos);
+	}
+
+	/**
+	 * Adds current token which ends with character at current position - e.g. a
+	 * curly brace token
+	 */
+	void addTokenWithCharAtPosAndResetText() {
+		addTokenAndResetText(pos + 1);
+	}
+
+	private void addTokenAndResetText(int end) {
 		if (moveCurrentTokenPosWhenEmptyText()) {
 			return;
 		}
 		
-		currentToken.text = sb.toString();
-		currentToken.end = pos;
+		if (sb != null) {
+			currentToken.text = sb.toString();
+		} else if (source != null) {
+			currentToken.setTextFromSource(source, textStart, textLength);
+		} else {
+			currentToken.text = script.substring(textStart, textStart + textLength);
+		}
+		currentToken.end = end;
+		currentToken.computeKinds();
+		markWhenInsideScannedHereDoc(currentToken);
 		tokens.add(currentToken);
 
 		/* new token on next position */
@@ -138,15 +168,117 @@ class ParseContext implements CodePosSupport{
 	}
 	
 	void addToken(ParseToken token){
+		/* ensure kinds are computed - copied tokens have them already */
+		token.getKinds();
+		markWhenInsideScannedHereDoc(token);
 		tokens.add(token);
 	}
 
+	/**
+	 * Marks current token and all following tokens starting until given end as
+	 * dependent on an invalid here-doc, so an incremental parse of a change
+	 * inside restarts before the here-doc
+	 * 
+	 * @param end end of text scanned for the here-doc
+	 */
+	void markHereDocScannedUntil(int end) {
+		hereDocScanEnd = Math.max(hereDocScanEnd, end);
+		markWhenInsideScannedHereDoc(currentToken);
+	}
+
+	private void markWhenInsideScannedHereDoc(ParseToken token) {
+		if (token.start > hereDocScanEnd) {
+			return;
+		}
+		if (token.hereDocEnd == ParseToken.HERE_DOC_END_UNKNOWN) {
+			return;
+		}
+		token.hereDocEnd = Math.max(token.hereDocEnd, hereDocScanEnd);
+	}
+	
+	/**
+	 * Next token will start after current position. Necessary when position was
+	 * moved by a parser support without handling each character (e.g. here-docs)
+	 */
+	void moveCurrentTokenStartBehindPos() {
+		currentToken.start = pos + 1;
+	}
+	
+	/**
+	 * Next token will start at current position
+	 */
+	void moveCurrentTokenStartToPos() {
+		currentToken.start = pos;
+	}
+	
+	/**
+	 * Restarts parsing at given position - context must be in initial state
+	 * @param pos
+	 */
+	void restartAt(int pos) {
+		this.pos = pos;
+		currentToken.start = pos;
+	}
+	
+	/**
+	 * @return <code>true</code> when current position is a new line handled in code state and no text is pending.
+	 * At this point parsing can be (re)started at next position without any further information
+	 */
+	boolean isAtResynchronizationPoint() {
+		if (getTextLength() > 0) {
+			return false;
+		}
+		if (!(inState(ParserState.CODE) || inState(ParserState.INIT))) {
+			return false;
+		}
+		if (!hasValidPos()) {
+			return false;
+		}
+		if (pos < hereDocScanEnd) {
+			return false;
+		}
+		return script.charAt(pos) == '\n';
+	}
+
 	void appendCharToText() {
-		getSb().append(getCharAtPos());
+		if (sb != null) {
+			sb.append(getCharAtPos());
+			return;
+		}
+		if (textLength == 0) {
+			textStart = pos;
+			textLength = 1;
+			return;
+		}
+		if (pos == textStart + textLength) {
+			textLength++;
+			return;
+		}
+		/* not contiguous, so fall back to string builder */
+		sb = new StringBuilder();
+		sb.append(script, textStart, textStart + textLength);
+		sb.append(getCharAtPos());
+	}
+
+	/**
+	 * @return text of current token, never <code>null</code>
+	 */
+	String getCurrentText() {
+		if (sb != null) {
+			return sb.toString();
+		}
+		return script.substring(textStart, textStart + textLength);
+	}
+
+	private int getTextLength() {
+		if (sb != null) {
+			return sb.length();
+		}
+		return textLength;
 	}
 
 	char getCharAtPos() {
-		return chars[pos];
+		return script.charAt(pos);
 	}
 	
 	public int getInitialStartPos() {
@@ -168,9 +300,9 @@ class ParseContext implements CodePosSupport{
 	 */
 	public Character getCharacterAtPosOrNull(int wantedPos) {
 		if (wantedPos >= 0) {
-			int length = chars.length;
+			int length = script.length();
 			if (length > wantedPos) {
-				return chars[wantedPos];
+				return script.charAt(wantedPos);
 			}
 		}
 		return null;
@@ -189,7 +321,7 @@ class ParseContext implements CodePosSupport{
 	}
 
 	boolean moveCurrentTokenPosWhenEmptyText() {
-		if (getSb().length() == 0) {
+		if (getTextLength() == 0) {
 			currentToken.start++;
 			return true;
 		}
@@ -221,13 +353,6 @@ class ParseContext implements CodePosSupport{
 		return token;
 	}
 
-	private StringBuilder getSb() {
-		if (sb == null) {
-			sb = new StringBuilder();
-		}
-		return sb;
-	}
-
 	private ParserState getState() {
 		if (parserState == null) {
 			parserState = ParserState.UNKNOWN;
@@ -237,6 +362,7 @@ class ParseContext implements CodePosSupport{
 
 	private void resetText() {
 		sb = null;
+		textLength = 0;
 	}
 
 	public VariableContext getVariableContext() {
@@ -248,11 +374,11 @@ class ParseContext implements CodePosSupport{
 
 	@Override
 	public String toString() {
-		return "ParseContext:" + getSb().toString() + "\nTokens:" + tokens;
+		return "ParseContext:" + getCurrentText() + "\nTokens:" + tokens;
 	}
 
 	public boolean hasValidPos() {
-		return pos < chars.length;
+		return pos < script.length();
 	}
 
 	public void moveForward() {
@@ -260,7 +386,7 @@ class ParseContext implements CodePosSupport{
 	}
 
 	public boolean canMoveForward() {
-		return pos < chars.length-1;
+		return pos < script.length()-1;
 	}
 
 	public boolean isCharBeforeEscapeSign() {
@@ -15,16 +15,34 @@
  */
 package de.jcup.basheditor.script.parser;
 
-import java.util.regex.Pattern;
-
 public class ParseToken {
 
-	private static final Pattern VALID_VARIABLE_NAME_PATTERN=Pattern.compile("[a-z_A-Z]+[a-z_A-Z0-9]+=");
-	
+	private static final int KINDS_NOT_COMPUTED = -1;
+
 	private static final String EQUAL_OPERAND = "=";
+	/* text - when null but source is set, text is created lazily from source */
 	String text;
+	private String source;
+	private int textStart;
+	private int textLength;
 	int start;
 	int end;
+	/**
+	 * Marks a token containing a here-doc start without closing literal. Such a
+	 * here-doc was scanned until end of script
+	 */
+	static final int HERE_DOC_END_UNKNOWN = Integer.MAX_VALUE;
+
+	/**
+	 * End of complete here-doc (including closing literal) when token is part of
+	 * a valid here-doc, end of scanned text when token is part of an invalid
+	 * here-doc, {@link #HERE_DOC_END_UNKNOWN} when here-doc start was found but
+	 * scan reached end of script, otherwise -1
+	 */
+	int hereDocEnd = -1;
+
+	/* bitset of ParseTokenKind - computed once when token is emitted */
+	private int kinds = KINDS_NOT_COMPUTED;
 
 	ParseToken() {
 
@@ -41,11 +59,87 @@ public class ParseToken {
 		this.text = text;
 		this.start = start;
 		this.end = end;
+		computeKinds();
+	}
+
+	/**
+	 * Defines text of this token as a part of given source. The text string is
+	 * only created when {@link #getText()} is called.
+	 * 
+	 * @param source    source - the parsed script
+	 * @param textStart start of text inside source
+	 * @param textLength length of text
+	 */
+	void setTextFromSource(String source, int textStart, int textLength) {
+		this.text = null;
+		this.source = source;
+		this.textStart = textStart;
+		this.textLength = textLength;
+	}
+
+	/**
+	 * Computes kinds of this token - must be called when text is complete
+	 */
+	void computeKinds() {
+		if (text == null && source != null) {
+			kinds = ParseTokenKind.computeKinds(source, textStart, textLength);
+		} else {
+			kinds = ParseTokenKind.computeKinds(text);
+		}
 	}
 
+	/**
+	 * @return bitset of {@link ParseTokenKind}
+	 */
+	public int getKinds() {
+		if (kinds == KINDS_NOT_COMPUTED) {
+			computeKinds();
+		}
+		return kinds;
+	}
+
+	public boolean isKind(ParseTokenKind kind) {
+		return (getKinds() & kind.getBit()) != 0;
+	}
+
+
+	/**
+	 * Creates a copy of this token with positions moved by given delta. When text
+	 * is defined by a source, the copy refers to given new source - the token
+	 * text must be at same position (moved by delta) inside it.
+	 * 
+	 * @param delta
+	 * @param newSource script containing the moved token or <code>null</code>,
+	 *                  then the text is copied
+	 * @return new token
+	 */
+	ParseToken createShiftedCopy(int delta, String newSource) {
+		ParseToken copy = new ParseToken();
+		if (source != null && newSource != null) {
+			copy.source = newSource;
+			copy.textStart = textStart + delta;
+			copy.textLength = textLength;
+		} else {
+			copy.text = getText();
+		}
+		copy.start = start + delta;
+		copy.end = end + delta;
+		copy.hereDocEnd = hereDocEnd;
+		copy.kinds = kinds;
+		if (hereDocEnd != -1 && hereDocEnd != HERE_DOC_END_UNKNOWN) {
+			copy.hereDocEnd = hereDocEnd + delta;
+		}
+		return copy;
+	}
 
 	public String getText() {
-		return text;
+		/* local variable used, so concurrent calls are safe */
+		String result = text;
+		if (result == null && source != null) {
+			result = source.substring(textStart, textStart + textLength);
+			text = result;
+		}
+		return result;
 	}
 
 	public int getStart() {
@@ -61,7 +155,7 @@ public class ParseToken {
 		StringBuilder sb = new StringBuilder();
 		sb.append(createTypeDescription());
 		sb.append(":'");
-		sb.append(text);
+		sb.append(getText());
 		sb.append('\'');
 		
 		return sb.toString();
@@ -69,38 +163,39 @@ public class ParseToken {
 
 	public String createTypeDescription() {
 		StringBuilder sb = new StringBuilder();
+		int kinds = getKinds();
 		
-		if (isComment()){
+		if (has(kinds, ParseTokenKind.COMMENT)){
 			sb.append("COMMENT");
 		}
-		if (isVariable()){
+		if (has(kinds, ParseTokenKind.VARIABLE)){
 			sb.append("GLOBAL_VARIABLE");
 		}
-		if (isString()){
+		if ((kinds & ParseTokenKind.STRING_KINDS) != 0){
 			sb.append("STRING");
 		}
-		if (isIf()){
+		if (has(kinds, ParseTokenKind.IF)){
 			sb.append("IF");
 		}
-		if (isFi()){
+		if (has(kinds, ParseTokenKind.FI)){
 			sb.append("FI");
 		}
-		if (isCase()){
+		if (has(kinds, ParseTokenKind.CASE)){
 			sb.append("CASE");
 		}
-		if (isEsac()){
+		if (has(kinds, ParseTokenKind.ESAC)){
 			sb.append("ESAC");
 		}
-		if (isDo()){
+		if (has(kinds, ParseTokenKind.DO)){
 			sb.append("DO");
 		}
-		if (isDone()){
+		if (has(kinds, ParseTokenKind.DONE)){
 			sb.append("DONE");
 		}
-		if (isCloseBlock()){
+		if (has(kinds, ParseTokenKind.CLOSE_BLOCK)){
 			sb.append("BLOCK-CLOSE");
 		}
-		if (isOpenBlock()){
+		if (has(kinds, ParseTokenKind.OPEN_BLOCK)){
 			sb.append("BLOCK-OPEN");
 		}
 		if (sb.length()==0){
@@ -109,37 +204,37 @@ public class ParseToken {
 		return sb.toString();
 	}
 
-	private boolean isVariable() {
-		return getSafeText().startsWith("$");
+	private static boolean has(int kinds, ParseTokenKind kind) {
+		return (kinds & kind.getBit()) != 0;
 	}
 
 	public boolean isComment() {
-		return getSafeText().startsWith("#");
+		return isKind(ParseTokenKind.COMMENT);
 	}
 
 	public boolean isSingleString() {
-		return getSafeText().startsWith("'");
+		return isKind(ParseTokenKind.SINGLE_STRING);
 	}
 
 	public boolean isDoubleString() {
-		return getSafeText().startsWith("\"");
+		return isKind(ParseTokenKind.DOUBLE_STRING);
 	}
 
 	public boolean isDoubleTickedString() {
-		return getSafeText().startsWith("`");
+		return isKind(ParseTokenKind.DOUBLE_TICKED_STRING);
 	}
 
 	private String getSafeText() {
+		String text = getText();
 		return text==null ? "":text;
 	}
 
 	public boolean isString() {
-		boolean isString = isSingleString() || isDoubleString() || isDoubleTickedString();
-		return isString;
+		return (getKinds() & ParseTokenKind.STRING_KINDS) != 0;
 	}
 
 	public boolean isFunctionKeyword() {
-		return "function".equals(text);
+		return isKind(ParseTokenKind.FUNCTION_KEYWORD);
 	}
 
 	/**
@@ -147,13 +242,7 @@ public class ParseToken {
 	 * and also no illegal characters in name
 	 */ 
 	public boolean isFunction() {
-		boolean isFunctionName = endsWithFunctionBrackets();
-		isFunctionName = isFunctionName && isLegalFunctionName();
-		isFunctionName = isFunctionName && !isComment();
-		isFunctionName = isFunctionName && text.length() > 2;
-		isFunctionName = isFunctionName && !isString();
-		
-		return  isFunctionName;
+		return isKind(ParseTokenKind.FUNCTION);
 	}
 
 	public boolean isLegalFunctionName() {
@@ -165,10 +254,10 @@ public class ParseToken {
 	}
 	
 	public boolean isFunctionStartBracket() {
-        return getSafeText().equals("(");
+        return isKind(ParseTokenKind.FUNCTION_START_BRACKET);
     }
 	public boolean isFunctionEndBracket() {
-        return getSafeText().equals(")");
+        return isKind(ParseTokenKind.FUNCTION_END_BRACKET);
     }
 
 	public boolean hasLength(int length) {
@@ -176,7 +265,7 @@ public class ParseToken {
 	}
 
 	public String getTextAsFunctionName() {
-		// String name = token.text;
+		String text = getText();
 		if (getSafeText().endsWith("()")) {
 			return text.substring(0, text.length() - 2);
 		}
@@ -192,57 +281,53 @@ public class ParseToken {
 	}
 
 	public boolean isOpenBlock() {
-		return getSafeText().length() == 1 && text.endsWith("{");
+		return isKind(ParseTokenKind.OPEN_BLOCK);
 	}
 
 	public boolean isCloseBlock() {
-		return getSafeText().length() == 1 && text.endsWith("}");
+		return isKind(ParseTokenKind.CLOSE_BLOCK);
 	}
 	/**
 	 * Looks always like "variableName="
 	 * @return true when accepted variable definition
 	 */
 	public boolean isVariableDefinition() {
-		String t = getSafeText();
-		boolean isVariable = t.endsWith("=");
-		isVariable = isVariable && t.length()>1;
-		isVariable = isVariable && VALID_VARIABLE_NAME_PATTERN.matcher(t).matches();
-		return isVariable;
+		return isKind(ParseTokenKind.VARIABLE_DEFINITION);
 	}
 	public boolean isDo() {
-		return getSafeText().equals("do");
+		return isKind(ParseTokenKind.DO);
 	}
 
 	public boolean isDone() {
-		return getSafeText().equals("done");
+		return isKind(ParseTokenKind.DONE);
 	}
 
 	public boolean isIf() {
-		return getSafeText().equals("if");
+		return isKind(ParseTokenKind.IF);
 	}
 
 	public boolean isFi() {
-		return getSafeText().equals("fi");
+		return isKind(ParseTokenKind.FI);
 	}
 
 	public boolean isHereDoc() {
-		return ! isHereString() && getSafeText().startsWith("<<");
+		return isKind(ParseTokenKind.HERE_DOC);
 	}
 
 	public boolean isHereString() {
-		return getSafeText().startsWith("<<<");
+		return isKind(ParseTokenKind.HERE_STRING);
 	}
 
 	public boolean isCase() {
-		return getSafeText().equals("case");
+		return isKind(ParseTokenKind.CASE);
 	}
 	
 	public boolean isEsac() {
-		return getSafeText().equals("esac");
+		return isKind(ParseTokenKind.ESAC);
 	}
 
     public boolean isLocalDef() {
-        return getSafeText().equals("local");
+        return isKind(ParseTokenKind.LOCAL_DEF);
     }
 
 	
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kinds of parse tokens. A token can have multiple kinds. The kinds are
+ * computed only once per token and stored as a bitset, see
+ * {@link ParseToken#getKinds()}
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public enum ParseTokenKind {
+
+	OPEN_BLOCK("{"),
+
+	CLOSE_BLOCK("}"),
+
+	IF("if"),
+
+	FI("fi"),
+
+	DO("do"),
+
+	DONE("done"),
+
+	CASE("case"),
+
+	ESAC("esac"),
+
+	FUNCTION_KEYWORD("function"),
+
+	LOCAL_DEF("local"),
+
+	FUNCTION_START_BRACKET("("),
+
+	FUNCTION_END_BRACKET(")"),
+
+	/**
+	 * Starts with "#"
+	 */
+	COMMENT,
+
+	/**
+	 * Starts with "$"
+	 */
+	VARIABLE,
+
+	/**
+	 * Starts with "'"
+	 */
+	SINGLE_STRING,
+
+	/**
+	 * Starts with '"'
+	 */
+	DOUBLE_STRING,
+
+	/**
+	 * Starts with "`"
+	 */
+	DOUBLE_TICKED_STRING,
+
+	/**
+	 * Something like "functionName()"
+	 */
+	FUNCTION,
+
+	/**
+	 * Something like "variableName="
+	 */
+	VARIABLE_DEFINITION,
+
+	/**
+	 * Starts with "&lt;&lt;" but not with "&lt;&lt;&lt;"
+	 */
+	HERE_DOC,
+
+	/**
+	 * Starts with "&lt;&lt;&lt;"
+	 */
+	HERE_STRING,
+
+	;
+
+	/**
+	 * Bitset of all string kinds
+	 */
+	public static final int STRING_KINDS = SINGLE_STRING.bit | DOUBLE_STRING.bit | DOUBLE_TICKED_STRING.bit;
+
+	private static final ParseTokenKind[] KEYWORD_KINDS;
+
+	static {
+		List<ParseTokenKind> keywordKinds = new ArrayList<>();
+		for (ParseTokenKind kind : values()) {
+			if (kind.keyword != null) {
+				keywordKinds.add(kind);
+			}
+		}
+		KEYWORD_KINDS = keywordKinds.toArray(new ParseTokenKind[keywordKinds.size()]);
+	}
+
+	private String keyword;
+	private int bit;
+
+	private ParseTokenKind() {
+		this(null);
+	}
+
+	private ParseTokenKind(String keyword) {
+		this.keyword = keyword;
+		this.bit = 1 << ordinal();
+	}
+
+	/**
+	 * @return bit of this kind inside a kinds bitset
+	 */
+	public int getBit() {
+		return bit;
+	}
+
+	/**
+	 * Computes kinds bitset for given token text. Does only inspect the characters
+	 * - no regular expressions are used.
+	 * 
+	 * @param text
+	 * @return bitset of kinds, 0 when no special kind
+	 */
+	static int computeKinds(String text) {
+		if (text == null) {
+			return 0;
+		}
+		return computeKinds(text, 0, text.length());
+	}
+
+	/**
+	 * Computes kinds bitset for token text being a part of given source. Does only
+	 * inspect the characters - neither strings are created nor regular expressions
+	 * are used.
+	 * 
+	 * @param source
+	 * @param offset start of token text inside source
+	 * @param length length of token text
+	 * @return bitset of kinds, 0 when no special kind
+	 */
+	static int computeKinds(CharSequence source, int offset, int length) {
+		if (length <= 0) {
+			return 0;
+		}
+		for (ParseTokenKind keywordKind : KEYWORD_KINDS) {
+			if (keywordKind.isKeyword(source, offset, length)) {
+				return keywordKind.bit;
+			}
+		}
+		int kinds = 0;
+		int end = offset + length;
+		char first = source.charAt(offset);
+		switch (first) {
+		case '#':
+			kinds |= COMMENT.bit;
+			break;
+		case '$':
+			kinds |= VARIABLE.bit;
+			break;
+		case '\'':
+			kinds |= SINGLE_STRING.bit;
+			break;
+		case '"':
+			kinds |= DOUBLE_STRING.bit;
+			break;
+		case '`':
+			kinds |= DOUBLE_TICKED_STRING.bit;
+			break;
+		case '<':
+			if (length > 1 && source.charAt(offset + 1) == '<') {
+				if (length > 2 && source.charAt(offset + 2) == '<') {
+					kinds |= HERE_STRING.bit;
+				} else {
+					kinds |= HERE_DOC.bit;
+				}
+			}
+			break;
+		default:
+		}
+		char last = source.charAt(end - 1);
+		if (last == '=') {
+			if (isVariableDefinition(source, offset, length)) {
+				kinds |= VARIABLE_DEFINITION.bit;
+			}
+		} else if (last == ')' && length > 2 && source.charAt(end - 2) == '(') {
+			boolean function = !contains(source, offset, end, '=');
+			function = function && (kinds & (COMMENT.bit | STRING_KINDS)) == 0;
+			if (function) {
+				kinds |= FUNCTION.bit;
+			}
+		}
+		return kinds;
+	}
+
+	private boolean isKeyword(CharSequence source, int offset, int length) {
+		if (keyword.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (keyword.charAt(i) != source.charAt(offset + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean contains(CharSequence source, int offset, int end, char c) {
+		for (int i = offset; i < end; i++) {
+			if (source.charAt(i) == c) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Same as former regular expression "[a-z_A-Z]+[a-z_A-Z0-9]+=" - name has at
+	 * least two characters and starts not with a digit
+	 */
+	private static boolean isVariableDefinition(CharSequence source, int offset, int length) {
+		int nameLength = length - 1;
+		if (nameLength < 2) {
+			return false;
+		}
+		if (!isNameStart(source.charAt(offset))) {
+			return false;
+		}
+		for (int i = 1; i < nameLength; i++) {
+			char c = source.charAt(offset + i);
+			if (!isNameStart(c) && !(c >= '0' && c <= '9')) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isNameStart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+	}
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable token list created by {@link TokenParser}. The list consists of
+ * segments of former token lists, each with one position delta. So an
+ * incremental parse creates its result without copying or shifting all reused
+ * tokens: tokens before the change are reused as they are, shifted copies of
+ * tokens after the change are only created when accessed.<br>
+ * <br>
+ * Lazy token texts refer to the script of the parse which created the token,
+ * shifted copies to the script of the list which created the copy. Scripts are
+ * immutable, so texts of former lists stay valid.<br>
+ * <br>
+ * Neighboured small segments at the borders of a change are merged, so the
+ * amount of segments stays small.
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+class ParseTokenList extends AbstractList<ParseToken> implements RandomAccess {
+
+	/* neighboured segments smaller than this are merged */
+	static final int MIN_SEGMENT_SIZE = 128;
+
+	private static final int[] NO_INDEXES = new int[0];
+
+	private final Segment[] segments;
+	/* index of first token of each segment inside this list */
+	private final int[] segmentStarts;
+	private final int size;
+	private final int firstUnknownHereDocIndex;
+	/* index of last accessed segment - only a hint for sequential access */
+	private int lastSegment;
+
+	/**
+	 * Creates a list for tokens of a full parse
+	 *
+	 * @param tokens tokens - must not be changed afterwards
+	 */
+	ParseTokenList(List<ParseToken> tokens) {
+		this(tokens.isEmpty() ? new Segment[0] : new Segment[] { new Segment(new Backing(tokens), 0, tokens.size(), 0, null) });
+	}
+
+	private ParseTokenList(Segment[] segments) {
+		this.segments = segments;
+		this.segmentStarts = new int[segments.length];
+		int count = 0;
+		int firstUnknown = -1;
+		for (int i = 0; i < segments.length; i++) {
+			Segment segment = segments[i];
+			segmentStarts[i] = count;
+			if (firstUnknown == -1) {
+				int unknown = segment.findFirstUnknownHereDoc();
+				if (unknown != -1) {
+					firstUnknown = count + unknown;
+				}
+			}
+			count += segment.size();
+		}
+		this.size = count;
+		this.firstUnknownHereDocIndex = firstUnknown;
+	}
+
+	/**
+	 * Wraps given tokens when necessary
+	 *
+	 * @param tokens
+	 * @return given tokens when already a parse token list, otherwise a new list
+	 *         containing given tokens
+	 */
+	static ParseTokenList of(List<ParseToken> tokens) {
+		if (tokens instanceof ParseTokenList) {
+			return (ParseTokenList) tokens;
+		}
+		return new ParseTokenList(new ArrayList<>(tokens));
+	}
+
+	/**
+	 * Creates a changed list. The tokens before given prefix size are reused as
+	 * they are, followed by given new tokens and tokens of this list starting at
+	 * given suffix index, moved by given delta. Moved tokens refer to given
+	 * source, reused tokens keep referring to the script they were parsed from -
+	 * so texts of this list stay valid.
+	 *
+	 * @param source      script of the new list, source of lazy texts of moved
+	 *                    tokens or <code>null</code> when texts are not lazy
+	 * @param prefixSize  amount of tokens of this list to keep at start
+	 * @param newTokens   new tokens, must not be changed afterwards
+	 * @param suffixIndex index of first token of this list to keep at end
+	 * @param delta       position delta for tokens at end
+	 * @return new list, this list is not changed
+	 */
+	ParseTokenList createChanged(String source, int prefixSize, List<ParseToken> newTokens, int suffixIndex, int delta) {
+		List<Segment> result = new ArrayList<>(segments.length + 2);
+		addSegments(result, 0, prefixSize, 0, source);
+		int changed = result.size();
+		if (!newTokens.isEmpty()) {
+			result.add(new Segment(new Backing(newTokens), 0, newTokens.size(), 0, source));
+		}
+		addSegments(result, suffixIndex, size, delta, source);
+		mergeSmallSegments(result, changed, source);
+		return new ParseTokenList(result.toArray(new Segment[result.size()]));
+	}
+
+	/**
+	 * @return index of first token marked with
+	 *         {@link ParseToken#HERE_DOC_END_UNKNOWN} or -1
+	 */
+	int getFirstUnknownHereDocIndex() {
+		return firstUnknownHereDocIndex;
+	}
+
+	/**
+	 * @return amount of segments
+	 */
+	int getSegmentCount() {
+		return segments.length;
+	}
+
+	/**
+	 * Resolves start of token at given index without creating a shifted copy
+	 */
+	int getStart(int index) {
+		int segmentIndex = findSegment(index);
+		Segment segment = segments[segmentIndex];
+		return segment.getRaw(index - segmentStarts[segmentIndex]).start + segment.delta;
+	}
+
+	/**
+	 * Resolves end of token at given index without creating a shifted copy
+	 */
+	int getEnd(int index) {
+		int segmentIndex = findSegment(index);
+		Segment segment = segments[segmentIndex];
+		return segment.getRaw(index - segmentStarts[segmentIndex]).end + segment.delta;
+	}
+
+	/**
+	 * Resolves here-doc end of token at given index without creating a shifted
+	 * copy
+	 */
+	int getHereDocEnd(int index) {
+		int segmentIndex = findSegment(index);
+		Segment segment = segments[segmentIndex];
+		return shiftHereDocEnd(segment.getRaw(index - segmentStarts[segmentIndex]).hereDocEnd, segment.delta);
+	}
+
+	@Override
+	public ParseToken get(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int segmentIndex = findSegment(index);
+		return segments[segmentIndex].get(index - segmentStarts[segmentIndex]);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	private int findSegment(int index) {
+		int hint = lastSegment;
+		if (hint < segments.length && segmentStarts[hint] <= index && index < segmentStarts[hint] + segments[hint].size()) {
+			return hint;
+		}
+		int found = Arrays.binarySearch(segmentStarts, index);
+		if (found < 0) {
+			/* insertion point - so segment before contains index */
+			found = -found - 2;
+		}
+		lastSegment = found;
+		return found;
+	}
+
+	/**
+	 * Adds segments for tokens of this list from start (inclusive) to end
+	 * (exclusive) with given additional delta
+	 */
+	private void addSegments(List<Segment> result, int start, int end, int delta, String source) {
+		if (start >= end) {
+			return;
+		}
+		int segmentIndex = findSegment(start);
+		int pos = start;
+		while (pos < end) {
+			Segment segment = segments[segmentIndex];
+			int segmentStart = segmentStarts[segmentIndex];
+			int from = pos - segmentStart;
+			int to = Math.min(end - segmentStart, segment.size());
+			if (from == 0 && to == segment.size() && delta == 0) {
+				/* unchanged - so already created shifted tokens are reused too */
+				result.add(segment);
+			} else {
+				result.add(new Segment(segment.backing, segment.from + from, segment.from + to, segment.delta + delta, source));
+			}
+			pos = segmentStart + to;
+			segmentIndex++;
+		}
+	}
+
+	/**
+	 * Merges neighboured small segments around given index of first changed
+	 * segment. Only the segments at the borders of a change can have become
+	 * small - so afterwards no small segments are neighbours anywhere and the
+	 * amount of segments is limited by the amount of tokens.
+	 */
+	private static void mergeSmallSegments(List<Segment> result, int index, String source) {
+		int i = Math.max(0, index - 2);
+		int last = index + 1;
+		while (i <= last && i + 1 < result.size()) {
+			Segment segment = result.get(i);
+			Segment next = result.get(i + 1);
+			if (segment.size() < MIN_SEGMENT_SIZE && next.size() < MIN_SEGMENT_SIZE) {
+				/* merged segment can be small again, so check it with next one */
+				result.set(i, merge(segment, next, source));
+				result.remove(i + 1);
+				last--;
+			} else {
+				i++;
+			}
+		}
+	}
+
+	private static Segment merge(Segment first, Segment second, String source) {
+		List<ParseToken> tokens = new ArrayList<>(first.size() + second.size());
+		first.addTo(tokens);
+		second.addTo(tokens);
+		return new Segment(new Backing(tokens), 0, tokens.size(), 0, source);
+	}
+
+	private static int shiftHereDocEnd(int hereDocEnd, int delta) {
+		if (hereDocEnd == -1 || hereDocEnd == ParseToken.HERE_DOC_END_UNKNOWN) {
+			return hereDocEnd;
+		}
+		return hereDocEnd + delta;
+	}
+
+	/**
+	 * Tokens of one parse - never changed after creation
+	 */
+	private static class Backing {
+		private final List<ParseToken> tokens;
+		/* sorted indexes of tokens marked with HERE_DOC_END_UNKNOWN */
+		private final int[] unknownHereDocIndexes;
+
+		private Backing(List<ParseToken> tokens) {
+			this.tokens = tokens;
+			int[] indexes = NO_INDEXES;
+			int count = 0;
+			for (int i = 0; i < tokens.size(); i++) {
+				if (tokens.get(i).hereDocEnd != ParseToken.HERE_DOC_END_UNKNOWN) {
+					continue;
+				}
+				if (count == indexes.length) {
+					indexes = Arrays.copyOf(indexes, Math.max(4, count * 2));
+				}
+				indexes[count++] = i;
+			}
+			this.unknownHereDocIndexes = Arrays.copyOf(indexes, count);
+		}
+	}
+
+	/**
+	 * Part of a backing with one position delta for all its tokens
+	 */
+	private static class Segment {
+		private final Backing backing;
+		private final int from;
+		private final int to;
+		private final int delta;
+		/* script shifted copies refer to or null */
+		private final String source;
+		/* shifted copies - created on first access */
+		private ParseToken[] shiftedTokens;
+
+		private Segment(Backing backing, int from, int to, int delta, String source) {
+			this.backing = backing;
+			this.from = from;
+			this.to = to;
+			this.delta = delta;
+			this.source = source;
+		}
+
+		private int size() {
+			return to - from;
+		}
+
+		private ParseToken getRaw(int index) {
+			return backing.tokens.get(from + index);
+		}
+
+		private ParseToken get(int index) {
+			ParseToken raw = getRaw(index);
+			if (delta == 0) {
+				return raw;
+			}
+			if (shiftedTokens == null) {
+				shiftedTokens = new ParseToken[size()];
+			}
+			ParseToken shifted = shiftedTokens[index];
+			if (shifted == null) {
+				shifted = raw.createShiftedCopy(delta, source);
+				shiftedTokens[index] = shifted;
+			}
+			return shifted;
+		}
+
+		private void addTo(List<ParseToken> tokens) {
+			for (int i = 0; i < size(); i++) {
+				tokens.add(get(i));
+			}
+		}
+
+		/**
+		 * @return index inside segment or -1
+		 */
+		private int findFirstUnknownHereDoc() {
+			int[] indexes = backing.unknownHereDocIndexes;
+			if (indexes.length == 0) {
+				return -1;
+			}
+			int found = Arrays.binarySearch(indexes, from);
+			if (found < 0) {
+				found = -found - 1;
+			}
+			if (found < indexes.length && indexes[found] < to) {
+				return indexes[found] - from;
+			}
+			return -1;
+		}
+	}
+}
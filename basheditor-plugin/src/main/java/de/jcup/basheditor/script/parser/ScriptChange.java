@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser;
+
+/**
+ * Describes a change inside a bash script - same information as an eclipse
+ * document event: at given offset the given length of characters was replaced
+ * by given text.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class ScriptChange {
+
+	private int offset;
+	private int length;
+	private String text;
+
+	/**
+	 * Creates a new script change
+	 * 
+	 * @param offset offset of change inside script before the change
+	 * @param length length of replaced text inside script before the change
+	 * @param text   replacement text, <code>null</code> is handled like an empty
+	 *               string
+	 */
+	public ScriptChange(int offset, int length, String text) {
+		if (offset < 0) {
+			throw new IllegalArgumentException("offset may not be negative:" + offset);
+		}
+		if (length < 0) {
+			throw new IllegalArgumentException("length may not be negative:" + length);
+		}
+		if (text == null) {
+			text = "";
+		}
+		this.offset = offset;
+		this.length = length;
+		this.text = text;
+	}
+
+	public int getOffset() {
+		return offset;
+	}
+
+	public int getLength() {
+		return length;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return difference of script length after the change compared to length
+	 *         before
+	 */
+	public int getDelta() {
+		return text.length() - length;
+	}
+
+	/**
+	 * @return end offset of replacement text inside changed script
+	 */
+	public int getNewEnd() {
+		return offset + text.length();
+	}
+
+	@Override
+	public String toString() {
+		return "ScriptChange: offset=" + offset + ", length=" + length + ", text='" + text + "'";
+	}
+}
@@ -36,46 +36,231 @@ public class TokenParser {
 	static final char CHAR_STRING_DOUBLE_TICKED = '`';
 	private HereDocParserSupport hereDocParserSupport;
 	private HereStringParserSupport hereStringParserSupport;
+	private boolean lazyTokenText = true;
 
 	public TokenParser() {
 		hereDocParserSupport = new HereDocParserSupport();
 		hereStringParserSupport = new HereStringParserSupport();
 	}
 
+	/**
+	 * When enabled (default) tokens do not contain a copy of their text but only
+	 * refer to the parsed script. The text string is created on first
+	 * {@link ParseToken#getText()} call. When disabled, every token text is copied
+	 * at parse time, so tokens do not reference the script.
+	 * 
+	 * @param lazyTokenText
+	 */
+	public void setLazyTokenText(boolean lazyTokenText) {
+		this.lazyTokenText = lazyTokenText;
+	}
+
 	public List<ParseToken> parse(String bashScript) throws TokenParserException {
 		if (bashScript == null) {
 			return new ArrayList<>();
 		}
-		ParseContext context = new ParseContext();
-		context.chars = bashScript.toCharArray();
+		return parseCompletely(bashScript);
+	}
+
+	/*
+	 * Not overridable - sub classes may redirect parse(String) to an incremental
+	 * parse, which would end in an endless recursion when used as fall back
+	 */
+	private List<ParseToken> parseCompletely(String bashScript) throws TokenParserException {
+		ParseContext context = createContext(bashScript);
 		try {
 			for (; context.hasValidPos(); context.moveForward()) {
+				handleCurrentPos(context);
+			}
+			// add last token if existing
+			context.addTokenAndResetText();
+		} catch (RuntimeException e) {
+			throw new TokenParserException("Was not able to parse script because of runtime error", e);
+		}
 
-				if (isVariableStateHandled(context)) {
-					continue;
-				}
-				if (isCommentStateHandled(context)) {
-					continue;
-				}
-				if (isStringStateHandled(context)) {
+		return new ParseTokenList(context.tokens);
+	}
+
+	/**
+	 * Parses given script incremental. Only the part affected by the change is
+	 * parsed again: Parsing restarts at the last line start in code state before
+	 * the change and stops at the first line start after the change where the new
+	 * tokens converge with the previous ones. All previous tokens before the
+	 * restart are reused as they are, all previous tokens after this point are
+	 * reused with shifted positions. The shifted tokens are only created on
+	 * access, so the costs depend on the size of the change and not on the size
+	 * of the script. <br>
+	 * <br>
+	 * The previous tokens are not changed, their lazy texts still refer to the
+	 * former script.
+	 * 
+	 * @param bashScript     script after the change
+	 * @param previousTokens tokens of script before the change, created by this
+	 *                       parser. When <code>null</code> or empty a full parse
+	 *                       is done
+	 * @param change         change between previous script and given one. When
+	 *                       <code>null</code> a full parse is done
+	 * @return tokens, never <code>null</code>
+	 * @throws TokenParserException
+	 */
+	public List<ParseToken> parse(String bashScript, List<ParseToken> previousTokens, ScriptChange change) throws TokenParserException {
+		if (bashScript == null) {
+			return new ArrayList<>();
+		}
+		if (previousTokens == null || previousTokens.isEmpty() || change == null) {
+			return parseCompletely(bashScript);
+		}
+		if (change.getNewEnd() > bashScript.length()) {
+			/* change does not fit to script - so fall back */
+			return parseCompletely(bashScript);
+		}
+		ParseTokenList previous = ParseTokenList.of(previousTokens);
+		ParseContext context = createContext(bashScript);
+		try {
+			int restartPos = findRestartPos(bashScript, previous, change.getOffset());
+			/* tokens before are same text at same position */
+			int reusedTokens = indexOfFirstTokenStartingAtOrAfter(previous, restartPos);
+
+			int delta = change.getDelta();
+			int changeEnd = change.getNewEnd();
+			for (context.restartAt(restartPos); context.hasValidPos(); context.moveForward()) {
+				handleCurrentPos(context);
+
+				if (context.pos < changeEnd) {
 					continue;
 				}
-				if (isHereStringStateHandled(context)) {
+				if (!context.isAtResynchronizationPoint()) {
 					continue;
 				}
-				if (isHereDocStateHandled(context)) {
+				int previousPos = context.pos + 1 - delta;
+				int index = indexOfFirstTokenStartingAtOrAfter(previous, previousPos);
+				if (!isResynchronizationPoint(previous, index, previousPos)) {
 					continue;
 				}
-
-				handleNotVariableNorCommentOrString(context);
+				/* converged - so remaining tokens are same as before, only moved */
+				return previous.createChanged(context.source, reusedTokens, context.tokens, index, delta);
 			}
 			// add last token if existing
 			context.addTokenAndResetText();
+			return previous.createChanged(context.source, reusedTokens, context.tokens, previous.size(), delta);
 		} catch (RuntimeException e) {
 			throw new TokenParserException("Was not able to parse script because of runtime error", e);
 		}
+	}
+
+	private ParseContext createContext(String bashScript) {
+		ParseContext context = new ParseContext();
+		context.script = bashScript;
+		if (lazyTokenText) {
+			context.source = bashScript;
+		}
+		return context;
+	}
+
+	private void handleCurrentPos(ParseContext context) {
+		if (isVariableStateHandled(context)) {
+			return;
+		}
+		if (isCommentStateHandled(context)) {
+			return;
+		}
+		if (isStringStateHandled(context)) {
+			return;
+		}
+		if (isHereStringStateHandled(context)) {
+			return;
+		}
+		if (isHereDocStateHandled(context)) {
+			return;
+		}
+
+		handleNotVariableNorCommentOrString(context);
+	}
+
+	/**
+	 * Resolves position where parsing can be restarted for a change at given
+	 * offset. Characters before offset must be same as before the change.
+	 */
+	private int findRestartPos(String bashScript, ParseTokenList tokens, int offset) {
+		int pos = Math.min(offset, bashScript.length());
+		/*
+		 * a here-doc depends on the text until its closing literal - or even until
+		 * end of script when no closing literal was found, so a change can make it
+		 * valid
+		 */
+		int restartPos = pos;
+		int unknownHereDocIndex = tokens.getFirstUnknownHereDocIndex();
+		if (unknownHereDocIndex != -1) {
+			restartPos = Math.min(restartPos, tokens.getStart(unknownHereDocIndex));
+		}
+		int index = indexOfFirstTokenStartingAtOrAfter(tokens, pos);
+		if (index > 0) {
+			int hereDocEnd = tokens.getHereDocEnd(index - 1);
+			if (hereDocEnd != ParseToken.HERE_DOC_END_UNKNOWN && hereDocEnd >= pos) {
+				/* inside a here-doc, so go back to its first token */
+				index--;
+				while (index > 0 && tokens.getHereDocEnd(index - 1) >= pos) {
+					index--;
+				}
+				restartPos = Math.min(restartPos, tokens.getStart(index));
+			}
+		}
+		pos = restartPos;
+		while (true) {
+			int lineStart = findLineStart(bashScript, pos);
+			if (lineStart == 0) {
+				return 0;
+			}
+			index = indexOfFirstTokenStartingAtOrAfter(tokens, lineStart);
+			if (isResynchronizationPoint(tokens, index, lineStart)) {
+				return lineStart;
+			}
+			/* token before spans the line start, so try line of token start */
+			pos = tokens.getStart(index - 1);
+		}
+	}
+
+	private int findLineStart(String bashScript, int pos) {
+		for (int i = pos - 1; i >= 0; i--) {
+			if (bashScript.charAt(i) == '\n') {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Checks if given position - which must be a line start - is a
+	 * resynchronization point inside token list
+	 * 
+	 * @param tokens
+	 * @param index  index of first token starting at or after given position
+	 * @param pos
+	 * @return <code>true</code> when no token or here-doc before spans given
+	 *         position
+	 */
+	private boolean isResynchronizationPoint(ParseTokenList tokens, int index, int pos) {
+		if (index == 0) {
+			return true;
+		}
+		if (tokens.getEnd(index - 1) >= pos) {
+			return false;
+		}
+		return tokens.getHereDocEnd(index - 1) < pos;
+	}
 
-		return context.tokens;
+	private int indexOfFirstTokenStartingAtOrAfter(ParseTokenList tokens, int pos) {
+		int low = 0;
+		int high = tokens.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (tokens.getStart(mid) < pos) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
 	}
 
 	private boolean isHereStringStateHandled(ParseContext context) {
@@ -160,8 +345,9 @@ public class TokenParser {
 		if (c == '{' || c == '}') {
 			// block start/ end found, add as own token
 			context.addTokenAndResetText();
+			context.moveCurrentTokenStartToPos();
 			context.appendCharToText();
-			context.addTokenAndResetText();
+			context.addTokenWithCharAtPosAndResetText();
 			context.switchTo(CODE);
 			return true;
 		}
@@ -514,20 +700,19 @@ public class TokenParser {
 	}
 
 	private void moveToNextCharNotInStringAndAppendMovements(ParseContext context, char stringCharToScan) {
-		if (!context.canMoveForward()) {
-			return;
-		}
-		context.moveForward();
-		context.appendCharToText();
+		/* done in a loop and not recursive - long strings would lead to stack overflow */
+		while (context.canMoveForward()) {
+			context.moveForward();
+			context.appendCharToText();
 
-		char c = context.getCharAtPos();
-		if (c == stringCharToScan) {
-			if (!context.isCharBeforeEscapeSign()) {
-				/* found ending of string - so simply return */
-				return;
+			char c = context.getCharAtPos();
+			if (c == stringCharToScan) {
+				if (!context.isCharBeforeEscapeSign()) {
+					/* found ending of string - so simply return */
+					return;
+				}
 			}
 		}
-		moveToNextCharNotInStringAndAppendMovements(context, stringCharToScan);
 	}
 
 }
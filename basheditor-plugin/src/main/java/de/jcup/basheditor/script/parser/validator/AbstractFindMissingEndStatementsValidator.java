@@ -15,11 +15,14 @@
  */
 package de.jcup.basheditor.script.parser.validator;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import de.jcup.basheditor.script.BashError;
 import de.jcup.basheditor.script.ValidationResult;
 import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ParseTokenKind;
 
 /**
  * An abstract valdidator suitable as base for validation of start statements
@@ -30,33 +33,42 @@ import de.jcup.basheditor.script.parser.ParseToken;
  */
 public abstract class AbstractFindMissingEndStatementsValidator extends AbstractParseTokenListValidator {
 
+	private ParseToken inspectedUnchainedStartToken;
+	private int countOfStartTokens;
+	private int countOfCloseTokens;
+
 	@Override
-	protected final void doValidation(List<ParseToken> tokens, List<ValidationResult> result) {
-		ParseToken inspectedUnchainedStartToken = null;
-		int countOfStartTokens = 0;
-		int countOfCloseTokens = 0;
-		for (ParseToken token : tokens) {
-			if (token == null) {
-				continue;
-			}
-			if (inspectedUnchainedStartToken == null) {
+	protected final Set<ParseTokenKind> getInspectedTokenKinds() {
+		return EnumSet.of(getStartTokenKind(), getCloseTokenKind());
+	}
+
+	@Override
+	protected final void startValidation() {
+		inspectedUnchainedStartToken = null;
+		countOfStartTokens = 0;
+		countOfCloseTokens = 0;
+	}
+
+	@Override
+	protected final void inspect(ParseToken token, ParseTokenKind kind) {
+		if (kind == getStartTokenKind()) {
+			if (countOfStartTokens == countOfCloseTokens) {
+				/*
+				 * former start statement was closed - so set this token as
+				 * last inspected unchained token
+				 */
 				inspectedUnchainedStartToken = token;
 			}
-			if (isStartToken(token)) {
-				if (countOfStartTokens == countOfCloseTokens) {
-					/*
-					 * former start statement was closed - so set this token as
-					 * last inspected unchained token
-					 */
-					inspectedUnchainedStartToken = token;
-				}
-				countOfStartTokens++;
-			} else if (isCloseToken(token)) {
-				if (countOfStartTokens > 0) {
-					countOfCloseTokens++;
-				}
+			countOfStartTokens++;
+		} else if (kind == getCloseTokenKind()) {
+			if (countOfStartTokens > 0) {
+				countOfCloseTokens++;
 			}
 		}
+	}
+
+	@Override
+	protected final void finishValidation(List<ValidationResult> result) {
 		if (countOfStartTokens != countOfCloseTokens) {
 			if (inspectedUnchainedStartToken != null) {
 				String message = createMissingCloseTokenMessage();
@@ -68,21 +80,14 @@ public abstract class AbstractFindMissingEndStatementsValidator extends Abstract
 	}
 
 	/**
-	 * Implementation checks if given token is a start token.
-	 * 
-	 * @param token
-	 * @return <code>true</code> when the token is a start token
+	 * @return kind of start tokens
 	 */
-	protected abstract boolean isStartToken(ParseToken token);
+	protected abstract ParseTokenKind getStartTokenKind();
 
 	/**
-	 * Implementation checks if given token is a closing token for start token.
-	 * 
-	 * @param token
-	 * @return <code>true</code> when the token is a closing token of start
-	 *         token
+	 * @return kind of tokens closing a start token
 	 */
-	protected abstract boolean isCloseToken(ParseToken token);
+	protected abstract ParseTokenKind getCloseTokenKind();
 
 	/**
 	 * Implementation creates a string for message about missing close token
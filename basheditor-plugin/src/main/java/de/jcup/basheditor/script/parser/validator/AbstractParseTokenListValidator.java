@@ -15,30 +15,52 @@
  */
  package de.jcup.basheditor.script.parser.validator;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import de.jcup.basheditor.script.BashScriptValidator;
 import de.jcup.basheditor.script.ValidationResult;
 import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ParseTokenKind;
 
+/**
+ * Base class for token validators. Validators do not iterate the token list
+ * themselves but are called for every token of an inspected kind - so multiple
+ * validators can be run by a {@link ParseTokenValidatorPipeline} with only one
+ * traversal. A validator instance holds validation state and must not be used
+ * by multiple threads at the same time.
+ *
+ */
 public abstract class AbstractParseTokenListValidator implements BashScriptValidator<List<ParseToken>>{
 
 	@Override
 	public final List<ValidationResult> validate(List<ParseToken> toValidate) {
-		List<ValidationResult> result = new ArrayList<ValidationResult>();
-		if (toValidate==null || toValidate.size()==0){
-			return result;
-		}
-		doValidation(toValidate, result);
-		return result;
+		ParseTokenValidatorPipeline pipeline = new ParseTokenValidatorPipeline();
+		pipeline.add(this);
+		return pipeline.validate(toValidate);
 	}
 
 	/**
-	 * Do validation
-	 * @param tokens - not <code>null</code> and not empty
+	 * @return kinds of tokens to inspect, never <code>null</code>
+	 */
+	protected abstract Set<ParseTokenKind> getInspectedTokenKinds();
+
+	/**
+	 * Starts a new validation - former state must be reset
+	 */
+	protected abstract void startValidation();
+
+	/**
+	 * Inspect token
+	 * @param token - not <code>null</code>
+	 * @param kind - kind of token, always one of inspected token kinds
+	 */
+	protected abstract void inspect(ParseToken token, ParseTokenKind kind);
+
+	/**
+	 * Finish validation after all tokens were inspected
 	 * @param result - not <b>null</b>
 	 */
-	protected abstract void doValidation(List<ParseToken> tokens, List<ValidationResult> result);
+	protected abstract void finishValidation(List<ValidationResult> result);
 
 }
@@ -15,7 +15,7 @@
  */
 package de.jcup.basheditor.script.parser.validator;
 
-import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ParseTokenKind;
 
 public class CaseEndsWithEsacValidator extends AbstractFindMissingEndStatementsValidator{
 	
@@ -23,12 +23,12 @@ public class CaseEndsWithEsacValidator extends AbstractFindMissingEndStatementsV
 		return "This 'case' is not correct closed. A 'esac' is missing";
 	}
 
-	protected boolean isStartToken(ParseToken token) {
-		return token.isCase();
+	protected ParseTokenKind getStartTokenKind() {
+		return ParseTokenKind.CASE;
 	}
 
-	protected boolean isCloseToken(ParseToken token) {
-		return token.isEsac();
+	protected ParseTokenKind getCloseTokenKind() {
+		return ParseTokenKind.ESAC;
 	}
 
 }
@@ -15,35 +15,53 @@
  */
  package de.jcup.basheditor.script.parser.validator;
 
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 import de.jcup.basheditor.script.BashError;
 import de.jcup.basheditor.script.ValidationResult;
 import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ParseTokenKind;
 
 public class ClosedBlocksValidator extends AbstractParseTokenListValidator {
 
+	private int amountOfOpened;
+	private int amountOfClosed;
+
+	private ParseToken lastWorkingOpen;
+	private ParseToken lastWorksBeforeClose;
+
 	@Override
-	protected void doValidation(List<ParseToken> tokens, List<ValidationResult> result) {
+	protected Set<ParseTokenKind> getInspectedTokenKinds() {
+		return EnumSet.of(ParseTokenKind.OPEN_BLOCK, ParseTokenKind.CLOSE_BLOCK);
+	}
 
-		int amountOfOpened = 0;
-		int amountOfClosed = 0;
+	@Override
+	protected void startValidation() {
+		amountOfOpened = 0;
+		amountOfClosed = 0;
+		lastWorkingOpen = null;
+		lastWorksBeforeClose = null;
+	}
 
-		ParseToken lastWorkingOpen = null;
-		ParseToken lastWorksBeforeClose = null;
-		for (ParseToken token : tokens) {
-			if (token.isOpenBlock()) {
-				if (amountOfClosed == amountOfOpened) {
-					lastWorkingOpen = token;
-				}
-				amountOfOpened++;
-			} else if (token.isCloseBlock()) {
-				if (amountOfClosed == amountOfOpened) {
-					lastWorksBeforeClose = token;
-				}
-				amountOfClosed++;
+	@Override
+	protected void inspect(ParseToken token, ParseTokenKind kind) {
+		if (kind == ParseTokenKind.OPEN_BLOCK) {
+			if (amountOfClosed == amountOfOpened) {
+				lastWorkingOpen = token;
+			}
+			amountOfOpened++;
+		} else if (kind == ParseTokenKind.CLOSE_BLOCK) {
+			if (amountOfClosed == amountOfOpened) {
+				lastWorksBeforeClose = token;
 			}
+			amountOfClosed++;
 		}
+	}
+
+	@Override
+	protected void finishValidation(List<ValidationResult> result) {
 		if (amountOfClosed==amountOfOpened){
 			return;
 		}
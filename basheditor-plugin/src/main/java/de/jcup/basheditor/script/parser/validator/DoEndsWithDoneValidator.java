@@ -15,7 +15,7 @@
  */
 package de.jcup.basheditor.script.parser.validator;
 
-import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ParseTokenKind;
 
 public class DoEndsWithDoneValidator extends AbstractFindMissingEndStatementsValidator{
 	
@@ -23,11 +23,11 @@ public class DoEndsWithDoneValidator extends AbstractFindMissingEndStatementsVal
 		return "This 'do' is not correct closed. A 'done' is missing";
 	}
 
-	protected boolean isCloseToken(ParseToken token) {
-		return token.isDone();
+	protected ParseTokenKind getCloseTokenKind() {
+		return ParseTokenKind.DONE;
 	}
 
-	protected boolean isStartToken(ParseToken token) {
-		return token.isDo();
+	protected ParseTokenKind getStartTokenKind() {
+		return ParseTokenKind.DO;
 	}
 }
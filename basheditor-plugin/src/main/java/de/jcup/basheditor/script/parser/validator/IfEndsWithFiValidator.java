@@ -15,18 +15,18 @@
  */
 package de.jcup.basheditor.script.parser.validator;
 
-import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ParseTokenKind;
 
 public class IfEndsWithFiValidator extends AbstractFindMissingEndStatementsValidator {
 
 	@Override
-	protected boolean isStartToken(ParseToken token) {
-		return token.isIf();
+	protected ParseTokenKind getStartTokenKind() {
+		return ParseTokenKind.IF;
 	}
 
 	@Override
-	protected boolean isCloseToken(ParseToken token) {
-		return token.isFi();
+	protected ParseTokenKind getCloseTokenKind() {
+		return ParseTokenKind.FI;
 	}
 
 	@Override
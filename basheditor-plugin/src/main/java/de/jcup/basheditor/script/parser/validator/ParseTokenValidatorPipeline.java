@@ -0,0 +1,88 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser.validator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.jcup.basheditor.script.BashScriptValidator;
+import de.jcup.basheditor.script.ValidationResult;
+import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.ParseTokenKind;
+
+/**
+ * Pipeline running all added validators in one traversal of the token list.
+ * Every token is given only to the validators inspecting one of its kinds. Results are returned in order of added validators.
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class ParseTokenValidatorPipeline implements BashScriptValidator<List<ParseToken>> {
+
+	private List<AbstractParseTokenListValidator> validators = new ArrayList<>();
+	private List<List<AbstractParseTokenListValidator>> validatorsByKind = new ArrayList<>();
+	/* bitset of all kinds inspected by any validator */
+	private int inspectedKinds;
+
+	public ParseTokenValidatorPipeline() {
+		for (int i = 0; i < ParseTokenKind.values().length; i++) {
+			validatorsByKind.add(new ArrayList<>());
+		}
+	}
+
+	public void add(AbstractParseTokenListValidator validator) {
+		if (validator == null) {
+			return;
+		}
+		validators.add(validator);
+		for (ParseTokenKind kind : validator.getInspectedTokenKinds()) {
+			validatorsByKind.get(kind.ordinal()).add(validator);
+			inspectedKinds |= kind.getBit();
+		}
+	}
+
+	@Override
+	public List<ValidationResult> validate(List<ParseToken> tokens) {
+		List<ValidationResult> result = new ArrayList<ValidationResult>();
+		if (tokens == null || tokens.size() == 0 || validators.isEmpty()) {
+			return result;
+		}
+		for (AbstractParseTokenListValidator validator : validators) {
+			validator.startValidation();
+		}
+		ParseTokenKind[] allKinds = ParseTokenKind.values();
+		for (ParseToken token : tokens) {
+			if (token == null) {
+				continue;
+			}
+			int kinds = token.getKinds() & inspectedKinds;
+			while (kinds != 0) {
+				int ordinal = Integer.numberOfTrailingZeros(kinds);
+				kinds &= kinds - 1;
+
+				ParseTokenKind kind = allKinds[ordinal];
+				for (AbstractParseTokenListValidator validator : validatorsByKind.get(ordinal)) {
+					validator.inspect(token, kind);
+				}
+			}
+		}
+		for (AbstractParseTokenListValidator validator : validators) {
+			validator.finishValidation(result);
+		}
+		return result;
+	}
+
+}
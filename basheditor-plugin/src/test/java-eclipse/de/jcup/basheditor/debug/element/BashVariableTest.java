@@ -0,0 +1,110 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.debug.element;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.debug.core.model.IVariable;
+import org.junit.Test;
+
+import de.jcup.basheditor.debug.BashNetworkVariableData;
+
+/**
+ * Sorrowly not executable by gradle because of eclipse dependencies. But at
+ * least executable in eclipse environment. Tests bash variables are updated
+ * in place and mark changed values
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+public class BashVariableTest {
+
+	@Test
+	public void new_variable_is_not_changed() throws Exception {
+		/* execute */
+		BashVariable variableToTest = new BashVariable(null, scalar("X", "1"));
+
+		/* test */
+		assertFalse(variableToTest.hasValueChanged());
+		assertEquals("1", variableToTest.getValue().getValueString());
+	}
+
+	@Test
+	public void update_with_other_value_marks_changed_and_keeps_value_instance() throws Exception {
+		/* prepare */
+		BashVariable variableToTest = new BashVariable(null, scalar("X", "1"));
+		Object value = variableToTest.getValue();
+
+		/* execute */
+		boolean changed = variableToTest.update(scalar("X", "2"));
+
+		/* test */
+		assertTrue(changed);
+		assertTrue(variableToTest.hasValueChanged());
+		assertSame(value, variableToTest.getValue());
+		assertEquals("2", variableToTest.getValue().getValueString());
+	}
+
+	@Test
+	public void update_with_same_value_resets_changed() throws Exception {
+		/* prepare */
+		BashVariable variableToTest = new BashVariable(null, scalar("X", "1"));
+		variableToTest.update(scalar("X", "2"));
+
+		/* execute */
+		variableToTest.update(scalar("X", "2"));
+
+		/* test */
+		assertFalse(variableToTest.hasValueChanged());
+	}
+
+	@Test
+	public void array_elements_are_kept_by_key_and_only_changed_ones_are_marked() throws Exception {
+		/* prepare */
+		BashVariable variableToTest = new BashVariable(null, array("A", "([0]=\"a\" [1]=\"b\")", "a", "b"));
+		IVariable[] elements = variableToTest.getValue().getVariables();
+
+		/* execute */
+		variableToTest.update(array("A", "([0]=\"a\" [1]=\"c\" [2]=\"d\")", "a", "c", "d"));
+
+		/* test */
+		assertTrue(variableToTest.hasValueChanged());
+		IVariable[] updated = variableToTest.getValue().getVariables();
+		assertEquals(3, updated.length);
+		assertSame(elements[0], updated[0]);
+		assertSame(elements[1], updated[1]);
+		assertFalse(updated[0].hasValueChanged());
+		assertTrue(updated[1].hasValueChanged());
+		assertEquals("c", updated[1].getValue().getValueString());
+		assertEquals("A[2]", updated[2].getName());
+	}
+
+	private BashNetworkVariableData scalar(String name, String value) {
+		BashNetworkVariableData data = new BashNetworkVariableData(name);
+		data.setValue(value);
+		return data;
+	}
+
+	private BashNetworkVariableData array(String name, String definition, String... values) {
+		BashNetworkVariableData data = new BashNetworkVariableData(name);
+		data.defineAsArray();
+		for (String value : values) {
+			data.addArrayValue(value);
+		}
+		data.setValue(definition);
+		return data;
+	}
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.document;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITypedRegion;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Sorrowly not executable by gradle because of eclipse dependencies. But at
+ * least executable in eclipse environment. Tests bash partitioner limits
+ * rescans and continues pending parts correctly
+ *
+ * @author Albert Tregnaghi
+ *
+ */
+public class BashPartitionerTest {
+
+	private static final int MAX_RESCAN_LENGTH = 50;
+
+	private Document document;
+	private BashPartitioner partitionerToTest;
+
+	@Before
+	public void before() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			sb.append("echo \"line ").append(i).append("\" # comment\n");
+		}
+		document = new Document(sb.toString());
+		partitionerToTest = BashPartionerFactory.create();
+		partitionerToTest.setMaxRescanLength(MAX_RESCAN_LENGTH);
+		partitionerToTest.connect(document);
+		document.setDocumentPartitioner(partitionerToTest);
+	}
+
+	@Test
+	public void change_inside_line_has_no_pending_repartitioning() throws Exception {
+		/* execute */
+		document.replace(document.getLineOffset(10), 0, "ls ");
+
+		/* test */
+		assertFalse(partitionerToTest.hasPendingRepartitioning());
+		assertPartitionsAsOnFreshDocument();
+	}
+
+	@Test
+	public void unbalanced_quote_stops_rescan_after_max_rescan_length() throws Exception {
+		/* execute */
+		document.replace(document.getLineOffset(10), 0, "\"");
+
+		/* test */
+		assertTrue(partitionerToTest.hasPendingRepartitioning());
+		/* partitions at document end are still the old ones */
+		ITypedRegion lastPartition = partitionerToTest.getPartition(document.getLength() - 2);
+		assertEquals(BashDocumentIdentifiers.COMMENT.getId(), lastPartition.getType());
+	}
+
+	@Test
+	public void unbalanced_quote_continued_until_no_longer_pending_has_partitions_of_fresh_document() throws Exception {
+		/* prepare */
+		document.replace(document.getLineOffset(10), 0, "\"");
+
+		/* execute */
+		int chunks = 0;
+		while (partitionerToTest.hasPendingRepartitioning()) {
+			IRegion changed = partitionerToTest.continueRepartitioning();
+			assertNotNull(changed);
+			chunks++;
+		}
+
+		/* test */
+		assertTrue(chunks > 1);
+		assertPartitionsAsOnFreshDocument();
+	}
+
+	@Test
+	public void changes_before_and_inside_pending_part_are_handled_on_continuation() throws Exception {
+		/* prepare */
+		document.replace(document.getLineOffset(80), 0, "\"");
+		document.replace(document.getLineOffset(10), 0, "\"");
+		document.replace(document.getLineOffset(50), 0, "'");
+
+		/* execute */
+		while (partitionerToTest.hasPendingRepartitioning()) {
+			partitionerToTest.continueRepartitioning();
+		}
+
+		/* test */
+		assertPartitionsAsOnFreshDocument();
+	}
+
+	@Test
+	public void closing_quote_resynchronizes_and_ends_pending_repartitioning() throws Exception {
+		/* prepare */
+		int offset = document.getLineOffset(10);
+		document.replace(offset, 0, "\"");
+
+		/* execute */
+		document.replace(offset, 1, "");
+
+		/* test */
+		while (partitionerToTest.hasPendingRepartitioning()) {
+			partitionerToTest.continueRepartitioning();
+		}
+		assertPartitionsAsOnFreshDocument();
+	}
+
+	@Test
+	public void portable_shebang_is_a_system_keyword_partition() throws Exception {
+		/* prepare */
+		Document shebangDocument = new Document("#!/usr/bin/env bash\necho \"a\"\n");
+		BashPartitioner partitioner = BashPartionerFactory.create();
+
+		/* execute */
+		partitioner.connect(shebangDocument);
+
+		/* test */
+		ITypedRegion partition = partitioner.getPartition(0);
+		assertEquals(BashDocumentIdentifiers.BASH_SYSTEM_KEYWORD.getId(), partition.getType());
+		assertEquals(19, partition.getLength());
+	}
+
+	@Test
+	public void keywords_only_partitioner_has_no_comment_but_keyword_partitions() throws Exception {
+		/* prepare */
+		Document keywordsDocument = new Document("# comment\nif true; then\n  echo \"a\"\nfi\n");
+		BashPartitioner keywordsOnlyPartitioner = BashPartionerFactory.create(true);
+
+		/* execute */
+		keywordsOnlyPartitioner.connect(keywordsDocument);
+
+		/* test */
+		assertEquals(IDocument.DEFAULT_CONTENT_TYPE, keywordsOnlyPartitioner.getContentType(0));
+		assertNotEquals(IDocument.DEFAULT_CONTENT_TYPE, keywordsOnlyPartitioner.getContentType(10));
+		assertEquals(IDocument.DEFAULT_CONTENT_TYPE, keywordsOnlyPartitioner.getContentType(keywordsDocument.get().indexOf('"') + 1));
+	}
+
+	private void assertPartitionsAsOnFreshDocument() {
+		IDocument fresh = new Document(document.get());
+		BashPartitioner freshPartitioner = BashPartionerFactory.create();
+		freshPartitioner.connect(fresh);
+
+		ITypedRegion[] expected = freshPartitioner.computePartitioning(0, fresh.getLength());
+		ITypedRegion[] result = partitionerToTest.computePartitioning(0, document.getLength());
+
+		assertEquals(expected.length, result.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], result[i]);
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.document;
+
+import static org.junit.Assert.*;
+
+import org.eclipse.jface.text.rules.IToken;
+import org.eclipse.jface.text.rules.Token;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.jcup.basheditor.document.keywords.BashSystemKeyWords;
+import de.jcup.eclipse.commons.keyword.DocumentKeyWord;
+
+/**
+ * Sorrowly not executable by gradle because of eclipse dependencies. But at
+ * least executable in eclipse environment. Tests exact word trie rule works
+ * 
+ * @author Albert Tregnaghi
+ *
+ */
+public class ExactWordTrieRuleTest {
+
+	private IToken keyword;
+	private IToken command;
+	private ExactWordTrieRule ruleToTest;
+
+	@Before
+	public void before() {
+		keyword = new Token("keyword");
+		command = new Token("command");
+		ruleToTest = new ExactWordTrieRule();
+		ruleToTest.add("do", keyword);
+		ruleToTest.add("done", keyword);
+		ruleToTest.add("echo", command);
+	}
+
+	@Test
+	public void word_followed_by_whitespace_is_found() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("echo hello");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertEquals(command, result);
+		assertEquals(4, scanner.column);
+	}
+
+	@Test
+	public void word_at_end_of_document_is_found() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new EofCountingScanner("done");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertEquals(keyword, result);
+		assertEquals(4, scanner.column);
+	}
+
+	@Test
+	public void keyword_not_breaking_on_eof_is_found_at_end_of_document_like_by_exact_word_pattern_rule() {
+		/* prepare */
+		BashSystemKeyWords keyWord = BashSystemKeyWords.SHE_BANG_BIN;
+		assertFalse(keyWord.isBreakingOnEof());
+		ExactWordTrieRule trieRule = new ExactWordTrieRule();
+		trieRule.add(new DocumentKeyWord[] { keyWord }, keyword);
+		ExactWordPatternRule patternRule = new ExactWordPatternRule(new OnlyLettersKeyWordDetector(), keyWord.getText(), keyword, keyWord.isBreakingOnEof());
+		SimpleTestCharacterScanner trieScanner = new EofCountingScanner(keyWord.getText());
+		SimpleTestCharacterScanner patternScanner = new EofCountingScanner(keyWord.getText());
+
+		/* execute */
+		IToken trieResult = trieRule.evaluate(trieScanner);
+		IToken patternResult = patternRule.evaluate(patternScanner);
+
+		/* test */
+		assertEquals(keyword, patternResult);
+		assertEquals(keyword, trieResult);
+		assertEquals(patternScanner.column, trieScanner.column);
+	}
+
+	@Test
+	public void shortest_of_words_with_same_start_is_found_when_exact() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("do\nx");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertEquals(keyword, result);
+		assertEquals(2, scanner.column);
+	}
+
+	@Test
+	public void word_containing_whitespace_is_found() {
+		/* prepare */
+		ruleToTest.add("#!/usr/bin/env bash", keyword);
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("#!/usr/bin/env bash\necho");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertEquals(keyword, result);
+		assertEquals(19, scanner.column);
+	}
+
+	@Test
+	public void word_containing_whitespace_at_end_of_document_is_found() {
+		/* prepare */
+		ruleToTest.add("#!/usr/bin/env bash", keyword);
+		SimpleTestCharacterScanner scanner = new EofCountingScanner("#!/usr/bin/env bash");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertEquals(keyword, result);
+		assertEquals(19, scanner.column);
+	}
+
+	@Test
+	public void shorter_word_is_found_when_word_containing_whitespace_does_not_match() {
+		/* prepare */
+		ruleToTest.add("do it", command);
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("do ix");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertEquals(keyword, result);
+		assertEquals(2, scanner.column);
+	}
+
+	@Test
+	public void longer_word_is_not_found_and_scanner_is_reset() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new EofCountingScanner("doney");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertTrue(result.isUndefined());
+		assertEquals(0, scanner.column);
+	}
+
+	@Test
+	public void uncomplete_word_at_end_of_document_is_not_found_and_scanner_is_reset() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new EofCountingScanner("don");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertTrue(result.isUndefined());
+		assertEquals(0, scanner.column);
+	}
+
+	@Test
+	public void word_with_prefix_is_not_found_and_scanner_is_reset() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("xecho a");
+		scanner.column = 1;
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertTrue(result.isUndefined());
+		assertEquals(1, scanner.column);
+	}
+
+	@Test
+	public void word_after_whitespace_is_found() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("x echo a");
+		scanner.column = 2;
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner);
+
+		/* test */
+		assertEquals(command, result);
+		assertEquals(6, scanner.column);
+	}
+
+	@Test
+	public void first_added_token_wins_for_same_word() {
+		/* prepare */
+		ruleToTest.add("echo", keyword);
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("echo");
+
+		/* execute + test */
+		assertEquals(command, ruleToTest.evaluate(scanner));
+		assertEquals(keyword, ruleToTest.getSuccessToken());
+	}
+
+	@Test
+	public void resume_is_never_handled() {
+		/* prepare */
+		SimpleTestCharacterScanner scanner = new SimpleTestCharacterScanner("echo a");
+
+		/* execute */
+		IToken result = ruleToTest.evaluate(scanner, true);
+
+		/* test */
+		assertTrue(result.isUndefined());
+		assertEquals(0, scanner.column);
+	}
+
+	/**
+	 * Scanner reading EOF like eclipse scanners do - position is changed, so EOF
+	 * must be unread
+	 */
+	private class EofCountingScanner extends SimpleTestCharacterScanner {
+
+		public EofCountingScanner(String text) {
+			super(text);
+		}
+
+		@Override
+		public int read() {
+			int c = super.read();
+			if (c == EOF) {
+				column++;
+			}
+			return c;
+		}
+	}
+}
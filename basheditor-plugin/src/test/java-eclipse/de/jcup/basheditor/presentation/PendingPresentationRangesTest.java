@@ -0,0 +1,257 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.presentation;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PendingPresentationRangesTest {
+
+	private PendingPresentationRanges rangesToTest;
+	private Document document;
+
+	@Before
+	public void before() {
+		document = new Document(text(1000));
+		rangesToTest = new PendingPresentationRanges();
+		rangesToTest.setDocument(document);
+	}
+
+	@Test
+	public void empty_range_is_not_added() {
+		/* execute */
+		rangesToTest.add(10, 0);
+
+		/* test */
+		assertTrue(rangesToTest.isEmpty());
+		assertNull(rangesToTest.removeNextChunk(0, 100));
+	}
+
+	@Test
+	public void separated_ranges_are_kept_separated() {
+		/* execute */
+		rangesToTest.add(100, 50);
+		rangesToTest.add(10, 20);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(10, 20), new Region(100, 50)), rangesToTest.getRanges());
+	}
+
+	@Test
+	public void overlapping_ranges_are_merged() {
+		/* execute */
+		rangesToTest.add(100, 50);
+		rangesToTest.add(120, 100);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(100, 120)), rangesToTest.getRanges());
+	}
+
+	@Test
+	public void adjacent_ranges_are_merged() {
+		/* execute */
+		rangesToTest.add(100, 50);
+		rangesToTest.add(50, 50);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(50, 100)), rangesToTest.getRanges());
+	}
+
+	@Test
+	public void damage_reaching_past_pending_ranges_merges_all_of_them() {
+		/* prepare */
+		rangesToTest.add(100, 10);
+		rangesToTest.add(200, 10);
+		rangesToTest.add(500, 10);
+
+		/* execute */
+		rangesToTest.add(50, 200);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(50, 200), new Region(500, 10)), rangesToTest.getRanges());
+	}
+
+	@Test
+	public void damage_inside_pending_range_changes_nothing() {
+		/* prepare */
+		rangesToTest.add(100, 100);
+
+		/* execute */
+		rangesToTest.add(120, 10);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(100, 100)), rangesToTest.getRanges());
+	}
+
+	@Test
+	public void chunks_are_taken_from_start_of_range_until_range_is_gone() {
+		/* prepare */
+		rangesToTest.add(100, 250);
+
+		/* execute */
+		List<IRegion> chunks = removeAllChunks(0, 100);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(100, 100), new Region(200, 100), new Region(300, 50)), chunks);
+		assertTrue(rangesToTest.isEmpty());
+	}
+
+	@Test
+	public void range_at_or_below_visible_offset_is_presented_first() {
+		/* prepare */
+		rangesToTest.add(10, 20);
+		rangesToTest.add(500, 20);
+
+		/* execute */
+		IRegion chunk = rangesToTest.removeNextChunk(400, 100);
+
+		/* test */
+		assertEquals(new Region(500, 20), chunk);
+		assertEquals(Arrays.asList(new Region(10, 20)), rangesToTest.getRanges());
+	}
+
+	@Test
+	public void first_range_is_presented_when_all_ranges_are_above_visible_offset() {
+		/* prepare */
+		rangesToTest.add(300, 20);
+		rangesToTest.add(10, 20);
+
+		/* execute */
+		IRegion chunk = rangesToTest.removeNextChunk(900, 100);
+
+		/* test */
+		assertEquals(new Region(10, 20), chunk);
+	}
+
+	@Test
+	public void range_containing_visible_offset_is_split_and_part_above_presented_later() {
+		/* prepare */
+		rangesToTest.add(100, 300);
+
+		/* execute */
+		List<IRegion> chunks = removeAllChunks(250, 100);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(250, 100), new Region(350, 50), new Region(100, 100), new Region(200, 50)), chunks);
+	}
+
+	@Test
+	public void split_ranges_are_merged_again_by_damage_over_both() {
+		/* prepare */
+		rangesToTest.add(100, 300);
+		rangesToTest.removeNextChunk(250, 10);
+
+		/* execute */
+		rangesToTest.add(150, 200);
+
+		/* test */
+		assertEquals(Arrays.asList(new Region(100, 300)), rangesToTest.getRanges());
+	}
+
+	@Test
+	public void ranges_are_moved_by_insertion_before_them() throws Exception {
+		/* prepare */
+		rangesToTest.add(100, 50);
+
+		/* execute */
+		document.replace(10, 0, "inserted");
+
+		/* test */
+		assertEquals(new Region(108, 50), rangesToTest.removeNextChunk(0, 100));
+	}
+
+	@Test
+	public void ranges_are_resized_by_deletion_inside_them() throws Exception {
+		/* prepare */
+		rangesToTest.add(100, 50);
+
+		/* execute */
+		document.replace(110, 20, "");
+
+		/* test */
+		assertEquals(new Region(100, 30), rangesToTest.removeNextChunk(0, 100));
+	}
+
+	@Test
+	public void ranges_deleted_by_later_edit_are_removed() throws Exception {
+		/* prepare */
+		rangesToTest.add(100, 50);
+		rangesToTest.add(500, 50);
+
+		/* execute */
+		document.replace(90, 100, "");
+
+		/* test */
+		assertEquals(new Region(400, 50), rangesToTest.removeNextChunk(0, 100));
+		assertNull(rangesToTest.removeNextChunk(0, 100));
+		assertTrue(rangesToTest.isEmpty());
+	}
+
+	@Test
+	public void new_document_removes_all_ranges() throws Exception {
+		/* prepare */
+		rangesToTest.add(100, 50);
+
+		/* execute */
+		rangesToTest.setDocument(new Document(text(10)));
+
+		/* test */
+		assertTrue(rangesToTest.isEmpty());
+		assertEquals(0, document.getPositions(Document.DEFAULT_CATEGORY).length);
+	}
+
+	@Test
+	public void removed_ranges_are_removed_from_document() throws Exception {
+		/* prepare */
+		rangesToTest.add(100, 50);
+		rangesToTest.add(120, 50);
+
+		/* execute */
+		removeAllChunks(0, 100);
+
+		/* test */
+		assertEquals(0, document.getPositions(Document.DEFAULT_CATEGORY).length);
+	}
+
+	/* -------------------------------------------------------------------- */
+	/* --------------------------- Helpers -------------------------------- */
+	/* -------------------------------------------------------------------- */
+	private List<IRegion> removeAllChunks(int visibleOffset, int chunkSize) {
+		List<IRegion> chunks = new ArrayList<>();
+		IRegion chunk = null;
+		while ((chunk = rangesToTest.removeNextChunk(visibleOffset, chunkSize)) != null) {
+			chunks.add(chunk);
+		}
+		return chunks;
+	}
+
+	private String text(int length) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < length; i++) {
+			sb.append((char) ('a' + i % 26));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MarkerDiffTest {
+
+	private Map<String, MarkerData> existing;
+	private List<MarkerData> wanted;
+
+	@Before
+	public void before() {
+		existing = new LinkedHashMap<>();
+		wanted = new ArrayList<>();
+	}
+
+	@Test
+	public void unchanged_markers_are_neither_removed_nor_created() {
+		/* prepare */
+		existing.put("m1", new MarkerData(2, "error1", 1, 0, 5));
+		existing.put("m2", new MarkerData(2, "error2", 3, 10, 15));
+		wanted.add(new MarkerData(2, "error1", 1, 0, 5));
+		wanted.add(new MarkerData(2, "error2", 3, 10, 15));
+
+		/* execute */
+		MarkerDiff<String> diff = new MarkerDiff<>(existing, wanted);
+
+		/* test */
+		assertTrue(diff.isEmpty());
+	}
+
+	@Test
+	public void only_changed_markers_are_removed_and_created() {
+		/* prepare */
+		existing.put("m1", new MarkerData(2, "error1", 1, 0, 5));
+		existing.put("m2", new MarkerData(2, "error2", 3, 10, 15));
+		MarkerData moved = new MarkerData(2, "error2", 4, 20, 25);
+		wanted.add(new MarkerData(2, "error1", 1, 0, 5));
+		wanted.add(moved);
+
+		/* execute */
+		MarkerDiff<String> diff = new MarkerDiff<>(existing, wanted);
+
+		/* test */
+		assertEquals(Arrays.asList("m2"), diff.getToRemove());
+		assertEquals(Arrays.asList(moved), diff.getToCreate());
+	}
+
+	@Test
+	public void changed_severity_replaces_marker() {
+		/* prepare */
+		existing.put("m1", new MarkerData(2, "error1", 1, 0, 5));
+		MarkerData warning = new MarkerData(1, "error1", 1, 0, 5);
+		wanted.add(warning);
+
+		/* execute */
+		MarkerDiff<String> diff = new MarkerDiff<>(existing, wanted);
+
+		/* test */
+		assertEquals(Arrays.asList("m1"), diff.getToRemove());
+		assertEquals(Arrays.asList(warning), diff.getToCreate());
+	}
+
+	@Test
+	public void no_wanted_markers_removes_all_existing() {
+		/* prepare */
+		existing.put("m1", new MarkerData(2, "error1", 1, 0, 5));
+		existing.put("m2", new MarkerData(2, "error1", 1, 0, 5));
+
+		/* execute */
+		MarkerDiff<String> diff = new MarkerDiff<>(existing, wanted);
+
+		/* test */
+		assertEquals(Arrays.asList("m1", "m2"), diff.getToRemove());
+		assertTrue(diff.getToCreate().isEmpty());
+	}
+
+	@Test
+	public void wanted_markers_with_same_message_and_line_are_created_only_once() {
+		/* prepare */
+		MarkerData first = new MarkerData(2, "error1", 1, 0, 5);
+		wanted.add(first);
+		wanted.add(new MarkerData(2, "error1", 1, 7, 9));
+
+		/* execute */
+		MarkerDiff<String> diff = new MarkerDiff<>(existing, wanted);
+
+		/* test */
+		assertEquals(Arrays.asList(first), diff.getToCreate());
+	}
+
+	@Test
+	public void duplicated_existing_marker_is_kept_only_once() {
+		/* prepare */
+		existing.put("m1", new MarkerData(2, "error1", 1, 0, 5));
+		existing.put("m2", new MarkerData(2, "error1", 1, 0, 5));
+		wanted.add(new MarkerData(2, "error1", 1, 0, 5));
+
+		/* execute */
+		MarkerDiff<String> diff = new MarkerDiff<>(existing, wanted);
+
+		/* test */
+		assertEquals(Arrays.asList("m2"), diff.getToRemove());
+		assertTrue(diff.getToCreate().isEmpty());
+	}
+
+	@Test
+	public void line_numbers_lower_than_one_are_same_as_line_one() {
+		/* prepare */
+		existing.put("m1", new MarkerData(2, "error1", 1, 0, 5));
+		wanted.add(new MarkerData(2, "error1", 0, 0, 5));
+
+		/* execute */
+		MarkerDiff<String> diff = new MarkerDiff<>(existing, wanted);
+
+		/* test */
+		assertTrue(diff.isEmpty());
+	}
+
+	@Test
+	public void marker_data_line_numbers_lower_than_one_are_line_one() {
+		/* execute + test */
+		assertEquals(1, new MarkerData(2, "error1", 0, 0, 5).getLineNumber());
+		assertEquals(1, new MarkerData(2, "error1", -1, 0, 5).getLineNumber());
+		assertEquals(2, new MarkerData(2, "error1", 2, 0, 5).getLineNumber());
+	}
+}
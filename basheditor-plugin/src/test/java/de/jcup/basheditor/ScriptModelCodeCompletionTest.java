@@ -0,0 +1,144 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.jcup.basheditor.ScriptModelProposal.Kind;
+import de.jcup.basheditor.script.BashScriptModel;
+import de.jcup.basheditor.script.BashScriptModelBuilder;
+
+public class ScriptModelCodeCompletionTest {
+
+	private static final String SCRIPT = "count=1\ncolor=red\nfunction calc(){\n  local counter=2\n  echo $co\n}\nfunction cleanup(){\n  echo done\n}\ndecor=1\n";
+
+	private ScriptModelCodeCompletion completionToTest;
+	private BashScriptModel model;
+
+	@Before
+	public void before() throws Exception {
+		completionToTest = new ScriptModelCodeCompletion();
+		model = new BashScriptModelBuilder().build(SCRIPT);
+	}
+
+	@Test
+	public void no_model_results_in_no_proposals() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(null, "c", 0);
+
+		/* test */
+		assertTrue(result.isEmpty());
+	}
+
+	@Test
+	public void inside_function_local_variables_are_ranked_before_globals_and_functions() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(model, "c", offsetOf("$co"));
+
+		/* test */
+		assertEquals(Kind.LOCAL_VARIABLE, result.get(0).getKind());
+		assertEquals("counter", result.get(0).getName());
+		assertTrue(names(result).indexOf("count") < names(result).indexOf("calc"));
+		assertEquals(Kind.FUNCTION, result.get(result.size() - 1).getKind());
+	}
+
+	@Test
+	public void outside_function_local_variables_are_not_proposed() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(model, "c", SCRIPT.length());
+
+		/* test */
+		assertFalse(names(result).contains("counter"));
+		assertTrue(names(result).contains("count"));
+		assertTrue(names(result).contains("cleanup"));
+	}
+
+	@Test
+	public void globals_of_same_scope_are_ranked_by_distance_to_caret() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(model, "co", offsetOf("color") + 2);
+
+		/* test */
+		assertEquals("color", result.get(0).getName());
+		assertEquals("count", result.get(1).getName());
+	}
+
+	@Test
+	public void dollar_prefix_proposes_only_variables_and_keeps_prefix() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(model, "$c", SCRIPT.length());
+
+		/* test */
+		assertEquals(3, result.size());
+		for (ScriptModelProposal proposal : result) {
+			assertEquals(Kind.GLOBAL_VARIABLE, proposal.getKind());
+			assertEquals("$" + proposal.getName(), proposal.getReplacement());
+		}
+	}
+
+	@Test
+	public void dollar_curly_bracket_prefix_closes_bracket_in_replacement() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(model, "${cou", SCRIPT.length());
+
+		/* test */
+		assertEquals(1, result.size());
+		assertEquals("${count}", result.get(0).getReplacement());
+	}
+
+	@Test
+	public void names_starting_with_wanted_are_ranked_before_names_only_containing_it() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(model, "co", SCRIPT.length());
+
+		/* test - decor is nearest to caret but only contains wanted text */
+		assertEquals(names(result).toString(), "decor", result.get(2).getName());
+	}
+
+	@Test
+	public void wanted_matches_case_insensitive_and_exact_name_is_not_proposed() {
+		/* execute */
+		List<ScriptModelProposal> result = completionToTest.calculate(model, "COUNT", SCRIPT.length());
+
+		/* test */
+		assertEquals(names(result).toString(), 1, result.size());
+		assertEquals("count", result.get(0).getName());
+
+		/* execute */
+		result = completionToTest.calculate(model, "count", SCRIPT.length());
+
+		/* test */
+		assertTrue(names(result).toString(), result.isEmpty());
+	}
+
+	private int offsetOf(String text) {
+		return SCRIPT.indexOf(text);
+	}
+
+	private List<String> names(List<ScriptModelProposal> proposals) {
+		List<String> names = new ArrayList<>();
+		for (ScriptModelProposal proposal : proposals) {
+			names.add(proposal.getName());
+		}
+		return names;
+	}
+}
@@ -18,6 +18,8 @@ package de.jcup.basheditor;
 import static de.jcup.basheditor.AssertSimpleWordCodeCompletionResult.assertResult;
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -256,4 +258,57 @@ public class SimpleWordCodeCompletionTest {
 		assertResult(result).hasResults("albert");
 		
 	}
+	
+	@Test
+	public void changed_source_is_used_for_next_calculation() {
+		/* prepare */
+		completionToTest.calculate("albert alpha", 1);
+		
+		/* execute */
+		Set<String> result = completionToTest.calculate("a andreas", 1);
+		
+		/* test */
+		assertResult(result).hasResults("andreas");
+	}
+	
+	@Test
+	public void additional_words_added_after_reset_are_used_for_same_source() {
+		/* prepare */
+		completionToTest.calculate("a albert", 1);
+		completionToTest.reset();
+		completionToTest.add("anna");
+		
+		/* execute */
+		Set<String> result = completionToTest.calculate("a albert", 1);
+		
+		/* test */
+		assertResult(result).hasResults("albert","anna");
+	}
+	
+	@Test
+	public void words_of_index_and_immutable_index_are_merged_in_order_without_duplicates() {
+		/* prepare */
+		SimpleWordIndex index = new SimpleWordIndex(Arrays.asList("echo", "becho", "each"));
+		SortedWordIndex immutableIndex = new SortedWordIndex(Arrays.asList("ed", "echo", "exit", "sed"));
+		
+		/* execute */
+		Set<String> result = completionToTest.calculate(index, immutableIndex, "e", 1);
+		
+		/* test */
+		assertEquals(Arrays.asList("each", "echo", "ed", "exit", "becho", "sed"), new ArrayList<>(result));
+	}
+	
+	@Test
+	public void immutable_index_is_merged_completely_when_nothing_typed() {
+		/* prepare */
+		SimpleWordIndex index = new SimpleWordIndex(Arrays.asList("zeta", "alpha"));
+		SortedWordIndex immutableIndex = new SortedWordIndex(Arrays.asList("beta", "alpha"));
+		
+		/* execute */
+		Set<String> result = completionToTest.calculate(index, immutableIndex, "", 0);
+		
+		/* test */
+		assertEquals(Arrays.asList("alpha", "beta", "zeta"), new ArrayList<>(result));
+		assertEquals(2, immutableIndex.getWords().size());
+	}
 }
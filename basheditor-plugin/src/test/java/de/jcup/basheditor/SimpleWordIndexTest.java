@@ -0,0 +1,197 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class SimpleWordIndexTest {
+
+	@Test
+	public void prefix_matches_are_returned_before_substring_matches() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex(Arrays.asList("sarah", "albert", "nicole", "andreas"));
+
+		/* execute */
+		Set<String> result = indexToTest.filter("a");
+
+		/* test */
+		assertEquals(Arrays.asList("albert", "andreas", "sarah"), new ArrayList<>(result));
+	}
+
+	@Test
+	public void filter_is_case_insensitive() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex(Arrays.asList("ALBERT", "Albatros", "calBack", "other"));
+
+		/* execute */
+		Set<String> result = indexToTest.filter("alB");
+
+		/* test */
+		assertEquals(Arrays.asList("ALBERT", "Albatros", "calBack"), new ArrayList<>(result));
+	}
+
+	@Test
+	public void long_wanted_text_finds_only_words_containing_complete_text() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex(Arrays.asList("function_one", "fun_ction", "my_function", "functio"));
+
+		/* execute */
+		Set<String> result = indexToTest.filter("function");
+
+		/* test */
+		assertEquals(Arrays.asList("function_one", "my_function"), new ArrayList<>(result));
+	}
+
+	@Test
+	public void wanted_itself_is_not_returned() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex(Arrays.asList("albert", "alb"));
+
+		/* execute */
+		Set<String> result = indexToTest.filter("alb");
+
+		/* test */
+		assertEquals(Arrays.asList("albert"), new ArrayList<>(result));
+	}
+
+	@Test
+	public void empty_and_null_words_are_ignored() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex(Arrays.asList("", null, "albert"));
+
+		/* test */
+		assertEquals(Arrays.asList("albert"), new ArrayList<>(indexToTest.getWords()));
+	}
+
+	@Test
+	public void unknown_text_returns_empty_result() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex(Arrays.asList("albert", "andreas"));
+
+		/* test */
+		assertTrue(indexToTest.filter("xyz").isEmpty());
+		assertTrue(indexToTest.filter("albertx").isEmpty());
+	}
+
+	@Test
+	public void word_added_twice_must_be_removed_twice() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex();
+		indexToTest.add("albert");
+		indexToTest.add("albert");
+
+		/* execute */
+		indexToTest.remove("albert");
+
+		/* test */
+		assertTrue(indexToTest.contains("albert"));
+		assertEquals(Arrays.asList("albert"), new ArrayList<>(indexToTest.filter("al")));
+
+		/* execute */
+		indexToTest.remove("albert");
+
+		/* test */
+		assertFalse(indexToTest.contains("albert"));
+		assertTrue(indexToTest.filter("al").isEmpty());
+		assertTrue(indexToTest.getWords().isEmpty());
+	}
+
+	@Test
+	public void words_added_after_removal_are_found_in_natural_order() {
+		/* prepare */
+		SimpleWordIndex indexToTest = new SimpleWordIndex(Arrays.asList("alpha", "beta", "gamma"));
+		indexToTest.remove("alpha");
+
+		/* execute */
+		indexToTest.add("zeta_a");
+		indexToTest.add("aaa");
+
+		/* test */
+		assertEquals(Arrays.asList("aaa", "beta", "gamma", "zeta_a"), new ArrayList<>(indexToTest.filter("a")));
+	}
+
+	@Test
+	public void random_words_are_filtered_like_linear_search() {
+		/* prepare */
+		Random random = new Random(4711);
+		List<String> words = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			words.add(randomWord(random));
+		}
+		SimpleWordIndex indexToTest = new SimpleWordIndex(words);
+		/* remove and add again, so ids are reused */
+		for (int i = 0; i < 500; i++) {
+			String word = words.remove(random.nextInt(words.size()));
+			if (!words.contains(word)) {
+				indexToTest.remove(word);
+			}
+		}
+		for (int i = 0; i < 200; i++) {
+			String word = randomWord(random);
+			if (!words.contains(word)) {
+				indexToTest.add(word);
+			}
+			words.add(word);
+		}
+
+		for (int i = 0; i < 500; i++) {
+			String wanted = randomWord(random).substring(0, 1 + random.nextInt(5));
+
+			/* execute */
+			Set<String> result = indexToTest.filter(wanted);
+
+			/* test */
+			assertEquals(wanted, new ArrayList<>(linearFilter(new TreeSet<>(words), wanted)), new ArrayList<>(result));
+		}
+	}
+
+	private String randomWord(Random random) {
+		String chars = "abcAB_1";
+		StringBuilder sb = new StringBuilder();
+		int length = 5 + random.nextInt(6);
+		for (int i = 0; i < length; i++) {
+			sb.append(chars.charAt(random.nextInt(chars.length())));
+		}
+		return sb.toString();
+	}
+
+	private Set<String> linearFilter(TreeSet<String> allWords, String wanted) {
+		LinkedHashSet<String> filtered = new LinkedHashSet<>();
+		LinkedHashSet<String> addAfterEnd = new LinkedHashSet<>();
+		String wantedLowerCase = wanted.toLowerCase();
+		for (String word : allWords) {
+			String wordLowerCase = word.toLowerCase();
+			if (wordLowerCase.startsWith(wantedLowerCase)) {
+				filtered.add(word);
+			} else if (wordLowerCase.indexOf(wantedLowerCase) != -1) {
+				addAfterEnd.add(word);
+			}
+		}
+		filtered.addAll(addAfterEnd);
+		filtered.remove(wanted);
+		return filtered;
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SimpleWordLineIndexerTest {
+
+	private SimpleWordIndex index;
+	private SimpleWordLineIndexer indexerToTest;
+
+	@Before
+	public void before() {
+		index = new SimpleWordIndex();
+		indexerToTest = new SimpleWordLineIndexer(index, new SimpleWordListBuilder());
+	}
+
+	@Test
+	public void reset_adds_words_of_all_lines() {
+		/* execute */
+		indexerToTest.reset("echo alpha\necho beta");
+
+		/* test */
+		assertEquals(Arrays.asList("alpha", "beta", "echo"), new ArrayList<>(index.getWords()));
+		assertEquals(2, indexerToTest.getLineCount());
+	}
+
+	@Test
+	public void word_still_used_by_other_line_is_kept_when_line_is_replaced() {
+		/* prepare */
+		indexerToTest.reset("echo alpha\necho beta");
+
+		/* execute */
+		replaceLines(0, 1, "gamma");
+
+		/* test */
+		assertEquals(Arrays.asList("beta", "echo", "gamma"), new ArrayList<>(index.getWords()));
+	}
+
+	@Test
+	public void removed_lines_remove_their_words() {
+		/* prepare */
+		indexerToTest.reset("a\r\nb\rc\nd");
+
+		/* execute */
+		replaceLines(1, 2, "x");
+
+		/* test */
+		assertEquals(Arrays.asList("a", "d", "x"), new ArrayList<>(index.getWords()));
+		assertEquals(3, indexerToTest.getLineCount());
+	}
+
+	@Test
+	public void clear_removes_only_words_of_indexer() {
+		/* prepare */
+		index.add("keyword");
+		indexerToTest.reset("keyword other");
+
+		/* execute */
+		indexerToTest.clear();
+
+		/* test */
+		assertEquals(Arrays.asList("keyword"), new ArrayList<>(index.getWords()));
+	}
+
+	@Test
+	public void text_with_line_delimiters_replaces_by_multiple_lines() {
+		/* prepare */
+		indexerToTest.reset("a\nb");
+
+		/* execute */
+		replaceLines(1, 1, "x\r\ny\n");
+
+		/* test */
+		assertEquals(Arrays.asList("a", "x", "y"), new ArrayList<>(index.getWords()));
+		assertEquals(4, indexerToTest.getLineCount());
+	}
+
+	@Test
+	public void only_given_part_of_source_is_indexed() {
+		/* prepare */
+		indexerToTest.reset("a");
+
+		/* execute */
+		indexerToTest.replaceLines(0, 1, "before middle after", 7, 13);
+
+		/* test */
+		assertEquals(Arrays.asList("middle"), new ArrayList<>(index.getWords()));
+	}
+
+	@Test
+	public void random_line_changes_result_in_same_words_as_complete_rebuild() {
+		/* prepare */
+		Random random = new Random(42);
+		List<String> lines = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			lines.add(randomLine(random));
+		}
+		indexerToTest.reset(String.join("\n", lines));
+
+		for (int i = 0; i < 300; i++) {
+			int firstLine = random.nextInt(lines.size());
+			int removed = 1 + random.nextInt(Math.min(3, lines.size() - firstLine));
+			List<String> newLines = new ArrayList<>();
+			int added = 1 + random.nextInt(3);
+			for (int j = 0; j < added; j++) {
+				newLines.add(randomLine(random));
+			}
+
+			/* execute */
+			replaceLines(firstLine, removed, String.join("\n", newLines));
+
+			/* test */
+			lines.subList(firstLine, firstLine + removed).clear();
+			lines.addAll(firstLine, newLines);
+			SimpleWordIndex expected = new SimpleWordIndex();
+			new SimpleWordLineIndexer(expected, new SimpleWordListBuilder()).reset(String.join("\n", lines));
+			assertEquals(expected.getWords(), index.getWords());
+			assertEquals(lines.size(), indexerToTest.getLineCount());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void replace_after_last_line_is_not_possible() {
+		/* execute */
+		replaceLines(1, 0, "a");
+	}
+
+	private void replaceLines(int firstLine, int removedLineCount, String text) {
+		indexerToTest.replaceLines(firstLine, removedLineCount, text, 0, text.length());
+	}
+
+	private String randomLine(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int words = random.nextInt(4);
+		for (int i = 0; i < words; i++) {
+			sb.append("w").append(random.nextInt(20)).append(' ');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SortedWordIndexTest {
+
+	@Test
+	public void words_are_trimmed_sorted_and_distinct() {
+		/* execute */
+		SortedWordIndex indexToTest = new SortedWordIndex(Arrays.asList("if ", "echo", null, " ", "if", "case"));
+
+		/* test */
+		assertEquals(Arrays.asList("case", "echo", "if"), new ArrayList<>(indexToTest.getWords()));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void words_cannot_be_changed() {
+		/* prepare */
+		SortedWordIndex indexToTest = new SortedWordIndex(Arrays.asList("echo"));
+
+		/* execute */
+		indexToTest.getWords().add("other");
+	}
+
+	@Test
+	public void filter_returns_words_starting_with_wanted_first_and_never_wanted_itself() {
+		/* prepare */
+		SortedWordIndex indexToTest = new SortedWordIndex(Arrays.asList("sed", "Echo", "echo", "ed", "exit"));
+
+		/* execute + test */
+		assertEquals(Arrays.asList("Echo", "echo", "ed", "exit", "sed"), new ArrayList<>(indexToTest.filter("e")));
+		assertEquals(Arrays.asList("Echo"), new ArrayList<>(indexToTest.filter("echo")));
+	}
+
+	@Test
+	public void filter_returns_same_result_as_simple_word_index() {
+		/* prepare */
+		List<String> words = Arrays.asList("alpha", "Alpha", "beta", "gamma", "ALPHABET", "zalpha", "delta");
+		SortedWordIndex indexToTest = new SortedWordIndex(words);
+		SimpleWordIndex simpleIndex = new SimpleWordIndex(words);
+
+		/* execute + test */
+		for (String wanted : Arrays.asList("a", "al", "ALP", "lpha", "eta", "x", "")) {
+			assertEquals(wanted, new ArrayList<>(simpleIndex.filter(wanted)), new ArrayList<>(indexToTest.filter(wanted)));
+		}
+	}
+}
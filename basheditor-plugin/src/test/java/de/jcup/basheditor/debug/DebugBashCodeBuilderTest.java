@@ -19,6 +19,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -32,18 +36,6 @@ public class DebugBashCodeBuilderTest {
 		builderToTest = new DebugBashCodeBuilder();
 	}
 
-	@Test
-	public void buildSafeArrayValue() {
-		/* test */
-		assertEquals("", builderToTest.buildSafeArrayValue(null));
-		assertEquals("", builderToTest.buildSafeArrayValue("("));
-		assertEquals("", builderToTest.buildSafeArrayValue(""));
-		assertEquals("", builderToTest.buildSafeArrayValue(")"));
-		assertEquals("6", builderToTest.buildSafeArrayValue("6"));
-		assertEquals("6", builderToTest.buildSafeArrayValue("\"6\""));
-		assertEquals("-d", builderToTest.buildSafeArrayValue("\"-d\""));
-	}
-	
 	@Test
 	public void command_and_trap_function_are_defined() {
 		/* test */
@@ -53,7 +45,7 @@ public class DebugBashCodeBuilderTest {
 
 	@Test
 	public void remote_command_is_correct_build_for_defaults() {
-		assertEquals("set >&33 ; echo $'\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x09' >&33 ; read -u 33 " + builderToTest.getNameOfDebugCommand() + "\n",
+		assertEquals(":; declare -p BASH_LINENO FUNCNAME BASH_SOURCE >&33 2>/dev/null ; echo _________DEBUG_END >&33\n",
 
 				builderToTest.buildRemoteDebugCommand());
 	}
@@ -65,11 +57,44 @@ public class DebugBashCodeBuilderTest {
 		builderToTest.setFileDescriptor(77);
 
 		/* test */
-		assertEquals("set >&77 ; echo $'\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x0A\\\\x09' >&77 ; read -u 77 " + builderToTest.getNameOfDebugCommand() + "\n",
+		assertEquals(":; declare -p BASH_LINENO FUNCNAME BASH_SOURCE >&77 2>/dev/null ; echo _________DEBUG_END >&77\n",
 
 				builderToTest.buildRemoteDebugCommand());
 	}
 
+	@Test
+	public void variables_query_command_prints_all_variables_without_releasing_bash() {
+		assertEquals(":; set >&33 ; echo _________DEBUG_END >&33\n",
+
+				builderToTest.buildVariablesQueryCommand());
+	}
+
+	@Test
+	public void variable_query_command_prints_only_wanted_variable() {
+		assertEquals(":; declare -p MY_VAR1 >&33 2>/dev/null ; echo _________DEBUG_END >&33\n",
+
+				builderToTest.buildVariableQueryCommand("MY_VAR1"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void variable_query_command_for_invalid_name_is_not_built() {
+		builderToTest.buildVariableQueryCommand("X;rm -rf /");
+	}
+
+	@Test
+	public void valid_variable_names() {
+		/* test */
+		assertTrue(builderToTest.isValidVariableName("x"));
+		assertTrue(builderToTest.isValidVariableName("_x1"));
+		assertTrue(builderToTest.isValidVariableName("BASH_SOURCE"));
+		assertFalse(builderToTest.isValidVariableName(null));
+		assertFalse(builderToTest.isValidVariableName(""));
+		assertFalse(builderToTest.isValidVariableName("1x"));
+		assertFalse(builderToTest.isValidVariableName("x y"));
+		assertFalse(builderToTest.isValidVariableName("$(ls)"));
+		assertFalse(builderToTest.isValidVariableName("x[0]"));
+	}
+
 	@Test
 	public void hostname_and_port_parameters_are_inside_script_default_filedescriptor_choosen_is_33() {
 
@@ -83,14 +108,78 @@ public class DebugBashCodeBuilderTest {
 			contains(line++, "function "+builderToTest.getNameOfTrapFunction()+"()").
 			contains(line++, "{").
 			contains(line++, "local "+builderToTest.getNameOfDebugCommand()).
+			contains(line++, "if (( _________DEBUG_RESUMED )); then").
+			contains(line++, "while read -t 0 -u 33; do").
+			contains(line++, "read -u 33 "+builderToTest.getNameOfDebugCommand()).
+			contains(line++, "eval \"$"+builderToTest.getNameOfDebugCommand()+"\"").
+			contains(line++, "done").
+			contains(line++, "if (( _________DEBUG_RESUMED && ${#BASH_LINENO[@]} != _________DEBUG_STOP_DEPTH )) && [[ $_________DEBUG_BREAKPOINTS != *\"|${BASH_SOURCE[1]}:${BASH_LINENO[0]}|\"* ]]; then").
+			contains(line++, "return").
+			contains(line++, "fi").
+			contains(line++, "_________DEBUG_RESUMED=0").
+			contains(line++, "fi").
+			contains(line++, "echo "+builderToTest.getStoppedMessage()+" >&33").
 			contains(line++, "read -u 33 "+builderToTest.getNameOfDebugCommand()).
-			contains(line++, "eval $"+builderToTest.getNameOfDebugCommand()).
+			contains(line++, "while [[ $"+builderToTest.getNameOfDebugCommand()+" == \":;\"* ]]; do").
+			contains(line++, "eval \"$"+builderToTest.getNameOfDebugCommand()+"\"").
+			contains(line++, "read -u 33 "+builderToTest.getNameOfDebugCommand()).
+			contains(line++, "done").
+			contains(line++, "eval \"$"+builderToTest.getNameOfDebugCommand()+"\"").
 			contains(line++, "}").
+			contains(line++, "_________DEBUG_RESUMED=0").
+			contains(line++, "_________DEBUG_STOP_DEPTH=-1").
+			contains(line++, "_________DEBUG_BREAKPOINTS=").
 			contains(line++, "set -o functrace").
 			contains(line++, "trap "+builderToTest.getNameOfTrapFunction()+" DEBUG");
 		/* @formatter:on*/
 	}
 
+	@Test
+	public void resume_command_contains_breakpoint_locations_and_stop_depth() {
+		/* prepare */
+		List<String> locations = Arrays.asList(builderToTest.buildBreakpointLocation("a.sh", 3), builderToTest.buildBreakpointLocation("lib/b.sh", 12));
+
+		/* execute */
+		String result = builderToTest.buildResumeCommand(locations, 2);
+
+		/* test */
+		assertEquals("_________DEBUG_BREAKPOINTS='|a.sh:3|lib/b.sh:12|' ; _________DEBUG_STOP_DEPTH=2 ; _________DEBUG_RESUMED=1\n", result);
+	}
+
+	@Test
+	public void resume_command_without_breakpoints_and_stop_depth() {
+		/* execute */
+		String result = builderToTest.buildResumeCommand(Collections.emptyList(), -1);
+
+		/* test */
+		assertEquals("_________DEBUG_BREAKPOINTS='|' ; _________DEBUG_STOP_DEPTH=-1 ; _________DEBUG_RESUMED=1\n", result);
+	}
+
+	@Test
+	public void breakpoint_locations_with_quotes_and_backslashes_are_escaped() {
+		/* execute */
+		String result = builderToTest.buildBreakpointsChangedCommand(Arrays.asList("it's\\my.sh:1"));
+
+		/* test */
+		assertEquals(":; _________DEBUG_BREAKPOINTS='|it'\\''s\\\\my.sh:1|'\n", result);
+	}
+
+	@Test
+	public void suspend_and_terminate_commands_are_asynchronous() {
+		/* test */
+		assertEquals(":; _________DEBUG_RESUMED=0\n", builderToTest.buildSuspendCommand());
+		assertEquals(":; exit 0\n", builderToTest.buildTerminateCommand());
+	}
+
+	@Test
+	public void debug_variables_are_recognized() {
+		/* test */
+		assertTrue(builderToTest.isDebugVariable(builderToTest.getNameOfDebugCommand()));
+		assertTrue(builderToTest.isDebugVariable("_________DEBUG_RESUMED"));
+		assertFalse(builderToTest.isDebugVariable("BASH_LINENO"));
+		assertFalse(builderToTest.isDebugVariable(null));
+	}
+
 	private static AssertResult assertLines(String code) {
 		return new AssertResult(code);
 	}
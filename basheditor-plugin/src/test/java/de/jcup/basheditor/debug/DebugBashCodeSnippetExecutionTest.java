@@ -0,0 +1,192 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.debug;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the debug code snippet inside a real bash and plays the eclipse side of
+ * the protocol - like the bash debugger does.
+ */
+public class DebugBashCodeSnippetExecutionTest {
+
+	private static final File BASH = new File("/bin/bash");
+
+	private DebugBashCodeBuilder builder;
+	private ServerSocketChannel serverSocketChannel;
+	private SocketChannel socketChannel;
+	private DebugResponseReader reader;
+	private Process process;
+	private File scriptFile;
+	private File outputFile;
+
+	@Before
+	public void before() throws Exception {
+		assumeTrue(BASH.canExecute());
+		builder = new DebugBashCodeBuilder();
+		serverSocketChannel = ServerSocketChannel.open();
+		serverSocketChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		scriptFile = File.createTempFile("debug_snippet", ".sh");
+		outputFile = File.createTempFile("debug_snippet", ".out");
+	}
+
+	@After
+	public void after() throws Exception {
+		if (process != null) {
+			process.destroyForcibly();
+		}
+		if (socketChannel != null) {
+			socketChannel.close();
+		}
+		if (serverSocketChannel != null) {
+			serverSocketChannel.close();
+		}
+		if (scriptFile != null) {
+			scriptFile.delete();
+		}
+		if (outputFile != null) {
+			outputFile.delete();
+		}
+	}
+
+	@Test(timeout = 20000)
+	public void resume_after_step_into_command_substitution_runs_script_to_end() throws Exception {
+		/* prepare */
+		startDebugging("echo start\nfor i in $(seq 1 3); do\n  echo $i\ndone\n");
+		assertTrue(waitForStop());
+		assertNotNull(queryLocation());
+		step();
+		assertTrue(waitForStop());
+		assertNotNull(queryLocation());
+
+		/* execute */
+		resume();
+
+		/* test */
+		continueUntilEnd();
+		assertEquals(0, process.waitFor());
+		assertEquals("start\n1\n2\n3\n", new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test(timeout = 20000)
+	public void resume_inside_pipe_runs_script_to_end() throws Exception {
+		/* prepare */
+		startDebugging("echo start\necho a | cat\necho end\n");
+		assertTrue(waitForStop());
+		assertNotNull(queryLocation());
+		step();
+		assertTrue(waitForStop());
+		assertNotNull(queryLocation());
+
+		/* execute */
+		resume();
+
+		/* test */
+		continueUntilEnd();
+		assertEquals(0, process.waitFor());
+		assertEquals("start\na\nend\n", new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test(timeout = 20000)
+	public void every_step_inside_command_substitution_stops_again() throws Exception {
+		/* prepare */
+		startDebugging("x=$(echo inner)\necho $x\n");
+
+		/* execute */
+		int stops = 0;
+		while (waitForStop()) {
+			assertNotNull(queryLocation());
+			stops++;
+			step();
+		}
+
+		/* test */
+		assertTrue("stops:" + stops, stops >= 3);
+		assertEquals(0, process.waitFor());
+		assertEquals("inner\n", new String(Files.readAllBytes(outputFile.toPath()), StandardCharsets.UTF_8));
+	}
+
+	/* -------------------------------------------------------------------- */
+	/* --------------------------- Helpers -------------------------------- */
+	/* -------------------------------------------------------------------- */
+	private void startDebugging(String script) throws IOException {
+		String code = builder.buildDebugBashCodeSnippet() + script;
+		Files.write(scriptFile.toPath(), code.getBytes(StandardCharsets.UTF_8));
+
+		int port = ((InetSocketAddress) serverSocketChannel.getLocalAddress()).getPort();
+		ProcessBuilder pb = new ProcessBuilder(BASH.getAbsolutePath(), scriptFile.getAbsolutePath(), "localhost", String.valueOf(port));
+		pb.redirectOutput(outputFile);
+		pb.redirectError(ProcessBuilder.Redirect.INHERIT);
+		process = pb.start();
+
+		socketChannel = serverSocketChannel.accept();
+		reader = new DebugResponseReader(socketChannel);
+	}
+
+	/**
+	 * Same as bash debugger: a stopped bash reports its location, when not
+	 * stopping there (no breakpoints, no stop depth) it is resumed again
+	 */
+	private void continueUntilEnd() throws IOException {
+		while (waitForStop()) {
+			assertNotNull(queryLocation());
+			resume();
+		}
+	}
+
+	private boolean waitForStop() throws IOException {
+		String line = null;
+		while ((line = reader.readLine()) != null) {
+			if (line.equals(builder.getStoppedMessage())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private List<String> queryLocation() throws IOException {
+		write(builder.buildRemoteDebugCommand());
+		return reader.readLinesUntil(builder.getEndOfResponseMessage());
+	}
+
+	private void step() throws IOException {
+		write("\n");
+	}
+
+	private void resume() throws IOException {
+		write(builder.buildResumeCommand(Collections.emptyList(), -1));
+	}
+
+	private void write(String command) throws IOException {
+		socketChannel.write(StandardCharsets.UTF_8.encode(command));
+	}
+}
@@ -28,7 +28,7 @@ import de.jcup.basheditor.debug.launch.OSUtil;
 
 public class DebugBashCodeToggleSupportTest {
 
-	private static final String BASE_EXPECTED_DEBUG_ENABLED_CODE = "source "+OSUtil.toUnixPath(System.getProperty("user.home")+"/.basheditor/remote-debugging-v1.sh");
+	private static final String BASE_EXPECTED_DEBUG_ENABLED_CODE = "source "+OSUtil.toUnixPath(System.getProperty("user.home")+"/.basheditor/remote-debugging-v3.sh");
 	private static final String EXPECTED_DEBUG_ENABLED_CODE = BASE_EXPECTED_DEBUG_ENABLED_CODE+" localhost "+BashDebugConstants.DEFAULT_DEBUG_PORT+" #BASHEDITOR-TMP-REMOTE-DEBUGGING-END";
 	private DebugBashCodeToggleSupport supportToTest;
 
@@ -116,7 +116,7 @@ public class DebugBashCodeToggleSupportTest {
 	@Test
 	public void enable_debugging_will_automatically_create_debug_bash_code_file_which_contains_data_of_code_builder() throws Exception {
 		/* prepare */
-		File file = new File(System.getProperty("user.home"),"/.basheditor/remote-debugging-v1.sh");
+		File file = new File(System.getProperty("user.home"),"/.basheditor/remote-debugging-v3.sh");
 		if (file.exists()) {
 			file.delete();
 		}
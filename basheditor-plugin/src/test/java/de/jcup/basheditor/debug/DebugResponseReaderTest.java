@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.debug;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class DebugResponseReaderTest {
+
+	private static final String END = "_________DEBUG_END";
+
+	@Test
+	public void lines_until_terminator_are_returned() throws Exception {
+		/* prepare */
+		DebugResponseReader readerToTest = createReader("A=1\nB=([0]=\"x\")\n" + END + "\n", 4);
+
+		/* execute */
+		List<String> result = readerToTest.readLinesUntil(END);
+
+		/* test */
+		assertEquals(Arrays.asList("A=1", "B=([0]=\"x\")"), result);
+	}
+
+	@Test
+	public void responses_are_read_one_after_another() throws Exception {
+		/* prepare */
+		DebugResponseReader readerToTest = createReader("A=1\n" + END + "\n_________DEBUG_STOPPED\nB=2\n" + END + "\n", 3);
+
+		/* execute + test */
+		assertEquals(Arrays.asList("A=1"), readerToTest.readLinesUntil(END));
+		assertEquals("_________DEBUG_STOPPED", readerToTest.readLine());
+		assertEquals(Arrays.asList("B=2"), readerToTest.readLinesUntil(END));
+		assertNull(readerToTest.readLine());
+	}
+
+	@Test
+	public void response_bigger_than_buffer_and_old_limit_is_not_truncated() throws Exception {
+		/* prepare */
+		StringBuilder sb = new StringBuilder();
+		StringBuilder longValue = new StringBuilder();
+		for (int i = 0; i < 50000; i++) {
+			sb.append("VAR").append(i).append("=value").append(i).append('\n');
+			longValue.append('x');
+		}
+		sb.append("LONG=").append(longValue).append('\n');
+		sb.append(END).append('\n');
+		DebugResponseReader readerToTest = createReader(sb.toString(), DebugResponseReader.DEFAULT_BUFFER_SIZE);
+
+		/* execute */
+		List<String> result = readerToTest.readLinesUntil(END);
+
+		/* test */
+		assertEquals(50001, result.size());
+		assertEquals("VAR49999=value49999", result.get(49999));
+		assertEquals(50005, result.get(50000).length());
+	}
+
+	@Test
+	public void end_of_stream_before_terminator_returns_null() throws Exception {
+		/* prepare */
+		DebugResponseReader readerToTest = createReader("A=1\nB=2", 4);
+
+		/* execute */
+		List<String> result = readerToTest.readLinesUntil(END);
+
+		/* test */
+		assertNull(result);
+	}
+
+	@Test
+	public void last_line_without_line_feed_is_returned_before_end_of_stream() throws Exception {
+		/* prepare */
+		DebugResponseReader readerToTest = createReader("A=1\nB=2", 4);
+
+		/* execute + test */
+		assertEquals("A=1", readerToTest.readLine());
+		assertEquals("B=2", readerToTest.readLine());
+		assertNull(readerToTest.readLine());
+	}
+
+	@Test
+	public void empty_lines_are_returned() throws Exception {
+		/* prepare */
+		DebugResponseReader readerToTest = createReader("\n\nA=1\n", 4);
+
+		/* execute + test */
+		assertEquals("", readerToTest.readLine());
+		assertEquals("", readerToTest.readLine());
+		assertEquals("A=1", readerToTest.readLine());
+		assertNull(readerToTest.readLine());
+	}
+
+	@Test
+	public void multibyte_characters_split_between_buffer_fills_are_decoded() throws Exception {
+		/* prepare */
+		DebugResponseReader readerToTest = createReader("X=\u00e4\u00f6\u00fc\u20ac\n", 3);
+
+		/* execute + test */
+		assertEquals("X=\u00e4\u00f6\u00fc\u20ac", readerToTest.readLine());
+	}
+
+	private DebugResponseReader createReader(String content, int bufferSize) {
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+		return new DebugResponseReader(Channels.newChannel(inputStream), bufferSize, StandardCharsets.UTF_8);
+	}
+}
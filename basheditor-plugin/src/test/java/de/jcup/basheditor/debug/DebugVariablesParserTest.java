@@ -0,0 +1,201 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.debug;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DebugVariablesParserTest {
+
+	private DebugVariablesParser parserToTest;
+
+	@Before
+	public void before() {
+		parserToTest = new DebugVariablesParser(new DebugBashCodeBuilder(), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void set_output_scalars() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("E=", "EXP=1", "S='it'\\''s \"q\" $x \\ done'", "X=value");
+
+		/* test */
+		assertEquals(4, result.size());
+		assertVariable(result.get(0), "E", "");
+		assertVariable(result.get(1), "EXP", "1");
+		assertVariable(result.get(2), "S", "it's \"q\" $x \\ done");
+		assertVariable(result.get(3), "X", "value");
+		assertFalse(result.get(3).isArray());
+	}
+
+	@Test
+	public void declare_output_scalars() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("declare -- S=\"it's \\\"q\\\" \\$x \\\\ done\"", "declare -x EXP=\"1\"", "declare -- E=\"\"");
+
+		/* test */
+		assertEquals(3, result.size());
+		assertVariable(result.get(0), "E", "");
+		assertVariable(result.get(1), "EXP", "1");
+		assertVariable(result.get(2), "S", "it's \"q\" $x \\ done");
+	}
+
+	@Test
+	public void ansi_c_quoted_values() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("ESC=$'\\E[0m'", "NL=$'a\\nb\\tc'", "Q=$'it\\'s'", "U=$'\\303\\244\\303\\266\\342\\202\\254'", "X=$'\\x41\\u00e4'");
+
+		/* test */
+		assertVariable(result.get(0), "ESC", "\u001b[0m");
+		assertVariable(result.get(1), "NL", "a\nb\tc");
+		assertVariable(result.get(2), "Q", "it's");
+		assertVariable(result.get(3), "U", "\u00e4\u00f6\u20ac");
+		assertVariable(result.get(4), "X", "A\u00e4");
+	}
+
+	@Test
+	public void indexed_arrays_keep_indices() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("SP=([0]=\"a\" [5]=\"b c\" [7]=$'l1\\nl2')");
+
+		/* test */
+		BashNetworkVariableData variable = result.get(0);
+		assertTrue(variable.isArray());
+		assertFalse(variable.isAssociative());
+		assertEquals(3, variable.getArraySize());
+		assertEquals("a", variable.getStringValue(0));
+		assertEquals("b c", variable.getStringValue(1));
+		assertEquals("l1\nl2", variable.getStringValue(2));
+		assertEquals("0", variable.getArrayKey(0));
+		assertEquals("5", variable.getArrayKey(1));
+		assertEquals("7", variable.getArrayKey(2));
+		assertEquals("([0]=\"a\" [5]=\"b c\" [7]=$'l1\\nl2')", variable.getStringValue());
+	}
+
+	@Test
+	public void associative_arrays_keep_keys() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("declare -A M=([k]=\"v\" [\"a b\"]=\"c d\" [\"x]y\"]=\"1\" )");
+
+		/* test */
+		BashNetworkVariableData variable = result.get(0);
+		assertTrue(variable.isAssociative());
+		assertEquals(3, variable.getArraySize());
+		assertEquals("k", variable.getArrayKey(0));
+		assertEquals("v", variable.getStringValue(0));
+		assertEquals("a b", variable.getArrayKey(1));
+		assertEquals("c d", variable.getStringValue(1));
+		assertEquals("x]y", variable.getArrayKey(2));
+		assertEquals("1", variable.getStringValue(2));
+	}
+
+	@Test
+	public void declare_output_arrays_with_multiple_flags() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("declare -ai N=([0]=\"1\" [1]=\"2\")");
+
+		/* test */
+		BashNetworkVariableData variable = result.get(0);
+		assertEquals("N", variable.getName());
+		assertEquals(2, variable.getArraySize());
+		assertEquals(2, variable.getIntValue(1));
+	}
+
+	@Test
+	public void single_quoted_arrays_of_older_bash_versions() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("declare -a FUNCNAME='([0]=\"f\" [1]=\"main\")'", "declare -A M='([k]=\"v\" )'");
+
+		/* test */
+		BashNetworkVariableData functionName = result.get(0);
+		assertEquals(2, functionName.getArraySize());
+		assertEquals("main", functionName.getStringValue(1));
+		BashNetworkVariableData map = result.get(1);
+		assertTrue(map.isAssociative());
+		assertEquals("k", map.getArrayKey(0));
+		assertEquals("v", map.getStringValue(0));
+	}
+
+	@Test
+	public void double_quoted_value_spanning_multiple_lines() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("declare -- A=\"line1", "line2\"", "declare -a B=([0]=\"x", "y\" [1]=\"z\")");
+
+		/* test */
+		assertEquals(2, result.size());
+		assertVariable(result.get(0), "A", "line1\nline2");
+		assertEquals("x\ny", result.get(1).getStringValue(0));
+		assertEquals("z", result.get(1).getStringValue(1));
+		assertEquals("([0]=\"x\ny\" [1]=\"z\")", result.get(1).getStringValue());
+	}
+
+	@Test
+	public void parsing_ends_at_first_function() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("A=1", "f () ", "{ ", "    local x=1;", "B=2", "}");
+
+		/* test */
+		assertEquals(1, result.size());
+		assertVariable(result.get(0), "A", "1");
+	}
+
+	@Test
+	public void underscore_debug_variables_unset_and_invalid_lines_are_ignored() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("_=last", "_________DEBUG_COMMAND=':; set >&33'", "declare -- UNSET", "", "no variable", "1X=1", "A=1");
+
+		/* test */
+		assertEquals(1, result.size());
+		assertVariable(result.get(0), "A", "1");
+	}
+
+	@Test
+	public void unclosed_quote_at_end_is_ignored() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("A=1", "B=\"open");
+
+		/* test */
+		assertEquals(1, result.size());
+		assertVariable(result.get(0), "A", "1");
+	}
+
+	@Test
+	public void result_is_sorted_case_insensitive() {
+		/* execute */
+		List<BashNetworkVariableData> result = parse("b=2", "C=3", "A=1", "a2=4");
+
+		/* test */
+		assertEquals("A", result.get(0).getName());
+		assertEquals("a2", result.get(1).getName());
+		assertEquals("b", result.get(2).getName());
+		assertEquals("C", result.get(3).getName());
+	}
+
+	private List<BashNetworkVariableData> parse(String... lines) {
+		return parserToTest.parse(Arrays.asList(lines));
+	}
+
+	private void assertVariable(BashNetworkVariableData variable, String expectedName, String expectedValue) {
+		assertEquals(expectedName, variable.getName());
+		assertEquals(expectedValue, variable.getStringValue());
+	}
+}
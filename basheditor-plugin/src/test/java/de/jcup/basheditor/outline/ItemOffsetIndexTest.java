@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.outline;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ItemOffsetIndexTest {
+
+	@Test
+	public void null_items_results_in_nothing_found() {
+		assertNull(new ItemOffsetIndex(null).find(0));
+	}
+
+	@Test
+	public void item_is_found_for_offsets_from_start_to_end_inclusive() {
+		/* prepare */
+		Item item = createItem(10, 20);
+
+		/* execute */
+		ItemOffsetIndex indexToTest = new ItemOffsetIndex(new Object[] { item });
+
+		/* test */
+		assertNull(indexToTest.find(9));
+		assertSame(item, indexToTest.find(10));
+		assertSame(item, indexToTest.find(15));
+		assertSame(item, indexToTest.find(20));
+		assertNull(indexToTest.find(21));
+	}
+
+	@Test
+	public void child_is_found_before_parent() {
+		/* prepare */
+		Item parent = createItem(0, 100);
+		Item child = createItem(10, 20);
+		parent.getChildren().add(child);
+
+		/* execute */
+		ItemOffsetIndex indexToTest = new ItemOffsetIndex(new Object[] { parent });
+
+		/* test */
+		assertSame(parent, indexToTest.find(5));
+		assertSame(child, indexToTest.find(10));
+		assertSame(parent, indexToTest.find(21));
+	}
+
+	@Test
+	public void first_item_is_found_when_items_overlap() {
+		/* prepare */
+		Item first = createItem(10, 20);
+		Item second = createItem(0, 30);
+
+		/* execute */
+		ItemOffsetIndex indexToTest = new ItemOffsetIndex(new Object[] { first, "no item", second });
+
+		/* test */
+		assertSame(second, indexToTest.find(5));
+		assertSame(first, indexToTest.find(15));
+		assertSame(second, indexToTest.find(25));
+	}
+
+	@Test
+	public void random_items_are_found_like_linear_search_does() {
+		Random random = new Random(4711);
+		for (int run = 0; run < 50; run++) {
+			/* prepare */
+			Object[] items = new Object[random.nextInt(30)];
+			for (int i = 0; i < items.length; i++) {
+				Item item = createRandomItem(random);
+				if (random.nextInt(3) == 0) {
+					item.getChildren().add(createRandomItem(random));
+					item.getChildren().add(createRandomItem(random));
+				}
+				items[i] = item;
+			}
+
+			/* execute */
+			ItemOffsetIndex indexToTest = new ItemOffsetIndex(items);
+
+			/* test */
+			for (int offset = -1; offset < 220; offset++) {
+				assertSame("offset:" + offset, findLinear(offset, items), indexToTest.find(offset));
+			}
+		}
+	}
+
+	private Item createRandomItem(Random random) {
+		int start = random.nextInt(200);
+		return createItem(start, start + random.nextInt(20) - 2);
+	}
+
+	private Item findLinear(int offset, Object[] items) {
+		for (Object object : items) {
+			Item item = (Item) object;
+			if (item.hasChildren()) {
+				Item found = findLinear(offset, item.getChildren().toArray());
+				if (found != null) {
+					return found;
+				}
+			}
+			if (offset >= item.getOffset() && offset <= item.getEndOffset()) {
+				return item;
+			}
+		}
+		return null;
+	}
+
+	private Item createItem(int offset, int endOffset) {
+		Item item = new Item();
+		item.name = "item" + offset;
+		item.offset = offset;
+		item.endOffset = endOffset;
+		item.length = endOffset - offset;
+		return item;
+	}
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BashScriptBuildStatisticsTest {
+	private BashScriptBuildStatistics statisticsToTest;
+
+	@Before
+	public void before() {
+		statisticsToTest = new BashScriptBuildStatistics();
+	}
+
+	@Test
+	public void percentiles_are_nearest_rank() {
+		/* prepare */
+		for (int i = 1; i <= 100; i++) {
+			statisticsToTest.add(BashScriptBuildStage.TOKENIZE, 500, i, i * 10);
+		}
+
+		/* test */
+		assertEquals(50, statisticsToTest.getNanosPercentile(BashScriptBuildStage.TOKENIZE, 500, 50));
+		assertEquals(99, statisticsToTest.getNanosPercentile(BashScriptBuildStage.TOKENIZE, 500, 99));
+		assertEquals(500, statisticsToTest.getAllocatedBytesPercentile(BashScriptBuildStage.TOKENIZE, 500, 50));
+		assertEquals(990, statisticsToTest.getAllocatedBytesPercentile(BashScriptBuildStage.TOKENIZE, 500, 99));
+	}
+
+	@Test
+	public void samples_are_separated_by_stage_and_size_bucket() {
+		/* prepare */
+		statisticsToTest.add(BashScriptBuildStage.TOKENIZE, 500, 1, 1);
+		statisticsToTest.add(BashScriptBuildStage.TOKENIZE, 50_000, 2, 2);
+		statisticsToTest.add(BashScriptBuildStage.VALIDATE, 500, 3, 3);
+
+		/* test */
+		assertEquals(1, statisticsToTest.getNanosPercentile(BashScriptBuildStage.TOKENIZE, 9_999, 50));
+		assertEquals(2, statisticsToTest.getNanosPercentile(BashScriptBuildStage.TOKENIZE, 10_000, 50));
+		assertEquals(3, statisticsToTest.getNanosPercentile(BashScriptBuildStage.VALIDATE, 0, 50));
+		assertEquals(-1, statisticsToTest.getNanosPercentile(BashScriptBuildStage.VALIDATE, 50_000, 50));
+	}
+
+	@Test
+	public void unknown_allocations_are_ignored_for_allocation_percentiles() {
+		/* prepare */
+		statisticsToTest.add(BashScriptBuildStage.OUTLINE, 1, 1, BashScriptBuildStatistics.UNKNOWN_BYTES);
+		statisticsToTest.add(BashScriptBuildStage.OUTLINE, 1, 1, 100);
+		statisticsToTest.add(BashScriptBuildStage.REBUILD_OUTLINE, 1, 1, BashScriptBuildStatistics.UNKNOWN_BYTES);
+
+		/* test */
+		assertEquals(100, statisticsToTest.getAllocatedBytesPercentile(BashScriptBuildStage.OUTLINE, 1, 50));
+		assertEquals(BashScriptBuildStatistics.UNKNOWN_BYTES, statisticsToTest.getAllocatedBytesPercentile(BashScriptBuildStage.REBUILD_OUTLINE, 1, 50));
+	}
+
+	@Test
+	public void only_last_samples_are_kept() {
+		/* prepare */
+		for (int i = 0; i < BashScriptBuildStatistics.MAX_SAMPLES; i++) {
+			statisticsToTest.add(BashScriptBuildStage.TOKENIZE, 1, 1000, 0);
+		}
+
+		/* execute */
+		for (int i = 0; i < BashScriptBuildStatistics.MAX_SAMPLES; i++) {
+			statisticsToTest.add(BashScriptBuildStage.TOKENIZE, 1, 1, 0);
+		}
+
+		/* test */
+		assertEquals(1, statisticsToTest.getNanosPercentile(BashScriptBuildStage.TOKENIZE, 1, 99));
+	}
+
+	@Test
+	public void report_contains_stages_with_samples_only() {
+		/* prepare */
+		statisticsToTest.add(BashScriptBuildStage.TOKENIZE, 500, 2_000_000, 2048);
+
+		/* execute */
+		String report = statisticsToTest.createReport();
+
+		/* test */
+		assertTrue(report, report.contains("tokenize"));
+		assertTrue(report, report.contains("<10K"));
+		assertTrue(report, report.contains("2.00ms"));
+		assertTrue(report, report.contains("2.0KB"));
+		assertFalse(report, report.contains("validate"));
+	}
+
+	@Test
+	public void measure_without_statistics_does_nothing() {
+		/* execute */
+		BashScriptBuildStatistics.measure(null, BashScriptBuildStage.TOKENIZE, 1).done();
+
+		/* test - no exception */
+	}
+
+	@Test
+	public void model_builder_with_statistics_measures_all_build_stages() throws Exception {
+		/* prepare */
+		BashScriptModelBuilder builder = new BashScriptModelBuilder();
+		builder.setStatistics(statisticsToTest);
+
+		/* execute */
+		builder.build("function a(){\n echo a\n}\n");
+
+		/* test */
+		for (BashScriptBuildStage stage : new BashScriptBuildStage[] { BashScriptBuildStage.TOKENIZE, BashScriptBuildStage.VARIABLES, BashScriptBuildStage.FUNCTIONS,
+				BashScriptBuildStage.VALIDATE, BashScriptBuildStage.BUILD }) {
+			assertTrue(stage.name(), statisticsToTest.getNanosPercentile(stage, 10, 50) >= 0);
+		}
+		assertEquals(-1, statisticsToTest.getNanosPercentile(BashScriptBuildStage.OUTLINE, 10, 50));
+	}
+
+}
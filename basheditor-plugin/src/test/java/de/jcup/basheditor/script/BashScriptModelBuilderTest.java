@@ -48,6 +48,33 @@ public class BashScriptModelBuilderTest {
             hasNoVariables();
         /* @formatter:on */
     }
+
+    @Test
+    public void a_canceled_build_returns_no_model() throws Exception{
+        /* prepare */
+        String script = "xxx=1234";
+
+        /* execute */
+        BashScriptModel bashScriptModel = builderToTest.build(script, () -> true);
+
+        /* test */
+        assertNull(bashScriptModel);
+    }
+
+    @Test
+    public void a_build_canceled_after_tokenizing_returns_no_model() throws Exception{
+        /* prepare */
+        String script = "function a(){\n}\n";
+        int[] checks = new int[1];
+
+        /* execute */
+        BashScriptModel bashScriptModel = builderToTest.build(script, () -> ++checks[0] > 1);
+
+        /* test */
+        assertNull(bashScriptModel);
+        assertEquals(2, checks[0]);
+    }
+
     @Test
     public void a_variable_xxx_is_recognized() throws Exception{
         /* prepare */
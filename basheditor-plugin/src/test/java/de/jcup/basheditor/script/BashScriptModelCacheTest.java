@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BashScriptModelCacheTest {
+	private BashScriptModelCache cacheToTest;
+
+	@Before
+	public void before() {
+		cacheToTest = new BashScriptModelCache();
+	}
+
+	@Test
+	public void model_put_for_stamp_is_returned_for_same_stamp() {
+		/* prepare */
+		BashScriptModel model = new BashScriptModel();
+
+		/* execute */
+		cacheToTest.put(42, model);
+
+		/* test */
+		assertSame(model, cacheToTest.get(42));
+	}
+
+	@Test
+	public void model_put_for_stamp_is_not_returned_for_other_stamp() {
+		/* execute */
+		cacheToTest.put(42, new BashScriptModel());
+
+		/* test */
+		assertNull(cacheToTest.get(43));
+	}
+
+	@Test
+	public void model_for_unknown_stamp_is_never_cached() {
+		/* execute */
+		cacheToTest.put(BashScriptModelCache.UNKNOWN_MODIFICATION_STAMP, new BashScriptModel());
+
+		/* test */
+		assertNull(cacheToTest.get(BashScriptModelCache.UNKNOWN_MODIFICATION_STAMP));
+	}
+
+	@Test
+	public void newer_model_replaces_former_one() {
+		/* prepare */
+		BashScriptModel model = new BashScriptModel();
+		cacheToTest.put(1, new BashScriptModel());
+
+		/* execute */
+		cacheToTest.put(2, model);
+
+		/* test */
+		assertNull(cacheToTest.get(1));
+		assertSame(model, cacheToTest.get(2));
+	}
+
+	@Test
+	public void latest_model_is_returned_for_any_stamp() {
+		/* prepare */
+		BashScriptModel model = new BashScriptModel();
+
+		/* execute */
+		cacheToTest.put(1, model);
+
+		/* test */
+		assertNull(cacheToTest.get(2));
+		assertSame(model, cacheToTest.getLatest());
+	}
+
+	@Test
+	public void clear_removes_model() {
+		/* prepare */
+		cacheToTest.put(1, new BashScriptModel());
+
+		/* execute */
+		cacheToTest.clear();
+
+		/* test */
+		assertNull(cacheToTest.get(1));
+		assertNull(cacheToTest.getLatest());
+	}
+
+}
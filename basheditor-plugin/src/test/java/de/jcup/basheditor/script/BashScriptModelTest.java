@@ -15,9 +15,14 @@
  */
  package de.jcup.basheditor.script;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -44,4 +49,81 @@ public class BashScriptModelTest {
 		assertFalse(modelToTest.hasErrors());
 	}
 	
+	@Test
+	public void get_function_by_name_returns_first_definition() {
+		/* prepare */
+		BashFunction first = createFunction("a", 0, 10);
+		BashFunction second = createFunction("a", 20, 30);
+		modelToTest.addFunction(first);
+		modelToTest.addFunction(createFunction("b", 12, 18));
+		modelToTest.addFunction(second);
+
+		/* test */
+		assertSame(first, modelToTest.getFunction("a"));
+		List<BashFunction> functions = modelToTest.getFunctions("a");
+		assertEquals(2, functions.size());
+		assertSame(first, functions.get(0));
+		assertSame(second, functions.get(1));
+	}
+
+	@Test
+	public void get_function_by_unknown_name_returns_null_and_empty_list() {
+		/* prepare */
+		modelToTest.addFunction(createFunction("a", 0, 10));
+
+		/* test */
+		assertNull(modelToTest.getFunction("x"));
+		assertNull(modelToTest.getFunction(null));
+		assertTrue(modelToTest.getFunctions("x").isEmpty());
+	}
+
+	@Test
+	public void get_function_at_offset_returns_function_containing_offset() {
+		/* prepare */
+		BashFunction a = createFunction("a", 0, 10);
+		BashFunction b = createFunction("b", 20, 30);
+		BashFunction c = createFunction("c", 40, 50);
+		modelToTest.addFunction(a);
+		modelToTest.addFunction(c);
+		modelToTest.addFunction(b); // not in offset order
+
+		/* test */
+		assertSame(a, modelToTest.getFunctionAt(0));
+		assertSame(a, modelToTest.getFunctionAt(10));
+		assertNull(modelToTest.getFunctionAt(11));
+		assertSame(b, modelToTest.getFunctionAt(25));
+		assertNull(modelToTest.getFunctionAt(35));
+		assertSame(c, modelToTest.getFunctionAt(40));
+		assertNull(modelToTest.getFunctionAt(51));
+		assertNull(modelToTest.getFunctionAt(-1));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void functions_cannot_be_added_without_indexes() {
+		/* execute */
+		modelToTest.getFunctions().add(createFunction("a", 0, 10));
+	}
+
+	@Test
+	public void builder_adds_functions_to_indexes() throws Exception {
+		/* prepare */
+		String script = "function a(){\n}\nfunction b(){\necho b\n}\n";
+
+		/* execute */
+		BashScriptModel model = new BashScriptModelBuilder().build(script);
+
+		/* test */
+		BashFunction b = model.getFunction("b");
+		assertEquals("b", b.getName());
+		assertSame(b, model.getFunctionAt(script.indexOf("echo")));
+	}
+
+	private BashFunction createFunction(String name, int position, int end) {
+		BashFunction function = new BashFunction();
+		function.name = name;
+		function.position = position;
+		function.end = end;
+		return function;
+	}
+
 }
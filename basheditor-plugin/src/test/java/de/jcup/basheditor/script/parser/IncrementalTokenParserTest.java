@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.jcup.basheditor.TestScriptLoader;
+
+public class IncrementalTokenParserTest {
+
+	private IncrementalTokenParser parserToTest;
+	private String script;
+
+	@Before
+	public void before() {
+		parserToTest = new IncrementalTokenParser();
+	}
+
+	@Test
+	public void insert_inside_function_results_in_same_tokens_as_full_parse() throws Exception {
+		/* prepare */
+		initialScript("function a(){\n  echo a\n}\nfunction b(){\n  echo b\n}\n");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(script.indexOf("echo a") + 6, 0, "lpha");
+	}
+
+	@Test
+	public void inserting_a_quote_changes_following_tokens_like_full_parse() throws Exception {
+		/* prepare */
+		initialScript("a=1\nb=2\necho $a\necho $b\n");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(script.indexOf("b=2"), 0, "\"");
+	}
+
+	@Test
+	public void removing_a_quote_changes_following_tokens_like_full_parse() throws Exception {
+		/* prepare */
+		initialScript("a=\"1\nb=2\necho $a\"\necho $b\n");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(script.indexOf("\""), 1, "");
+	}
+
+	@Test
+	public void heredoc_becoming_valid_is_recognized_like_full_parse() throws Exception {
+		/* prepare */
+		initialScript("cat <<EO\nline1\nline2\nEOF\necho done\n");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(script.indexOf("EO\n") + 2, 0, "F");
+	}
+
+	@Test
+	public void heredoc_becoming_invalid_is_recognized_like_full_parse() throws Exception {
+		/* prepare */
+		initialScript("cat <<EOF\nline1\nline2\nEOF\necho done\n");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(script.lastIndexOf("EOF"), 3, "EOX");
+	}
+
+	@Test
+	public void heredoc_without_content_becoming_valid_is_recognized_like_full_parse() throws Exception {
+		/* prepare */
+		initialScript("cat << EOF\n  \nEOF\necho done\n");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(script.indexOf("  \n"), 0, "content");
+	}
+
+	@Test
+	public void change_after_heredoc_without_content_does_not_parse_heredoc_again() throws Exception {
+		/* prepare */
+		script = "cat << EOF\n  \nEOF\na=1\nb=2\n";
+		parserToTest.prepare(script);
+		List<ParseToken> former = parserToTest.parse(script);
+		change(script.indexOf("b=2"), 0, "x");
+
+		/* execute */
+		parserToTest.prepare(script);
+		List<ParseToken> tokens = parserToTest.parse(script);
+
+		/* test */
+		assertSameTokens(new TokenParser().parse(script), tokens);
+		assertSame(former.get(1), tokens.get(1));
+		assertSame(former.get(3), tokens.get(3));
+	}
+
+	@Test
+	public void typing_into_empty_script_results_in_same_tokens_as_full_parse() throws Exception {
+		/* prepare */
+		initialScript("");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(0, 0, "e");
+		assertChangeResultsInFullParseResult(1, 0, "cho");
+	}
+
+	@Test
+	public void typing_into_whitespace_only_script_results_in_same_tokens_as_full_parse() throws Exception {
+		/* prepare */
+		initialScript("  \n\n");
+
+		/* execute + test */
+		assertChangeResultsInFullParseResult(3, 0, "a=1");
+	}
+
+	@Test
+	public void multiple_changes_before_parse_result_in_same_tokens_as_full_parse() throws Exception {
+		/* prepare */
+		initialScript(TestScriptLoader.loadScriptFromTestScripts("bugfix_41_4_bigscript.sh"));
+
+		/* execute */
+		change(100, 0, "function x(){\n echo x\n}\n");
+		change(script.length() / 2, 5, "");
+		change(10, 2, "# comment\n");
+		parserToTest.prepare(script);
+		List<ParseToken> tokens = parserToTest.parse(script);
+
+		/* test */
+		assertSameTokens(new TokenParser().parse(script), tokens);
+	}
+
+	@Test
+	public void many_changes_in_big_script_result_in_same_tokens_as_full_parse() throws Exception {
+		/* prepare */
+		initialScript(TestScriptLoader.loadScriptFromTestScripts("bugfix_41_4_bigscript.sh"));
+		List<ParseToken> tokens = null;
+
+		/* execute */
+		for (int i = 0; i < 100; i++) {
+			change((script.length() * (i % 10)) / 10, i % 3, "x\n");
+			parserToTest.prepare(script);
+			tokens = parserToTest.parse(script);
+		}
+
+		/* test */
+		assertSameTokens(new TokenParser().parse(script), tokens);
+	}
+
+	@Test
+	public void change_after_prepare_but_before_parse_is_handled_by_next_parse() throws Exception {
+		/* prepare */
+		initialScript("a=1\nb=2\nc=3\n");
+		change(0, 0, "x=0\n");
+		String preparedScript = script;
+		parserToTest.prepare(preparedScript);
+		change(script.length(), 0, "d=\"4\n");
+
+		/* execute */
+		parserToTest.parse(preparedScript);
+		parserToTest.prepare(script);
+		List<ParseToken> tokens = parserToTest.parse(script);
+
+		/* test */
+		assertSameTokens(new TokenParser().parse(script), tokens);
+	}
+
+	@Test
+	public void texts_of_former_tokens_are_not_changed_by_next_parse() throws Exception {
+		/* prepare */
+		script = "a=1\nb=2\nc=3\nd=4\n";
+		parserToTest.prepare(script);
+		List<ParseToken> former = parserToTest.parse(script);
+		change(0, 0, "x=0\n");
+
+		/* execute */
+		parserToTest.prepare(script);
+		List<ParseToken> tokens = parserToTest.parse(script);
+
+		/* test */
+		assertSameTokens(new TokenParser().parse("a=1\nb=2\nc=3\nd=4\n"), former);
+		assertSameTokens(new TokenParser().parse(script), tokens);
+	}
+
+	@Test
+	public void tokens_before_change_are_reused_as_they_are() throws Exception {
+		/* prepare */
+		script = "a=1\nb=2\nc=3\nd=4\n";
+		parserToTest.prepare(script);
+		List<ParseToken> former = parserToTest.parse(script);
+		change(script.indexOf("c=3"), 3, "c=33");
+
+		/* execute */
+		parserToTest.prepare(script);
+		List<ParseToken> tokens = parserToTest.parse(script);
+
+		/* test */
+		assertSame(former.get(0), tokens.get(0));
+		assertSame(former.get(3), tokens.get(3));
+		assertEquals("b=", tokens.get(2).getText());
+		assertEquals("33", tokens.get(5).getText());
+		assertEquals("4", tokens.get(7).getText());
+	}
+
+	@Test
+	public void script_not_prepared_is_parsed_completely() throws Exception {
+		/* prepare */
+		initialScript("a=1\n");
+
+		/* execute */
+		List<ParseToken> tokens = parserToTest.parse("b=2\nc=3");
+
+		/* test */
+		assertSameTokens(new TokenParser().parse("b=2\nc=3"), tokens);
+	}
+
+	@Test
+	public void changed_region_merges_overlapping_changes() {
+		/* prepare */
+		IncrementalTokenParser.ChangedRegion region = new IncrementalTokenParser.ChangedRegion();
+
+		/* execute */
+		region.add(5, 2, 4); // 0123456789 -> 01234xxxx789
+		region.add(2, 0, 1); // -> 01y234xxxx789
+
+		/* test */
+		ScriptChange change = region.createChange("01y234xxxx789");
+		assertEquals(2, change.getOffset());
+		assertEquals(5, change.getLength());
+		assertEquals("y234xxxx", change.getText());
+	}
+
+	@Test
+	public void changed_region_without_changes_creates_empty_change() {
+		/* execute */
+		ScriptChange change = new IncrementalTokenParser.ChangedRegion().createChange("abc");
+
+		/* test */
+		assertEquals(0, change.getLength());
+		assertEquals("", change.getText());
+	}
+
+	/* -------------------------------------------------------------------- */
+	/* --------------------------- Helpers -------------------------------- */
+	/* -------------------------------------------------------------------- */
+	private void initialScript(String initialScript) throws TokenParserException {
+		script = initialScript;
+		parserToTest.prepare(script);
+		parserToTest.parse(script);
+	}
+
+	private void change(int offset, int length, String text) {
+		script = script.substring(0, offset) + text + script.substring(offset + length);
+		parserToTest.scriptChanged(offset, length, text);
+	}
+
+	private void assertChangeResultsInFullParseResult(int offset, int length, String text) throws TokenParserException {
+		change(offset, length, text);
+		parserToTest.prepare(script);
+
+		List<ParseToken> tokens = parserToTest.parse(script);
+
+		assertSameTokens(new TokenParser().parse(script), tokens);
+	}
+
+	private void assertSameTokens(List<ParseToken> expected, List<ParseToken> found) {
+		assertEquals(tokensToString(expected), tokensToString(found));
+	}
+
+	private String tokensToString(List<ParseToken> tokens) {
+		StringBuilder sb = new StringBuilder();
+		for (ParseToken token : tokens) {
+			sb.append(token.getStart()).append(':').append(token.getEnd()).append(':').append(token.getText()).append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class ParseTokenListTest {
+
+	@Test
+	public void list_contains_given_tokens() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(3);
+
+		/* execute */
+		ParseTokenList listToTest = new ParseTokenList(tokens);
+
+		/* test */
+		assertEquals(3, listToTest.size());
+		assertSame(tokens.get(0), listToTest.get(0));
+		assertSame(tokens.get(2), listToTest.get(2));
+		assertEquals(-1, listToTest.getFirstUnknownHereDocIndex());
+	}
+
+	@Test
+	public void changed_list_reuses_prefix_tokens_as_they_are() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(5);
+		ParseTokenList listToTest = new ParseTokenList(tokens);
+
+		/* execute */
+		ParseTokenList changed = listToTest.createChanged(null, 2, Arrays.asList(token(20, 25, "new")), 3, 2);
+
+		/* test */
+		assertEquals(5, changed.size());
+		assertSame(tokens.get(0), changed.get(0));
+		assertSame(tokens.get(1), changed.get(1));
+		assertEquals("new", changed.get(2).getText());
+	}
+
+	@Test
+	public void changed_list_shifts_suffix_tokens_on_access() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(5);
+		ParseTokenList listToTest = new ParseTokenList(tokens);
+
+		/* execute */
+		ParseTokenList changed = listToTest.createChanged(null, 2, Arrays.asList(token(20, 25, "new")), 3, 2);
+
+		/* test */
+		assertEquals(tokens.get(3).start + 2, changed.getStart(3));
+		assertEquals(tokens.get(3).end + 2, changed.getEnd(3));
+		ParseToken shifted = changed.get(3);
+		assertNotSame(tokens.get(3), shifted);
+		assertEquals(tokens.get(3).start + 2, shifted.getStart());
+		assertEquals(tokens.get(3).getText(), shifted.getText());
+		assertSame(shifted, changed.get(3));
+		/* former list is not changed */
+		assertSame(tokens.get(3), listToTest.get(3));
+	}
+
+	@Test
+	public void changed_list_without_delta_reuses_suffix_tokens_as_they_are() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(5);
+		ParseTokenList listToTest = new ParseTokenList(tokens);
+
+		/* execute */
+		ParseTokenList changed = listToTest.createChanged(null, 2, Arrays.asList(token(6, 7, "x")), 3, 0);
+
+		/* test */
+		assertSame(tokens.get(4), changed.get(4));
+	}
+
+	@Test
+	public void shifted_and_former_tokens_with_lazy_text_have_same_text() {
+		/* prepare */
+		String formerScript = "ab cd";
+		ParseToken token = new ParseToken();
+		token.start = 3;
+		token.end = 5;
+		token.setTextFromSource(formerScript, 3, 2);
+		ParseTokenList listToTest = new ParseTokenList(new ArrayList<>(Arrays.asList(token)));
+
+		/* execute */
+		ParseTokenList changed = listToTest.createChanged("xyab cd", 0, Collections.<ParseToken>emptyList(), 0, 2);
+
+		/* test */
+		assertEquals("cd", changed.get(0).getText());
+		assertEquals(5, changed.get(0).getStart());
+		assertEquals("cd", listToTest.get(0).getText());
+	}
+
+	@Test
+	public void here_doc_end_is_shifted_but_unknown_here_doc_end_is_kept() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(4);
+		tokens.get(2).hereDocEnd = 100;
+		tokens.get(3).hereDocEnd = ParseToken.HERE_DOC_END_UNKNOWN;
+		ParseTokenList listToTest = new ParseTokenList(tokens);
+
+		/* execute */
+		ParseTokenList changed = listToTest.createChanged(null, 1, Collections.<ParseToken>emptyList(), 1, 5);
+
+		/* test */
+		assertEquals(105, changed.getHereDocEnd(2));
+		assertEquals(ParseToken.HERE_DOC_END_UNKNOWN, changed.getHereDocEnd(3));
+		assertEquals(-1, changed.getHereDocEnd(1));
+	}
+
+	@Test
+	public void first_unknown_here_doc_index_is_resolved_after_change() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(10);
+		tokens.get(7).hereDocEnd = ParseToken.HERE_DOC_END_UNKNOWN;
+		ParseTokenList listToTest = new ParseTokenList(tokens);
+
+		/* execute */
+		ParseTokenList changed = listToTest.createChanged(null, 2, Arrays.asList(token(20, 25, "a"), token(26, 27, "b")), 5, 1);
+
+		/* test */
+		assertEquals(7, listToTest.getFirstUnknownHereDocIndex());
+		assertEquals(6, changed.getFirstUnknownHereDocIndex());
+	}
+
+	@Test
+	public void first_unknown_here_doc_index_is_gone_when_token_was_replaced() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(10);
+		tokens.get(7).hereDocEnd = ParseToken.HERE_DOC_END_UNKNOWN;
+		ParseTokenList listToTest = new ParseTokenList(tokens);
+
+		/* execute */
+		ParseTokenList changed = listToTest.createChanged(null, 6, Arrays.asList(token(60, 75, "a")), 8, 0);
+
+		/* test */
+		assertEquals(-1, changed.getFirstUnknownHereDocIndex());
+	}
+
+	@Test
+	public void amount_of_segments_stays_small_after_many_changes() {
+		/* prepare */
+		int size = 10 * ParseTokenList.MIN_SEGMENT_SIZE;
+		ParseTokenList listToTest = new ParseTokenList(tokens(size));
+
+		/* execute */
+		for (int i = 0; i < 1000; i++) {
+			int index = (i * 37) % size;
+			listToTest = listToTest.createChanged(null, index, Arrays.asList(token(index * 10, index * 10 + 5, "c" + i)), index + 1, 0);
+		}
+
+		/* test */
+		assertEquals(size, listToTest.size());
+		/* no small segments are neighbours */
+		assertTrue("segments:" + listToTest.getSegmentCount(), listToTest.getSegmentCount() <= 2 * size / ParseTokenList.MIN_SEGMENT_SIZE + 1);
+		for (int i = 0; i < size; i++) {
+			assertEquals(i * 10, listToTest.getStart(i));
+			assertEquals(listToTest.getStart(i), listToTest.get(i).getStart());
+		}
+	}
+
+	@Test
+	public void of_returns_parse_token_list_itself() {
+		/* prepare */
+		ParseTokenList list = new ParseTokenList(tokens(2));
+
+		/* execute + test */
+		assertSame(list, ParseTokenList.of(list));
+	}
+
+	@Test
+	public void of_wraps_other_list() {
+		/* prepare */
+		List<ParseToken> tokens = tokens(2);
+
+		/* execute */
+		ParseTokenList list = ParseTokenList.of(tokens);
+
+		/* test */
+		assertEquals(tokens, list);
+	}
+
+	/* -------------------------------------------------------------------- */
+	/* --------------------------- Helpers -------------------------------- */
+	/* -------------------------------------------------------------------- */
+	private List<ParseToken> tokens(int amount) {
+		List<ParseToken> tokens = new ArrayList<>();
+		for (int i = 0; i < amount; i++) {
+			tokens.add(token(i * 10, i * 10 + 5, "t" + i));
+		}
+		return tokens;
+	}
+
+	private ParseToken token(int start, int end, String text) {
+		ParseToken token = new ParseToken();
+		token.start = start;
+		token.end = end;
+		token.text = text;
+		return token;
+	}
+}
@@ -154,4 +154,52 @@ public class ParseTokenTest {
 	public void xyz_open_close_bracketgetTextAsFunctionName_returns_xyz() {
 		assertEquals("xyz", new ParseToken("xyz()").getTextAsFunctionName());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void token_with_only_one_character_name_is_NOT_var_like_before() {
+		assertFalse(new ParseToken("a=").isVariableDefinition());
+	}
+
+	@Test
+	public void token_var_starting_with_digit_is_NOT_var() {
+		assertFalse(new ParseToken("1abc=").isVariableDefinition());
+	}
+
+	@Test
+	public void token_var_with_minus_is_NOT_var() {
+		assertFalse(new ParseToken("ab-c=").isVariableDefinition());
+	}
+
+	@Test
+	public void string_ending_with_function_brackets_is_NOT_functionName() {
+		assertFalse(new ParseToken("'abc()").isFunction());
+		assertFalse(new ParseToken("#abc()").isFunction());
+	}
+
+	@Test
+	public void here_string_is_no_here_doc() {
+		assertTrue(new ParseToken("<<<abc").isHereString());
+		assertFalse(new ParseToken("<<<abc").isHereDoc());
+		assertTrue(new ParseToken("<<abc").isHereDoc());
+	}
+
+	@Test
+	public void kinds_of_shifted_copy_are_same() {
+		ParseToken token = new ParseToken("do", 10, 12);
+
+		ParseToken copy = token.createShiftedCopy(5, null);
+
+		assertEquals(token.getKinds(), copy.getKinds());
+		assertTrue(copy.isKind(ParseTokenKind.DO));
+	}
+
+	@Test
+	public void type_descriptions() {
+		assertEquals("COMMENT", new ParseToken("# x").createTypeDescription());
+		assertEquals("GLOBAL_VARIABLE", new ParseToken("$x").createTypeDescription());
+		assertEquals("STRING", new ParseToken("`x`").createTypeDescription());
+		assertEquals("BLOCK-OPEN", new ParseToken("{").createTypeDescription());
+		assertEquals("ESAC", new ParseToken("esac").createTypeDescription());
+		assertEquals("EXPRESSION", new ParseToken("echo").createTypeDescription());
+	}
+}
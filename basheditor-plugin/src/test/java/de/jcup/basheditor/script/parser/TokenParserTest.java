@@ -19,6 +19,7 @@ import static de.jcup.basheditor.script.parser.AssertParseTokens.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
+import java.io.File;
 import java.util.Iterator;
 import java.util.List;
 
@@ -294,11 +295,29 @@ public class TokenParserTest {
         assertEquals(2, token.getEnd());
     }
 
+    @Test
+    public void curly_braces_of_function_have_length_one() throws Exception {
+        /* prepare */
+        String string = "a() {\n}";
+
+        /* execute */
+        List<ParseToken> tokens = parserToTest.parse(string);
+
+        /* test */
+        assertEquals(3, tokens.size());
+        assertEquals("{", tokens.get(1).getText());
+        assertEquals(4, tokens.get(1).getStart());
+        assertEquals(5, tokens.get(1).getEnd());
+        assertEquals("}", tokens.get(2).getText());
+        assertEquals(6, tokens.get(2).getStart());
+        assertEquals(7, tokens.get(2).getEnd());
+    }
+
     @Test
     public void moveUntilNextCharWillBeNoStringContent_no_string_contend_handled_as_expected() throws Exception {
         /* prepare */
         ParseContext context = new ParseContext();
-        context.chars = "$(tput 'STRING')".toCharArray();
+        context.script = "$(tput 'STRING')";
         context.pos = 2;// at t(put)
 
         /* execute */
@@ -312,21 +331,21 @@ public class TokenParserTest {
         context.moveForward();
 
         /* test */
-        assertEquals("tput", context.sb.toString());
+        assertEquals("tput", context.getCurrentText());
 
         /* execute */
         parserToTest.moveUntilNextCharWillBeNoStringContent(context);
         context.moveForward();
 
         /* test */
-        assertEquals("tput ", context.sb.toString());
+        assertEquals("tput ", context.getCurrentText());
 
         /* execute */
         parserToTest.moveUntilNextCharWillBeNoStringContent(context);
         context.moveForward();
 
         /* test */
-        assertEquals("tput 'STRING'", context.sb.toString());
+        assertEquals("tput 'STRING'", context.getCurrentText());
     }
 
     @Test
@@ -351,14 +370,14 @@ public class TokenParserTest {
     private void assertMoveUntilNextCharWillBeNoStringContent(String code, int codePos, String expectedContent, int expectedNextPos) {
         /* prepare */
         ParseContext context = new ParseContext();
-        context.chars = code.toCharArray();
+        context.script = code;
         context.pos = codePos;
 
         /* execute */
         parserToTest.moveUntilNextCharWillBeNoStringContent(context);
 
         /* test */
-        assertEquals(expectedContent, context.sb.toString());
+        assertEquals(expectedContent, context.getCurrentText());
         assertEquals(expectedNextPos, context.pos);
     }
 
@@ -853,6 +872,30 @@ public class TokenParserTest {
         assertThat(tokens).containsTokens("#comment1", "function", "name()");
     }
 
+    @Test
+    public void lazy_token_texts_are_same_as_copied_ones_for_all_testscripts() throws Exception {
+        /* prepare */
+        TokenParser copyingParser = new TokenParser();
+        copyingParser.setLazyTokenText(false);
+
+        for (File file : TestScriptLoader.fetchAllTestScriptFiles()) {
+            String script = TestScriptLoader.loadScript(file);
+
+            /* execute */
+            List<ParseToken> lazyTokens = parserToTest.parse(script);
+            List<ParseToken> copiedTokens = copyingParser.parse(script);
+
+            /* test */
+            assertEquals(file.getName(), copiedTokens.size(), lazyTokens.size());
+            for (int i = 0; i < copiedTokens.size(); i++) {
+                ParseToken copied = copiedTokens.get(i);
+                ParseToken lazy = lazyTokens.get(i);
+                assertEquals(file.getName(), copied.getKinds(), lazy.getKinds());
+                assertEquals(file.getName(), copied.getText(), lazy.getText());
+            }
+        }
+    }
+
     /* -------------------------------------------------------------------- */
     /* --------------------------- Helpers -------------------------------- */
     /* -------------------------------------------------------------------- */
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Albert Tregnaghi
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions
+ * and limitations under the License.
+ *
+ */
+package de.jcup.basheditor.script.parser.validator;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.jcup.basheditor.script.ValidationResult;
+import de.jcup.basheditor.script.parser.ParseToken;
+import de.jcup.basheditor.script.parser.TestParseToken;
+
+public class ParseTokenValidatorPipelineTest {
+	private ParseTokenValidatorPipeline pipelineToTest;
+	private List<ParseToken> tokens;
+
+	@Before
+	public void before() {
+		pipelineToTest = new ParseTokenValidatorPipeline();
+		tokens = new ArrayList<>();
+	}
+
+	@Test
+	public void pipeline_without_validators_has_no_results() {
+		/* prepare */
+		addTokens("if", "{");
+
+		/* execute + test */
+		assertTrue(pipelineToTest.validate(tokens).isEmpty());
+	}
+
+	@Test
+	public void pipeline_results_are_same_as_single_validator_results_in_order_of_validators() {
+		/* prepare */
+		addTokens("do", "if", "{", "case", "x", "done", "}", "}");
+		pipelineToTest.add(new DoEndsWithDoneValidator());
+		pipelineToTest.add(new ClosedBlocksValidator());
+		pipelineToTest.add(new IfEndsWithFiValidator());
+		pipelineToTest.add(new CaseEndsWithEsacValidator());
+
+		/* execute */
+		List<ValidationResult> results = pipelineToTest.validate(tokens);
+
+		/* test */
+		List<ValidationResult> expected = new ArrayList<>();
+		expected.addAll(new ClosedBlocksValidator().validate(tokens));
+		expected.addAll(new IfEndsWithFiValidator().validate(tokens));
+		expected.addAll(new CaseEndsWithEsacValidator().validate(tokens));
+		assertEquals(3, results.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getMessage(), results.get(i).getMessage());
+		}
+	}
+
+	@Test
+	public void pipeline_can_be_used_multiple_times() {
+		/* prepare */
+		addTokens("if");
+		pipelineToTest.add(new IfEndsWithFiValidator());
+		pipelineToTest.validate(tokens);
+		tokens.add(new TestParseToken("fi"));
+
+		/* execute + test */
+		assertTrue(pipelineToTest.validate(tokens).isEmpty());
+	}
+
+	private void addTokens(String... texts) {
+		for (String text : texts) {
+			tokens.add(new TestParseToken(text));
+		}
+	}
+}